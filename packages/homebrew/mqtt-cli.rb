@@ -7,10 +7,21 @@ class MqttCli < Formula
 
   def install
     inreplace "brew/mqtt", "##PREFIX##", "#{prefix}/mqtt-cli-@@version@@.jar"
+    inreplace "brew/mqtt", "##CDS_ARCHIVE##", "#{prefix}/mqtt-cli.jsa"
     prefix.install "brew/mqtt-cli-@@version@@.jar"
+    prefix.install "brew/mqtt-cli.classlist" if File.exist?("brew/mqtt-cli.classlist")
     bin.install "brew/mqtt"
   end
 
+  def post_install
+    # the class data sharing archive has to be created by the JVM which uses it, mqtt starts without it if this fails
+    return unless File.exist?("#{prefix}/mqtt-cli.classlist")
+    quiet_system "java", "-Xshare:dump",
+                 "-XX:SharedClassListFile=#{prefix}/mqtt-cli.classlist",
+                 "-XX:SharedArchiveFile=#{prefix}/mqtt-cli.jsa",
+                 "-cp", "#{prefix}/mqtt-cli-@@version@@.jar"
+  end
+
   test do
     system "false"
   end
@@ -0,0 +1,3 @@
+@ECHO off
+REM Creates the class data sharing archive which speeds up the start of @@exeName@@, run it again after updating Java
+java -Xshare:dump -XX:SharedClassListFile="%~dp0mqtt-cli.classlist" -XX:SharedArchiveFile="%~dp0mqtt-cli.jsa" -cp "%~dp0@@exeName@@" >NUL 2>&1 || DEL /Q "%~dp0mqtt-cli.jsa" >NUL 2>&1
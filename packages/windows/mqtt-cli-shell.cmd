@@ -1,2 +1,3 @@
 @ECHO off
+IF NOT EXIST "%~dp0mqtt-cli.jsa" CALL "%~dp0mqtt-cli-cds.cmd"
 start /B %0\..\ @@exeName@@ shell
@@ -69,6 +69,9 @@ public class DefaultCLIProperties {
     private static final String CLIENT_PRIVATE_KEY = "auth.client.key";
     private static final String SERVER_CERTIFICATE = "auth.server.cafile";
     private static final String WEBSOCKET_PATH = "ws.path";
+    private static final String NETTY_THREADS = "netty.threads";
+    private static final String NETTY_SHARED_EVENT_LOOP = "netty.eventloop.shared";
+    private static final String NETTY_EPOLL = "netty.epoll";
 
     private Map<String, String> propertyToValue = new HashMap<String, String>() {{
        put(MQTT_VERSION, "5");
@@ -89,6 +92,9 @@ public class DefaultCLIProperties {
        put(CLIENT_PRIVATE_KEY, null);
        put(SERVER_CERTIFICATE, null);
        put(WEBSOCKET_PATH, "/mqtt");
+       put(NETTY_THREADS, null);
+       put(NETTY_SHARED_EVENT_LOOP, "true");
+       put(NETTY_EPOLL, "true");
     }};
 
     private File storePropertiesFile;
@@ -281,4 +287,21 @@ public class DefaultCLIProperties {
         return propertyToValue.get(WEBSOCKET_PATH);
     }
 
+    @Nullable
+    public Integer getNettyThreads() {
+        final String nettyThreads = propertyToValue.get(NETTY_THREADS);
+        if (nettyThreads == null) {
+            return null;
+        }
+        return Integer.parseInt(nettyThreads);
+    }
+
+    public boolean isSharedEventLoop() {
+        return Boolean.parseBoolean(propertyToValue.get(NETTY_SHARED_EVENT_LOOP));
+    }
+
+    public boolean isEpoll() {
+        return Boolean.parseBoolean(propertyToValue.get(NETTY_EPOLL));
+    }
+
 }
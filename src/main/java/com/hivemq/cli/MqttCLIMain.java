@@ -16,6 +16,10 @@
  */
 package com.hivemq.cli;
 
+import com.hivemq.cli.daemon.Daemon;
+import com.hivemq.cli.daemon.DaemonClient;
+import com.hivemq.cli.daemon.DaemonRequest;
+import com.hivemq.cli.daemon.DaemonResponse;
 import com.hivemq.cli.ioc.DaggerMqttCLI;
 import com.hivemq.cli.ioc.MqttCLI;
 import com.hivemq.cli.mqtt.ClientData;
@@ -25,11 +29,12 @@ import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
 import picocli.CommandLine;
 
-import java.security.Security;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 public class MqttCLIMain {
@@ -38,24 +43,30 @@ public class MqttCLIMain {
 
     public static void main(final String[] args) {
 
-        Security.setProperty("crypto.policy", "unlimited");
+        if (Daemon.isForwarded(args) && Daemon.getDefaultSocket().exists()) {
+            forwardToDaemon(args);
+        }
 
         MQTTCLI = DaggerMqttCLI.create();
-        final CommandLine commandLine = MQTTCLI.cli();
-        final DefaultCLIProperties defaultCLIProperties = MQTTCLI.defaultCLIProperties();
-
-        try {
-            defaultCLIProperties.init();
-        } catch (Exception e) {
-            System.err.println(e.getMessage());
-            System.exit(-1);
-        }
+        // only the called subcommand is created, the crypto policy and BouncyCastle are set up once TLS is used
+        final CommandLine commandLine = MQTTCLI.cli().create(args);
 
         if (args.length == 0) {
             System.out.println(commandLine.getUsageMessage());
             System.exit(0);
         }
 
+        // the version and the usage of the root command do not need the default properties
+        if (!args[0].startsWith("-")) {
+            final DefaultCLIProperties defaultCLIProperties = MQTTCLI.defaultCLIProperties();
+            try {
+                defaultCLIProperties.init();
+            } catch (Exception e) {
+                System.err.println(e.getMessage());
+                System.exit(-1);
+            }
+        }
+
         Runtime.getRuntime().addShutdownHook(new DisconnectAllClientsTask());
 
         final int exitCode = commandLine.execute(args);
@@ -64,33 +75,62 @@ public class MqttCLIMain {
 
     }
 
+    // exits with the exit code of the daemon, returns only if no daemon is running
+    private static void forwardToDaemon(final String[] args) {
+        final DaemonClient daemonClient = DaemonClient.connect(Daemon.getDefaultSocket());
+        if (daemonClient == null) {
+            return;
+        }
+        int exitCode;
+        try {
+            // relative paths of the arguments are resolved against the working directory of this invocation
+            final File workingDirectory = new File(System.getProperty("user.dir")).getAbsoluteFile();
+            final DaemonResponse response = daemonClient.execute(new DaemonRequest(workingDirectory, args));
+            System.out.write(response.getOut(), 0, response.getOut().length);
+            System.out.flush();
+            System.err.write(response.getErr(), 0, response.getErr().length);
+            System.err.flush();
+            exitCode = response.getExitCode();
+        } catch (final IOException e) {
+            System.err.println(e.getMessage());
+            exitCode = -1;
+        } finally {
+            daemonClient.close();
+        }
+        System.exit(exitCode);
+    }
 
     private static class DisconnectAllClientsTask extends Thread {
 
+        private static final long DISCONNECT_TIMEOUT_SECONDS = 10;
+
         @Override
         public void run() {
 
-            final Map<String, ClientData> clientKeyToClientData = MqttClientExecutor.getClientDataMap();
-
-            final List<CompletableFuture<Void>> disconnectFutures = new ArrayList<CompletableFuture<Void>>();
+            final Map<ClientData, CompletableFuture<Void>> disconnectFutures = new LinkedHashMap<>();
 
-            for (final Map.Entry<String, ClientData> entry: clientKeyToClientData.entrySet()) {
+            for (final ClientData clientData : MqttClientExecutor.getClientRegistry().getAll()) {
 
-                final MqttClient client = entry.getValue().getClient();
+                final MqttClient client = clientData.getClient();
                 if (client.getConfig().getState().isConnectedOrReconnect()) {
                     switch (client.getConfig().getMqttVersion()) {
                         case MQTT_5_0:
-                            disconnectFutures.add(((Mqtt5Client) client).toAsync().disconnect());
+                            final Mqtt5Client mqtt5Client = (Mqtt5Client) client;
+                            if (clientData.isSessionEndedOnDisconnect()) {
+                                // do not leave a session behind which was only kept for automatic reconnects
+                                disconnectFutures.put(clientData, mqtt5Client.toAsync().disconnectWith().sessionExpiryInterval(0).send());
+                            } else {
+                                disconnectFutures.put(clientData, mqtt5Client.toAsync().disconnect());
+                            }
                             break;
                         case MQTT_3_1_1:
-                            disconnectFutures.add(((Mqtt3Client) client).toAsync().disconnect());
+                            disconnectFutures.put(clientData, ((Mqtt3Client) client).toAsync().disconnect());
                             break;
                     }
                 }
             }
 
-            CompletableFuture.allOf(disconnectFutures.toArray(new CompletableFuture<?>[0]))
-                    .join();
+            MqttClientExecutor.awaitDisconnects(disconnectFutures, DISCONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         }
     }
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commandline;
+
+import com.hivemq.cli.commands.MqttCLICommand;
+import com.hivemq.cli.commands.cli.DaemonCommand;
+import com.hivemq.cli.commands.cli.PublishCommand;
+import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.commands.cli.TestBrokerCommand;
+import com.hivemq.cli.commands.shell.ShellCommand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the command line of the CLI mode for the given arguments.
+ * <p>
+ * Only the subcommand named by the first argument is created, so e.g. a publish never builds the shell and its
+ * dependencies. The usage and unknown commands get all subcommands.
+ */
+public class CliCommandLineFactory {
+
+    private static final @NotNull Set<String> VERSION_OPTIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("-V", "--version")));
+
+    private final @NotNull Provider<MqttCLICommand> main;
+    private final @NotNull List<Provider<?>> subcommands = new ArrayList<>();
+    private final @NotNull Map<String, Provider<?>> subcommandsByName = new HashMap<>();
+    private final @NotNull CommandLineConfig config;
+    private final @NotNull CommandErrorMessageHandler handler;
+
+    @Inject
+    CliCommandLineFactory(
+            final @NotNull Provider<MqttCLICommand> main,
+            final @NotNull Provider<PublishCommand> publishCommand,
+            final @NotNull Provider<SubscribeCommand> subscribeCommand,
+            final @NotNull Provider<ShellCommand> shellCommand,
+            final @NotNull Provider<TestBrokerCommand> testBrokerCommand,
+            final @NotNull Provider<DaemonCommand> daemonCommand,
+            final @NotNull CommandLineConfig config,
+            final @NotNull CommandErrorMessageHandler handler) {
+
+        this.main = main;
+        this.config = config;
+        this.handler = handler;
+        addSubcommand(PublishCommand.class, publishCommand);
+        addSubcommand(SubscribeCommand.class, subscribeCommand);
+        addSubcommand(ShellCommand.class, shellCommand);
+        addSubcommand(TestBrokerCommand.class, testBrokerCommand);
+        addSubcommand(DaemonCommand.class, daemonCommand);
+    }
+
+    // only the annotation is read, the class of the command is not initialized
+    private void addSubcommand(final @NotNull Class<?> commandClass, final @NotNull Provider<?> provider) {
+        final CommandLine.Command command = commandClass.getAnnotation(CommandLine.Command.class);
+        subcommands.add(provider);
+        subcommandsByName.put(command.name(), provider);
+        for (final String alias : command.aliases()) {
+            subcommandsByName.put(alias, provider);
+        }
+    }
+
+    public @NotNull CommandLine create(final @NotNull String[] args) {
+        final CommandLine commandLine = new CommandLine(main.get());
+
+        final String first = args.length > 0 ? args[0] : null;
+        final Provider<?> subcommand = first == null ? null : subcommandsByName.get(first);
+        if (subcommand != null) {
+            commandLine.addSubcommand(subcommand.get());
+        }
+        else if (!isVersionOption(first)) {
+            for (final Provider<?> provider : subcommands) {
+                commandLine.addSubcommand(provider.get());
+            }
+        }
+
+        return commandLine
+                .setColorScheme(config.getColorScheme())
+                .setUsageHelpWidth(config.getCliWidth())
+                .setParameterExceptionHandler(handler);
+    }
+
+    private static boolean isVersionOption(final @Nullable String arg) {
+        return arg != null && VERSION_OPTIONS.contains(arg);
+    }
+}
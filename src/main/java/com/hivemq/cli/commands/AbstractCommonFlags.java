@@ -26,6 +26,9 @@ import com.hivemq.cli.converters.PasswordFileToByteBufferConverter;
 import com.hivemq.cli.converters.FileToCertificateConverter;
 import com.hivemq.cli.converters.FileToPrivateKeyConverter;
 import com.hivemq.cli.converters.UnsignedShortConverter;
+import com.hivemq.cli.mqtt.NettyTransport;
+import com.hivemq.cli.utils.SslConfigCache;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttWebSocketConfig;
 import org.jetbrains.annotations.NotNull;
@@ -33,17 +36,8 @@ import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 import picocli.CommandLine;
 
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.TrustManagerFactory;
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -106,6 +100,15 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
     @CommandLine.Option(names = {"-ws:path"}, description = "The path of the WebSocket", order = 2)
     @Nullable private String webSocketPath;
 
+    @CommandLine.Option(names = {"--nettyThreads"}, description = "The amount of Netty event loop threads (default: twice the amount of processors)", order = 2)
+    @Nullable private Integer nettyThreads;
+
+    @CommandLine.Option(names = {"--sharedEventLoop"}, negatable = true, description = "Share one Netty event loop between all clients of this process (default: true)", order = 2)
+    @Nullable private Boolean sharedEventLoop;
+
+    @CommandLine.Option(names = {"--epoll"}, negatable = true, description = "Use the native epoll transport if available on Linux (default: true)", order = 2)
+    @Nullable private Boolean epoll;
+
     @Override
     public void setDefaultOptions() {
         super.setDefaultOptions();
@@ -143,6 +146,18 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
             webSocketPath = defaultCLIProperties.getWebsocketPath();
         }
 
+        if (nettyThreads == null) {
+            nettyThreads = defaultCLIProperties.getNettyThreads();
+        }
+
+        if (sharedEventLoop == null) {
+            sharedEventLoop = defaultCLIProperties.isSharedEventLoop();
+        }
+
+        if (epoll == null) {
+            epoll = defaultCLIProperties.isEpoll();
+        }
+
         try {
             final X509Certificate defaultServerCertificate = defaultCLIProperties.getServerCertificate();
             if (defaultServerCertificate != null) {
@@ -194,71 +209,16 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
         }
 
 
-        // build trustManagerFactory for server side authentication and to enable tls
-        TrustManagerFactory trustManagerFactory = null;
-        if (certificates != null && !certificates.isEmpty()) {
-            trustManagerFactory = buildTrustManagerFactory(certificates);
-        }
-
-
-        // build keyManagerFactory if clientSideAuthentication is used
-        KeyManagerFactory keyManagerFactory = null;
-        if (clientCertificate != null && clientPrivateKey != null) {
-            keyManagerFactory = buildKeyManagerFactory(clientCertificate, clientPrivateKey);
-        }
-
         // default to tlsv.2
         if (supportedTLSVersions == null) {
             supportedTLSVersions = new ArrayList<>();
             supportedTLSVersions.add(DEFAULT_TLS_VERSION);
         }
 
-        return MqttClientSslConfig.builder()
-                .trustManagerFactory(trustManagerFactory)
-                .keyManagerFactory(keyManagerFactory)
-                .cipherSuites(cipherSuites)
-                .protocols(supportedTLSVersions)
-                .build();
+        return SslConfigCache.getSslConfig(certificates, clientCertificate, clientPrivateKey, cipherSuites, supportedTLSVersions);
     }
 
 
-    private TrustManagerFactory buildTrustManagerFactory(final @NotNull Collection<X509Certificate> certCollection) throws Exception {
-
-        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-        ks.load(null, null);
-
-        // add all certificates of the collection to the KeyStore
-        int i = 1;
-        for (final X509Certificate cert : certCollection) {
-            final String alias = Integer.toString(i);
-            ks.setCertificateEntry(alias, cert);
-            i++;
-        }
-
-        final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-
-        trustManagerFactory.init(ks);
-
-        return trustManagerFactory;
-    }
-
-    private KeyManagerFactory buildKeyManagerFactory(final @NotNull X509Certificate cert, final @NotNull PrivateKey key) throws KeyStoreException, CertificateException, NoSuchAlgorithmException, IOException, UnrecoverableKeyException {
-
-        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-
-        ks.load(null, null);
-
-        final Certificate[] certChain = new Certificate[1];
-        certChain[0] = cert;
-        ks.setKeyEntry("mykey", key, null, certChain);
-
-        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-
-        keyManagerFactory.init(ks, null);
-
-        return keyManagerFactory;
-    }
-
     public boolean isUseSsl() {
         return useSsl;
     }
@@ -282,6 +242,9 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
                 (getSslConfig() != null ? (", sslConfig=" + getSslConfig()) : "") +
                 ", useWebSocket=" + useWebSocket +
                 (webSocketPath != null ? (", webSocketPath=" + webSocketPath) : "") +
+                (nettyThreads != null ? (", nettyThreads=" + nettyThreads) : "") +
+                (sharedEventLoop != null ? (", sharedEventLoop=" + sharedEventLoop) : "") +
+                (epoll != null ? (", epoll=" + epoll) : "") +
                 getWillOptions();
     }
 
@@ -309,6 +272,15 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
         return cleanStart;
     }
 
+    @Nullable
+    public MqttClientExecutorConfig getExecutorConfig() {
+        return NettyTransport.buildExecutorConfig(nettyThreads, sharedEventLoop == null || sharedEventLoop);
+    }
+
+    public boolean isEpoll() {
+        return epoll == null || epoll;
+    }
+
     @Nullable
     public MqttWebSocketConfig getWebSocketConfig() {
         if (useWebSocket) {
@@ -16,6 +16,8 @@
  */
 package com.hivemq.cli.commands;
 
+import com.hivemq.cli.mqtt.ReconnectPolicy;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttVersion;
 import com.hivemq.client.mqtt.MqttWebSocketConfig;
@@ -51,4 +53,15 @@ public interface Connect extends Context, Will, ConnectRestrictions {
 
     @Nullable MqttWebSocketConfig getWebSocketConfig();
 
+    @Nullable MqttClientExecutorConfig getExecutorConfig();
+
+    boolean isEpoll();
+
+    @Nullable ReconnectPolicy getReconnectPolicy();
+
+    /**
+     * @return whether an MQTT 5 client ends its session when it is disconnected on purpose, e.g. on exit
+     */
+    boolean isSessionEndedOnDisconnect();
+
 }
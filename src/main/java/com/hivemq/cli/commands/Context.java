@@ -16,9 +16,11 @@
  */
 package com.hivemq.cli.commands;
 
+import com.hivemq.cli.mqtt.ClientKey;
+
 public interface Context extends CliCommand {
 
     String getIdentifier();
 
-    String getKey();
+    ClientKey getKey();
 }
@@ -27,4 +27,6 @@ public interface Disconnect extends Context {
 
     @Nullable Mqtt5UserProperties getUserProperties();
 
+    long getTimeout();
+
 }
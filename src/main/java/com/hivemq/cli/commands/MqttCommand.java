@@ -22,6 +22,7 @@ import com.google.common.primitives.Chars;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
 import com.hivemq.cli.converters.MqttVersionConverter;
+import com.hivemq.cli.mqtt.ClientKey;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.MqttVersion;
 import org.jetbrains.annotations.NotNull;
@@ -30,10 +31,15 @@ import org.tinylog.Logger;
 import picocli.CommandLine;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @CommandLine.Command()
 public abstract class MqttCommand extends AbstractCommand implements Context {
 
+    // set by the daemon, so commands without an identifier reuse the client connected by the first of them
+    private static @Nullable Map<String, String> generatedIdentifiers;
+
     @CommandLine.Option(names = {"-V", "--mqttVersion"}, converter = MqttVersionConverter.class, description = "The mqtt version used by the client (default: 5)", order = 1)
     private MqttVersion version;
 
@@ -50,6 +56,8 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
     @CommandLine.Option(names = {"-ip", "--identifierPrefix"}, description = "The prefix of the client Identifier UTF-8 String", order = 2)
     private String identifierPrefix;
 
+    private boolean identifierGenerated;
+
     public void setDefaultOptions() {
         final DefaultCLIProperties defaultCLIProperties = MqttCLIMain.MQTTCLI.defaultCLIProperties();
         if (version == null) {
@@ -73,13 +81,13 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
         }
 
         if (identifier == null) {
+            identifierGenerated = true;
             if (version == MqttVersion.MQTT_5_0) {
                 identifier = "";
                 Logger.trace("Empty identifier will lead to using broker generated client identifier");
             }
             else {
-                final String rndID = MqttUtils.buildRandomClientID(defaultCLIProperties.getClientLength());
-                identifier = identifierPrefix + rndID;
+                identifier = generateIdentifier(defaultCLIProperties.getClientLength());
                 Logger.trace("Created identifier ('{}')", identifier);
             }
         }
@@ -88,6 +96,23 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
 
     }
 
+    private @NotNull String generateIdentifier(final int length) {
+        if (generatedIdentifiers == null) {
+            return identifierPrefix + MqttUtils.buildRandomClientID(length);
+        }
+        return generatedIdentifiers.computeIfAbsent(identifierPrefix + "@" + host + ":" + port,
+                key -> identifierPrefix + MqttUtils.buildRandomClientID(length));
+    }
+
+    /**
+     * Makes all following commands without an identifier use the same generated identifier per host, port and prefix.
+     */
+    public static void reuseGeneratedIdentifiers() {
+        if (generatedIdentifiers == null) {
+            generatedIdentifiers = new ConcurrentHashMap<>();
+        }
+    }
+
     private void logIdentifierWarnings() {
         if (version == MqttVersion.MQTT_5_0 && identifier.isEmpty()) {
             // Client identifier will be generated by broker so no warning needs to be printed
@@ -126,11 +151,8 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
     }
 
     @Override
-    public String getKey() {
-        return "client {" +
-                "identifier='" + getIdentifier() + '\'' +
-                ", host='" + getHost() + '\'' +
-                '}';
+    public ClientKey getKey() {
+        return ClientKey.of(getIdentifier(), getHost());
     }
 
     public @NotNull MqttVersion getVersion() {
@@ -156,4 +178,8 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
         return identifier;
     }
 
+    public boolean isIdentifierGenerated() {
+        return identifierGenerated;
+    }
+
 }
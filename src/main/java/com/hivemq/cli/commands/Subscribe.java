@@ -16,12 +16,17 @@
  */
 package com.hivemq.cli.commands;
 
+import com.hivemq.cli.mqtt.aggregation.PayloadAggregator;
+import com.hivemq.cli.mqtt.filter.DeduplicationCache;
+import com.hivemq.cli.mqtt.filter.PublishFilter;
+import com.hivemq.cli.mqtt.output.PublishOutput;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.List;
 
 public interface Subscribe extends Context {
 
@@ -41,4 +46,12 @@ public interface Subscribe extends Context {
 
     @Nullable Mqtt5UserProperties getUserProperties();
 
+    @Nullable PayloadAggregator getPayloadAggregator();
+
+    @Nullable PublishFilter getPublishFilter();
+
+    @Nullable DeduplicationCache getDeduplicationCache();
+
+    @NotNull List<PublishOutput> getPublishOutputs();
+
 }
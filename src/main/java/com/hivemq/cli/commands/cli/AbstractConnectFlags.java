@@ -20,6 +20,7 @@ import com.hivemq.cli.commands.AbstractCommonFlags;
 import com.hivemq.cli.commands.Connect;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.UnsignedIntConverter;
+import com.hivemq.cli.mqtt.ReconnectPolicy;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.MqttVersion;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
@@ -73,4 +74,13 @@ public abstract class AbstractConnectFlags extends AbstractCommonFlags implement
         return MqttUtils.convertToMqtt5UserProperties(connectUserProperties);
     }
 
+    @Nullable
+    public ReconnectPolicy getReconnectPolicy() {
+        return null;
+    }
+
+    public boolean isSessionEndedOnDisconnect() {
+        return false;
+    }
+
 }
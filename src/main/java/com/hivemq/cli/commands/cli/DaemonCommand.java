@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.cli;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commandline.CliCommandLineFactory;
+import com.hivemq.cli.commands.MqttCommand;
+import com.hivemq.cli.daemon.Daemon;
+import com.hivemq.cli.daemon.DaemonRequest;
+import com.hivemq.cli.daemon.DaemonResponse;
+import com.hivemq.cli.daemon.DaemonServer;
+import com.hivemq.cli.utils.FileUtils;
+import com.hivemq.cli.utils.LoggerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@CommandLine.Command(name = "daemon",
+        versionProvider = MqttCLIMain.CLIVersionProvider.class,
+        description = "Keep the clients of forwarded commands connected in a background process. " +
+                "While the daemon runs, 'pub' is forwarded to it over a Unix domain socket (Linux only). " +
+                "Relative file paths are resolved against the working directory of the forwarding invocation.",
+        abbreviateSynopsis = false)
+
+public class DaemonCommand implements Runnable {
+
+    @CommandLine.Option(names = {"--version"}, versionHelp = true, description = "display version info")
+    boolean versionInfoRequested;
+
+    @CommandLine.Option(names = {"--help"}, usageHelp = true, description = "display this help message")
+    boolean usageHelpRequested;
+
+    @CommandLine.Option(names = {"--socket"}, description = "The Unix domain socket the daemon listens on (default: $MQTT_CLI_DAEMON_SOCKET or ~/.mqtt-cli/daemon.sock)", order = 1)
+    private @Nullable File socket;
+
+    @CommandLine.Option(names = {"-d", "--debug"}, defaultValue = "false", description = "Print debug messages of the daemon and the forwarded commands", order = 1)
+    private boolean debug;
+
+    private final @Nullable Provider<CliCommandLineFactory> commandLineFactory;
+
+    //needed for pico cli - reflection code generation
+    public DaemonCommand() {
+        this(null);
+    }
+
+    @Inject
+    public DaemonCommand(final @Nullable Provider<CliCommandLineFactory> commandLineFactory) {
+        this.commandLineFactory = commandLineFactory;
+    }
+
+    @Override
+    public void run() {
+
+        // forwarded commands cannot change the logging anymore once the daemon logged
+        Map<String, String> configurationMap = new HashMap<String, String>() {{
+            put("writer1", "console");
+            put("writer1.format", "{message-only}");
+            put("writer1.level", debug ? "debug" : "warn");
+        }};
+
+        LoggerUtils.useDefaultLogging(configurationMap);
+
+        MqttCommand.reuseGeneratedIdentifiers();
+
+        final DaemonServer server = new DaemonServer(socket != null ? socket : Daemon.getDefaultSocket(), this::execute);
+        try {
+            server.start();
+        }
+        catch (final IOException ex) {
+            Logger.error(ex, ex.getMessage());
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+
+        System.out.println("Daemon listening on " + server.getSocket().getPath());
+        server.awaitStop();
+    }
+
+    // executed on the single command thread of the server, as the standard streams are replaced for every command
+    private @NotNull DaemonResponse execute(final @NotNull DaemonRequest request) {
+        final String[] args = request.getArgs();
+        if (!Daemon.isForwarded(args)) {
+            return DaemonResponse.error(2, "The daemon does not execute this command");
+        }
+
+        final CommandLine commandLine = Objects.requireNonNull(commandLineFactory).get().create(args);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        final PrintStream systemOut = System.out;
+        final PrintStream systemErr = System.err;
+        final PrintWriter commandOut = commandLine.getOut();
+        final PrintWriter commandErr = commandLine.getErr();
+
+        final int exitCode;
+        try {
+            FileUtils.setWorkingDirectory(request.getWorkingDirectory());
+            System.setOut(new PrintStream(out, true));
+            System.setErr(new PrintStream(err, true));
+            commandLine.setOut(new PrintWriter(System.out, true));
+            commandLine.setErr(new PrintWriter(System.err, true));
+            exitCode = commandLine.execute(args);
+        }
+        finally {
+            FileUtils.setWorkingDirectory(null);
+            System.out.flush();
+            System.err.flush();
+            System.setOut(systemOut);
+            System.setErr(systemErr);
+            commandLine.setOut(commandOut);
+            commandLine.setErr(commandErr);
+        }
+        return new DaemonResponse(exitCode, out.toByteArray(), err.toByteArray());
+    }
+}
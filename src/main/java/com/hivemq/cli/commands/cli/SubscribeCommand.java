@@ -20,12 +20,31 @@ import com.google.common.base.Throwables;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
 import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.commands.options.FilterOptions;
+import com.hivemq.cli.commands.options.MetricsOptions;
+import com.hivemq.cli.commands.options.ReconnectOptions;
+import com.hivemq.cli.converters.InetSocketAddressConverter;
+import com.hivemq.cli.converters.JsonFieldExtractorConverter;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.MqttQosConverter;
 import com.hivemq.cli.impl.MqttAction;
+import com.hivemq.cli.mqtt.ContextClientDisconnectListener;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.ReconnectPolicy;
+import com.hivemq.cli.mqtt.aggregation.PayloadAggregator;
+import com.hivemq.cli.mqtt.filter.DeduplicationCache;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
+import com.hivemq.cli.mqtt.metrics.MetricsServer;
+import com.hivemq.cli.mqtt.filter.PublishFilter;
+import com.hivemq.cli.mqtt.output.HttpStreamOutput;
+import com.hivemq.cli.mqtt.output.PartitionedFileOutput;
+import com.hivemq.cli.mqtt.output.PublishOutput;
+import com.hivemq.cli.mqtt.output.RecordFormat;
+import com.hivemq.cli.mqtt.output.SlowConsumerPolicy;
+import com.hivemq.cli.mqtt.output.StreamOutput;
 import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.cli.utils.json.JsonFieldExtractor;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttVersion;
@@ -40,9 +59,16 @@ import picocli.CommandLine;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @CommandLine.Command(name = "sub",
         versionProvider = MqttCLIMain.CLIVersionProvider.class,
@@ -52,13 +78,21 @@ import java.util.Map;
 
 public class SubscribeCommand extends AbstractConnectFlags implements MqttAction, Subscribe {
 
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
     private final MqttClientExecutor mqttClientExecutor;
     private final DefaultCLIProperties defaultCLIProperties;
     private MqttClient subscribeClient;
 
     private MqttClientSslConfig sslConfig;
-
-    public static final int IDLE_TIME = 5000;
+    private PayloadAggregator payloadAggregator;
+    private PublishFilter publishFilter;
+    private DeduplicationCache deduplicationCache;
+    private final List<PublishOutput> publishOutputs = new CopyOnWriteArrayList<>();
+    private boolean partitioned;
+    private MetricsServer metricsServer;
+    private ReconnectPolicy reconnectPolicy;
+    private final CountDownLatch stopped = new CountDownLatch(1);
 
     //needed for pico cli - reflection code generation
     public SubscribeCommand() {
@@ -90,6 +124,30 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @CommandLine.Option(names = {"-of", "--outputToFile"}, description = "A file to which the received publish messages will be written", order = 1)
     @Nullable private File publishFile;
 
+    @CommandLine.Option(names = {"--partitions"}, description = "Split the output file into this many files (<outputToFile>.0 ... <outputToFile>.n-1) by the hash of the topic, each written by its own thread", order = 1)
+    @Nullable private Integer partitions;
+
+    @CommandLine.Option(names = {"--outputToSocket"}, description = "A Unix domain socket to which the received publishes will be streamed (Linux only)", order = 1)
+    @Nullable private File outputSocket;
+
+    @CommandLine.Option(names = {"--outputToFifo"}, description = "A named pipe to which the received publishes will be streamed", order = 1)
+    @Nullable private File outputFifo;
+
+    @CommandLine.Option(names = {"--outputFormat"}, defaultValue = "NDJSON", description = "The record format for --outputToSocket and --outputToFifo: NDJSON or LENGTH_PREFIXED (default: NDJSON)", order = 1)
+    @NotNull private RecordFormat outputFormat;
+
+    @CommandLine.Option(names = {"--outputBufferSize"}, defaultValue = "10000", description = "The amount of messages buffered for a slow socket or pipe consumer (default: 10000)", order = 1)
+    private int outputBufferSize;
+
+    @CommandLine.Option(names = {"--slowConsumerPolicy"}, defaultValue = "DROP_OLDEST", description = "What to do when the socket or pipe buffer is full: DROP_NEWEST, DROP_OLDEST or DISCONNECT (default: DROP_OLDEST)", order = 1)
+    @NotNull private SlowConsumerPolicy slowConsumerPolicy;
+
+    @CommandLine.Option(names = {"--serve"}, converter = InetSocketAddressConverter.class, description = "Serve the received publishes on [host]:port to local viewers as Server-Sent Events (/events) and WebSocket frames (/ws), e.g. :8080", order = 1)
+    @Nullable private InetSocketAddress serveAddress;
+
+    @CommandLine.Option(names = {"--serveBufferSize"}, defaultValue = "1000", description = "The amount of messages buffered per viewer before its oldest messages are dropped (default: 1000)", order = 1)
+    private int serveBufferSize;
+
     @CommandLine.Option(names = {"-oc", "--outputToConsole"}, hidden = true, defaultValue = "true", description = "The received messages will be written to the console (default: true)", order = 1)
     private boolean printToSTDOUT;
 
@@ -102,6 +160,30 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @CommandLine.Option(names = {"-T", "--showTopics"}, defaultValue = "false", description = "Prepend the specific topic name to the received publish", order = 1)
     private boolean showTopics;
 
+    @CommandLine.Mixin
+    private FilterOptions filterOptions = new FilterOptions();
+
+    @CommandLine.Mixin
+    private MetricsOptions metricsOptions = new MetricsOptions();
+
+    @CommandLine.Mixin
+    private ReconnectOptions reconnectOptions = new ReconnectOptions();
+
+    @CommandLine.Option(names = {"--dedupe"}, defaultValue = "false", description = "Drop publishes with the same topic, payload and correlation data as one received within the --dedupeWindow, statistics are logged on exit with --debug (default: false)", order = 1)
+    private boolean dedupe;
+
+    @CommandLine.Option(names = {"--dedupeSize"}, defaultValue = "10000", description = "The amount of recent publishes remembered for de-duplication (default: 10000)", order = 1)
+    private int dedupeSize;
+
+    @CommandLine.Option(names = {"--dedupeWindow"}, defaultValue = "60", description = "The time in seconds after which a publish is no longer a duplicate of the same publish received before (default: 60)", order = 1)
+    private long dedupeWindow;
+
+    @CommandLine.Option(names = {"--aggregate"}, converter = JsonFieldExtractorConverter.class, description = "Instead of printing the received publishes, aggregate the numeric JSON field at this path (e.g. $.temperature) per topic and print count/min/max/mean/percentiles for each window", order = 1)
+    @Nullable private JsonFieldExtractor aggregateField;
+
+    @CommandLine.Option(names = {"--aggregateInterval"}, defaultValue = "10", description = "The length of an aggregation window in seconds (default: 10)", order = 1)
+    private long aggregateInterval;
+
     @Override
     public void run() {
 
@@ -112,6 +194,8 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
             put("writer1.level", "warn");
             if (isDebug()) put("writer1.level", "debug");
             if (isVerbose()) put("writer1.level", "trace");
+            // the unbuffered writers stay open for the report after the subscription is stopped on shutdown
+            put("autoshutdown", "false");
         }};
 
         LoggerUtils.useDefaultLogging(configurationMap);
@@ -123,16 +207,98 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
 
         logUnusedOptions();
 
+        try {
+            publishFilter = filterOptions.buildPublishFilter();
+            reconnectPolicy = reconnectOptions.buildReconnectPolicy();
+        }
+        catch (final IllegalArgumentException ex) {
+            Logger.error(ex.getMessage());
+            return;
+        }
+
+        if (aggregateField != null && aggregateInterval <= 0) {
+            Logger.error("The aggregation interval has to be greater than 0");
+            return;
+        }
+
+        if (dedupe) {
+            if (dedupeSize < 1) {
+                Logger.error("The de-duplication size has to be at least 1");
+                return;
+            }
+            if (dedupeWindow < 1) {
+                Logger.error("The de-duplication window has to be at least 1 second");
+                return;
+            }
+            // shared by the subscription callbacks and the callback for the remaining publishes
+            deduplicationCache = new DeduplicationCache(dedupeSize, Duration.ofSeconds(dedupeWindow));
+        }
+
+        if (partitions != null) {
+            if (publishFile == null) {
+                Logger.error("--partitions requires an output file (--outputToFile)");
+                return;
+            }
+            try {
+                addPublishOutput("partitions", new PartitionedFileOutput(publishFile, partitions));
+                partitioned = true;
+            }
+            catch (final IOException | IllegalArgumentException ex) {
+                Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+                return;
+            }
+        }
+
+        try {
+            if (outputSocket != null) {
+                addPublishOutput("socket", StreamOutput.toDomainSocket(outputSocket, outputFormat, outputBufferSize, slowConsumerPolicy));
+            }
+            if (outputFifo != null) {
+                addPublishOutput("fifo", StreamOutput.toFifo(outputFifo, outputFormat, outputBufferSize, slowConsumerPolicy));
+            }
+            if (serveAddress != null) {
+                final HttpStreamOutput httpStreamOutput = new HttpStreamOutput(serveAddress, serveBufferSize);
+                httpStreamOutput.start();
+                addPublishOutput("serve", httpStreamOutput);
+            }
+        }
+        catch (final IOException | IllegalArgumentException ex) {
+            Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+            closePublishOutputs();
+            return;
+        }
+
+        try {
+            metricsServer = metricsOptions.startMetricsServer();
+        }
+        catch (final IOException ex) {
+            Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+            closePublishOutputs();
+            return;
+        }
+
+        if (!publishOutputs.isEmpty() || metricsServer != null) {
+            // write out buffered messages when the subscription is terminated with ctrl+c
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closePublishOutputs));
+        }
+
+        if (aggregateField != null) {
+            payloadAggregator = new PayloadAggregator(aggregateField, aggregateInterval, printToSTDOUT, publishFile, jsonOutput);
+            payloadAggregator.start();
+        }
+
         try {
             qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
             subscribeClient = mqttClientExecutor.subscribe(this);
         }
         catch (final ConnectionFailedException cex) {
             Logger.error(cex, cex.getCause().getMessage());
+            closePublishOutputs();
             return;
         }
         catch (final Exception ex) {
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+            closePublishOutputs();
             return;
         }
 
@@ -143,6 +309,15 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
         }
 
+        if (payloadAggregator != null) {
+            payloadAggregator.stop();
+        }
+        if (deduplicationCache != null) {
+            Logger.info(deduplicationCache.getStatistics());
+        }
+
+        closePublishOutputs();
+        stopped.countDown();
 
     }
 
@@ -153,12 +328,52 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
             if (userProperties != null) {
                 Logger.warn("Subscribe user properties were set but are unused in Mqtt version {}", MqttVersion.MQTT_3_1_1);
             }
+            if (filterOptions.hasUserPropertyFilter()) {
+                Logger.warn("A user property filter was set but no publish carries user properties in Mqtt version {}", MqttVersion.MQTT_3_1_1);
+            }
+        }
+    }
+
+    private void addPublishOutput(final @NotNull String name, final @NotNull PublishOutput publishOutput) {
+        publishOutputs.add(publishOutput);
+        MetricsRegistry.registerOutput(name, publishOutput);
+    }
+
+    private synchronized void closePublishOutputs() {
+        for (final PublishOutput publishOutput : publishOutputs) {
+            publishOutput.close();
+        }
+        publishOutputs.clear();
+        if (metricsServer != null) {
+            metricsServer.stop();
+            metricsServer = null;
         }
     }
 
     private void stay() throws InterruptedException {
-        while (subscribeClient.getState().isConnectedOrReconnect()) {
-            Thread.sleep(IDLE_TIME);
+        final CountDownLatch latch = new CountDownLatch(1);
+        ContextClientDisconnectListener.whenDisconnected(subscribeClient).thenRun(latch::countDown);
+
+        final Thread shutdownHook = new Thread(() -> {
+            latch.countDown();
+            // on ctrl+c the JVM would otherwise exit before the subscription is stopped and reported
+            try {
+                stopped.await(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (final InterruptedException ignored) {
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            latch.await();
+        }
+        finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+            catch (final IllegalStateException ignored) {
+                // the JVM is already shutting down
+            }
         }
     }
 
@@ -185,10 +400,43 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
                 ", showTopics=" + showTopics +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
                 (publishFile != null ? (", publishFile=" + publishFile.getAbsolutePath()) : "") +
+                ", " + filterOptions +
+                ", " + metricsOptions +
+                ", " + reconnectOptions +
+                (partitions != null ? (", partitions=" + partitions) : "") +
+                (outputSocket != null ? (", outputSocket=" + outputSocket.getPath()) : "") +
+                (outputFifo != null ? (", outputFifo=" + outputFifo.getPath()) : "") +
+                (serveAddress != null ? (", serve=" + serveAddress.getHostString() + ":" + serveAddress.getPort() + ", serveBufferSize=" + serveBufferSize) : "") +
+                (outputSocket != null || outputFifo != null ? (", outputFormat=" + outputFormat + ", outputBufferSize=" + outputBufferSize + ", slowConsumerPolicy=" + slowConsumerPolicy) : "") +
+                (dedupe ? (", dedupeSize=" + dedupeSize + ", dedupeWindow=" + dedupeWindow) : "") +
+                (aggregateField != null ? (", aggregate=" + aggregateField + ", aggregateInterval=" + aggregateInterval) : "") +
                 '}';
     }
 
 
+    @Nullable
+    @Override
+    public Boolean getCleanStart() {
+        return reconnectOptions.getCleanStart(super.getCleanStart(), getVersion(), isIdentifierGenerated());
+    }
+
+    @Nullable
+    @Override
+    public Long getSessionExpiryInterval() {
+        return reconnectOptions.getSessionExpiryInterval(super.getSessionExpiryInterval());
+    }
+
+    @Nullable
+    @Override
+    public ReconnectPolicy getReconnectPolicy() {
+        return reconnectPolicy;
+    }
+
+    @Override
+    public boolean isSessionEndedOnDisconnect() {
+        return reconnectOptions.isSessionEndedOnDisconnect(super.getSessionExpiryInterval());
+    }
+
     @NotNull
     @Override
     public String[] getTopics() {
@@ -204,7 +452,8 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @Nullable
     @Override
     public File getPublishFile() {
-        return publishFile;
+        // a partitioned output file is written by the partitioned publish output instead
+        return partitioned ? null : publishFile;
     }
 
     public boolean isPrintToSTDOUT() {
@@ -225,6 +474,30 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
         this.userProperties = userProperties;
     }
 
+    @Nullable
+    @Override
+    public PayloadAggregator getPayloadAggregator() {
+        return payloadAggregator;
+    }
+
+    @Nullable
+    @Override
+    public PublishFilter getPublishFilter() {
+        return publishFilter;
+    }
+
+    @Nullable
+    @Override
+    public DeduplicationCache getDeduplicationCache() {
+        return deduplicationCache;
+    }
+
+    @NotNull
+    @Override
+    public List<PublishOutput> getPublishOutputs() {
+        return publishOutputs;
+    }
+
     @Nullable
     @Override
     public MqttClientSslConfig getSslConfig() {
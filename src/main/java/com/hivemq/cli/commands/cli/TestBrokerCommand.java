@@ -20,9 +20,13 @@ import com.google.common.base.Joiner;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.commands.options.AuthenticationOptions;
 import com.hivemq.cli.commands.options.SslOptions;
+import com.hivemq.cli.converters.CodePointRangeConverter;
 import com.hivemq.cli.converters.MqttVersionConverter;
+import com.hivemq.cli.utils.SslConfigCache;
 import com.hivemq.cli.mqtt.test.Mqtt3FeatureTester;
+import com.hivemq.cli.mqtt.test.FeatureTestExecutor;
 import com.hivemq.cli.mqtt.test.Mqtt5FeatureTester;
+import com.hivemq.cli.mqtt.test.TlsHandshakeBenchmark;
 import com.hivemq.cli.mqtt.test.results.*;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttVersion;
@@ -39,6 +43,11 @@ import org.tinylog.configuration.Configuration;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +59,9 @@ public class TestBrokerCommand implements Runnable {
 
     final int MAX_PAYLOAD_TEST_SIZE = 100000; // ~ 1 MB
 
+    private static final List<String> DEFAULT_BENCHMARK_TLS_VERSIONS = Arrays.asList("TLSv1.2", "TLSv1.3");
+    private static final String ASCII_CLIENT_ID_CHARS = " !\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
     @CommandLine.Option(names = {"-h", "--host"}, description = "The hostname of the message broker (default 'localhost')", order = 1)
     private @Nullable String host;
 
@@ -71,6 +83,15 @@ public class TestBrokerCommand implements Runnable {
     @CommandLine.Option(names = {"-q", "--qosTries"}, defaultValue = "10", description = "The amount of publishes to send to the broker on every qos level", order = 1)
     private @NotNull Integer qosTries;
 
+    @CommandLine.Option(names = {"--tlsHandshakes"}, description = "Instead of the feature tests, measure this many full TLS handshakes for every combination of --tls-version (default: TLSv1.2 and TLSv1.3) and --ciphers, without and with the client certificate of --cert and --key", order = 1)
+    private @Nullable Integer tlsHandshakes;
+
+    @CommandLine.Option(names = {"--concurrency"}, defaultValue = "4", description = "The maximum amount of feature tests running at the same time, 1 runs them one after another (default: 4)", order = 1)
+    private @NotNull Integer concurrency;
+
+    @CommandLine.Option(names = {"--clientIdChars"}, split = ",", converter = CodePointRangeConverter.class, description = "The characters to test in client identifiers as code points 'U+XXXX' or ranges 'U+XXXX-U+XXXX', separated by commas (default: the ASCII characters which are not letters or digits)", order = 1)
+    private @Nullable List<String> clientIdChars;
+
     @CommandLine.Mixin
     private AuthenticationOptions authenticationOptions = new AuthenticationOptions();
 
@@ -110,6 +131,16 @@ public class TestBrokerCommand implements Runnable {
             port = defaultCLIProperties.getPort();
         }
 
+        if (tlsHandshakes != null) {
+            benchmarkTlsHandshakes();
+            return;
+        }
+
+        if (concurrency < 1) {
+            Logger.error("The concurrency of the feature tests has to be at least 1");
+            return;
+        }
+
         try {
             sslConfig = sslOptions.buildSslConfig();
         } catch (Exception e) {
@@ -128,6 +159,58 @@ public class TestBrokerCommand implements Runnable {
         }
     }
 
+    public void benchmarkTlsHandshakes() {
+        if (tlsHandshakes < 1) {
+            Logger.error("The amount of TLS handshakes has to be at least 1");
+            return;
+        }
+
+        final Collection<X509Certificate> certificates = new ArrayList<>();
+        if (sslOptions.getCertificates() != null) {
+            certificates.addAll(sslOptions.getCertificates());
+        }
+        if (sslOptions.getCertificatesFromDir() != null) {
+            certificates.addAll(sslOptions.getCertificatesFromDir());
+        }
+        final Collection<String> tlsVersions = sslOptions.getSupportedTLSVersions() != null ?
+                sslOptions.getSupportedTLSVersions() : DEFAULT_BENCHMARK_TLS_VERSIONS;
+        final List<String> cipherSuites = sslOptions.getCipherSuites() != null ?
+                new ArrayList<>(sslOptions.getCipherSuites()) : Collections.singletonList(null);
+        final boolean withClientCertificate = sslOptions.getClientCertificate() != null && sslOptions.getClientPrivateKey() != null;
+
+        System.out.println("TLS handshakes with " + host + ":" + port + " (" + tlsHandshakes + " per combination):");
+
+        final TlsHandshakeBenchmark benchmark = new TlsHandshakeBenchmark(host, port, tlsHandshakes, timeOut * 1000);
+        for (final String tlsVersion : tlsVersions) {
+            for (final String cipherSuite : cipherSuites) {
+                for (final boolean clientCertificate : withClientCertificate ? new boolean[]{false, true} : new boolean[]{false}) {
+                    final MqttClientSslConfig benchmarkSslConfig;
+                    try {
+                        // the config only carries the trust and key managers, the version and cipher are set per handshake
+                        benchmarkSslConfig = SslConfigCache.getSslConfig(
+                                certificates,
+                                clientCertificate ? sslOptions.getClientCertificate() : null,
+                                clientCertificate ? sslOptions.getClientPrivateKey() : null,
+                                null,
+                                Collections.singletonList(tlsVersion));
+                    }
+                    catch (final Exception e) {
+                        Logger.error(e, "Could not build SSL configuration");
+                        return;
+                    }
+
+                    final TlsHandshakeTestResults results = benchmark.run(
+                            tlsVersion,
+                            cipherSuite,
+                            benchmarkSslConfig.getTrustManagerFactory().orElse(null),
+                            benchmarkSslConfig.getKeyManagerFactory().orElse(null));
+
+                    System.out.println("\t- " + results);
+                }
+            }
+        }
+    }
+
     public void testMqtt5Features() {
         final Mqtt5FeatureTester mqtt5Tester = new Mqtt5FeatureTester(
                 host,
@@ -195,79 +278,24 @@ public class TestBrokerCommand implements Runnable {
             /* Do all tests */
             //*************//
 
-            // Print max topic length
+            // the other tests use topics of the maximum length, so it is tested first
             System.out.print("\t- Maximum topic length: ");
             final TopicLengthTestResults topicLengthTestResults = mqtt5Tester.testTopicLength();
-            final int maxTopicLength = topicLengthTestResults.getMaxTopicLength();
-            System.out.println(maxTopicLength + " bytes");
-
-            // Test QoS 0
-            System.out.print("\t- QoS 0: ");
-            final QosTestResult qos0TestResult = mqtt5Tester.testQos(MqttQos.AT_MOST_ONCE, qosTries);
-            final int qos0Publishes = qos0TestResult.getReceivedPublishes();
-            final float qos0Time = qos0TestResult.getTimeToReceivePublishes() / 1_000_000F;
-            System.out.printf("Received %d/%d publishes in %.2fms\n", qos0Publishes, qosTries, qos0Time);
-
-            // Test QoS 1
-            System.out.print("\t- QoS 1: ");
-            final QosTestResult qos1TestResult = mqtt5Tester.testQos(MqttQos.AT_LEAST_ONCE, qosTries);
-            final int qos1Publishes = qos1TestResult.getReceivedPublishes();
-            final float qos1Time = qos1TestResult.getTimeToReceivePublishes() / 1_000_000F;
-            System.out.printf("Received %d/%d publishes in %.2fms\n", qos1Publishes, qosTries, qos1Time);
-
-            // Test QoS 2
-            System.out.print("\t- QoS 2: ");
-            final QosTestResult qos2TestResult = mqtt5Tester.testQos(MqttQos.EXACTLY_ONCE, qosTries);
-            final int qos2Publishes = qos2TestResult.getReceivedPublishes();
-            final float qos2Time = qos2TestResult.getTimeToReceivePublishes() / 1_000_000F;
-            System.out.printf("Received %d/%d publishes in %.2fms\n", qos2Publishes, qosTries, qos2Time);
-
-            // Test retain
-            System.out.print("\t- Retain: ");
-            System.out.println(mqtt5Tester.testRetain());
-
-            // Test if wildcard subscriptions are allowed
-            System.out.print("\t- Wildcard subscriptions: ");
-            final WildcardSubscriptionsTestResult wildcardSubscriptionsTestResult = mqtt5Tester.testWildcardSubscriptions();
-            if (wildcardSubscriptionsTestResult.isSuccess()) {
-                System.out.println("OK");
-            } else {
-                System.out.println("NO");
-                System.out.print("\t\t> '+' Wildcard: ");
-                System.out.println(wildcardSubscriptionsTestResult.getPlusWildcardTest());
-                System.out.print("\t\t> '#' Wildcard: ");
-                System.out.println(wildcardSubscriptionsTestResult.getHashWildcardTest());
-            }
-
-            System.out.print("\t- Shared subscriptions: ");
-            final SharedSubscriptionTestResult sharedSubscriptionTestResult = mqtt5Tester.testSharedSubscription();
-            System.out.println(sharedSubscriptionTestResult.toString());
-
-            // Test max payload size
-            System.out.print("\t- Payload size: ");
-            final PayloadTestResults payloadTestResults = mqtt5Tester.testPayloadSize(MAX_PAYLOAD_TEST_SIZE);
-            final int payloadSize = payloadTestResults.getPayloadSize();
-            if (payloadSize == MAX_PAYLOAD_TEST_SIZE) {
-                System.out.println(">= " + payloadSize + " bytes");
-            } else {
-                System.out.println(payloadSize + " bytes");
-            }
-
-            // Test max client id length
-            System.out.print("\t- Maximum client id length: ");
-            final ClientIdLengthTestResults clientIdLengthTestResults = mqtt5Tester.testClientIdLength();
-            final int maxClientIdLength = clientIdLengthTestResults.getMaxClientIdLength();
-            System.out.println(maxClientIdLength + " bytes");
-
-            // Test supported Ascii chars
-            System.out.print("\t- Unsupported Ascii Chars: ");
-            final AsciiCharsInClientIdTestResults asciiTestResults = mqtt5Tester.testAsciiCharsInClientId();
-            final List<Character> unsupportedChars = asciiTestResults.getUnsupportedChars();
-            if (unsupportedChars.isEmpty()) {
-                System.out.println("ALL SUPPORTED");
-            } else {
-                System.out.println("{'" + Joiner.on("', '").join(unsupportedChars) + "'}");
-            }
+            System.out.println(topicLengthTestResults.getMaxTopicLength() + " bytes");
+
+            // the remaining tests use their own clients and random topics
+            final FeatureTestExecutor executor = new FeatureTestExecutor(concurrency);
+            executor.add("\t- QoS 0: ", () -> qosOutput(mqtt5Tester.testQos(MqttQos.AT_MOST_ONCE, qosTries)));
+            executor.add("\t- QoS 1: ", () -> qosOutput(mqtt5Tester.testQos(MqttQos.AT_LEAST_ONCE, qosTries)));
+            executor.add("\t- QoS 2: ", () -> qosOutput(mqtt5Tester.testQos(MqttQos.EXACTLY_ONCE, qosTries)));
+            executor.add("\t- Retain: ", () -> mqtt5Tester.testRetain().toString());
+            executor.add("\t- Wildcard subscriptions: ", () -> wildcardOutput(mqtt5Tester.testWildcardSubscriptions()));
+            executor.add("\t- Shared subscriptions: ", () -> mqtt5Tester.testSharedSubscription().toString());
+            executor.add("\t- Payload size: ", () -> payloadOutput(mqtt5Tester.testPayloadSize(MAX_PAYLOAD_TEST_SIZE)));
+            executor.add("\t- Maximum client id length: ", () -> mqtt5Tester.testClientIdLength().getMaxClientIdLength() + " bytes");
+            executor.add(clientIdChars == null ? "\t- Unsupported Ascii Chars: " : "\t- Unsupported client id chars: ",
+                () -> clientIdCharsOutput(mqtt5Tester.testClientIdChars(clientIdCodePoints(), concurrency)));
+            executor.run(System.out);
         }
 
     }
@@ -301,76 +329,57 @@ public class TestBrokerCommand implements Runnable {
         // Test max length of topic names & set length for next tests
         System.out.print("\t- Maximum topic length: ");
         final TopicLengthTestResults topicLengthTestResults = mqtt3Tester.testTopicLength();
-        final int maxTopicLength = topicLengthTestResults.getMaxTopicLength();
-        System.out.println(maxTopicLength + " bytes");
-
-        // Test QoS 0
-        System.out.print("\t- QoS 0: ");
-        final QosTestResult qos0TestResult = mqtt3Tester.testQos(MqttQos.AT_MOST_ONCE, qosTries);
-        final int qos0Publishes = qos0TestResult.getReceivedPublishes();
-        final float qos0Time = qos0TestResult.getTimeToReceivePublishes() / 1_000_000F;
-        System.out.printf("Received %d/%d publishes in %.2fms\n", qos0Publishes, qosTries, qos0Time);
-
-        // Test QoS 1
-        System.out.print("\t- QoS 1: ");
-        final QosTestResult qos1TestResult = mqtt3Tester.testQos(MqttQos.AT_LEAST_ONCE, qosTries);
-        final int qos1Publishes = qos1TestResult.getReceivedPublishes();
-        final float qos1Time = qos1TestResult.getTimeToReceivePublishes() / 1_000_000F;
-        System.out.printf("Received %d/%d publishes in %.2fms\n", qos1Publishes, qosTries, qos1Time);
-
-        // Test QoS 2
-        System.out.print("\t- QoS 2: ");
-        final QosTestResult qos2TestResult = mqtt3Tester.testQos(MqttQos.EXACTLY_ONCE, qosTries);
-        final int qos2Publishes = qos2TestResult.getReceivedPublishes();
-        final float qos2Time = qos2TestResult.getTimeToReceivePublishes() / 1_000_000F;
-        System.out.printf("Received %d/%d publishes in %.2fms\n", qos2Publishes, qosTries, qos2Time);
-
-        // Test retain
-        System.out.print("\t- Retain: ");
-        System.out.println(mqtt3Tester.testRetain());
-
-        // Test if wildcard subscriptions are allowed
-        System.out.print("\t- Wildcard subscriptions: ");
-        final WildcardSubscriptionsTestResult wildcardSubscriptionsTestResult = mqtt3Tester.testWildcardSubscriptions();
+        System.out.println(topicLengthTestResults.getMaxTopicLength() + " bytes");
+
+        // the remaining tests use their own clients and random topics
+        final FeatureTestExecutor executor = new FeatureTestExecutor(concurrency);
+        executor.add("\t- QoS 0: ", () -> qosOutput(mqtt3Tester.testQos(MqttQos.AT_MOST_ONCE, qosTries)));
+        executor.add("\t- QoS 1: ", () -> qosOutput(mqtt3Tester.testQos(MqttQos.AT_LEAST_ONCE, qosTries)));
+        executor.add("\t- QoS 2: ", () -> qosOutput(mqtt3Tester.testQos(MqttQos.EXACTLY_ONCE, qosTries)));
+        executor.add("\t- Retain: ", () -> mqtt3Tester.testRetain().toString());
+        executor.add("\t- Wildcard subscriptions: ", () -> wildcardOutput(mqtt3Tester.testWildcardSubscriptions()));
+        executor.add("\t- Shared subscriptions: ", () -> mqtt3Tester.testSharedSubscription().toString());
+        executor.add("\t- Payload size: ", () -> payloadOutput(mqtt3Tester.testPayloadSize(MAX_PAYLOAD_TEST_SIZE)));
+        executor.add("\t- Maximum client id length: ", () -> mqtt3Tester.testClientIdLength().getMaxClientIdLength() + " bytes");
+        executor.add(clientIdChars == null ? "\t- Unsupported Ascii Chars: " : "\t- Unsupported client id chars: ",
+                () -> clientIdCharsOutput(mqtt3Tester.testClientIdChars(clientIdCodePoints(), concurrency)));
+        executor.run(System.out);
+    }
+
+    private @NotNull String qosOutput(final @NotNull QosTestResult qosTestResult) {
+        final float time = qosTestResult.getTimeToReceivePublishes() / 1_000_000F;
+        return String.format("Received %d/%d publishes in %.2fms", qosTestResult.getReceivedPublishes(), qosTries, time);
+    }
+
+    private static @NotNull String wildcardOutput(final @NotNull WildcardSubscriptionsTestResult wildcardSubscriptionsTestResult) {
         if (wildcardSubscriptionsTestResult.isSuccess()) {
-            System.out.println("OK");
-        } else {
-            System.out.println("NO");
-            System.out.print("\t\t> '+' Wildcard: ");
-            System.out.println(wildcardSubscriptionsTestResult.getPlusWildcardTest());
-            System.out.print("\t\t> '#' Wildcard: ");
-            System.out.println(wildcardSubscriptionsTestResult.getHashWildcardTest());
+            return "OK";
         }
+        return "NO" +
+                "\n\t\t> '+' Wildcard: " + wildcardSubscriptionsTestResult.getPlusWildcardTest() +
+                "\n\t\t> '#' Wildcard: " + wildcardSubscriptionsTestResult.getHashWildcardTest();
+    }
 
-        System.out.print("\t- Shared subscriptions: ");
-        final SharedSubscriptionTestResult sharedSubscriptionTestResult = mqtt3Tester.testSharedSubscription();
-        System.out.println(sharedSubscriptionTestResult.toString());
-
-        // Test max payload size
-        System.out.print("\t- Payload size: ");
-        final PayloadTestResults payloadTestResults = mqtt3Tester.testPayloadSize(MAX_PAYLOAD_TEST_SIZE);
+    private @NotNull String payloadOutput(final @NotNull PayloadTestResults payloadTestResults) {
         final int payloadSize = payloadTestResults.getPayloadSize();
         if (payloadSize == MAX_PAYLOAD_TEST_SIZE) {
-            System.out.println(">= " + payloadSize + " bytes");
-        } else {
-            System.out.println(payloadSize + " bytes");
+            return ">= " + payloadSize + " bytes";
         }
+        return payloadSize + " bytes";
+    }
 
-        // Test max client id length
-        System.out.print("\t- Maximum client id length: ");
-        final ClientIdLengthTestResults clientIdLengthTestResults = mqtt3Tester.testClientIdLength();
-        final int maxClientIdLength = clientIdLengthTestResults.getMaxClientIdLength();
-        System.out.println(maxClientIdLength + " bytes");
+    // distinct and sorted, so every character is tested once and the output is always in the same order
+    private @NotNull int[] clientIdCodePoints() {
+        final String chars = clientIdChars == null ? ASCII_CLIENT_ID_CHARS : String.join("", clientIdChars);
+        return chars.codePoints().distinct().sorted().toArray();
+    }
 
-        // Test supported Ascii chars
-        System.out.print("\t- Unsupported Ascii Chars: ");
-        final AsciiCharsInClientIdTestResults asciiTestResults = mqtt3Tester.testAsciiCharsInClientId();
-        final List<Character> unsupportedChars = asciiTestResults.getUnsupportedChars();
+    private static @NotNull String clientIdCharsOutput(final @NotNull ClientIdCharsTestResults clientIdCharsTestResults) {
+        final List<String> unsupportedChars = clientIdCharsTestResults.getUnsupportedChars();
         if (unsupportedChars.isEmpty()) {
-            System.out.println("ALL SUPPORTED");
-        } else {
-            System.out.println("{'" + Joiner.on("', '").join(unsupportedChars) + "'}");
+            return "ALL SUPPORTED";
         }
+        return "{'" + Joiner.on("', '").join(unsupportedChars) + "'}";
     }
 
 }
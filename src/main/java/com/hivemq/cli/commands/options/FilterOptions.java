@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.options;
+
+import com.hivemq.cli.converters.HexToByteArrayConverter;
+import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
+import com.hivemq.cli.mqtt.filter.PublishFilter;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+public class FilterOptions {
+
+    @CommandLine.Option(names = {"--filterTopic"}, description = "Only output publishes whose topic contains a match of this regular expression", order = 1)
+    @Nullable
+    private String topicRegex;
+
+    @CommandLine.Option(names = {"--filterPayload"}, description = "Only output publishes whose payload contains this UTF-8 string", order = 1)
+    @Nullable
+    private String payloadSubstring;
+
+    @CommandLine.Option(names = {"--filterPayloadHex"}, converter = HexToByteArrayConverter.class, description = "Only output publishes whose payload contains this byte sequence given in hex (e.g. 0a1b)", order = 1)
+    @Nullable
+    private byte[] payloadBytes;
+
+    @CommandLine.Option(names = {"--filterUserProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "Only output publishes which carry this user property (key=value), MQTT 5 only", order = 1)
+    @Nullable
+    private Mqtt5UserProperty[] userProperties;
+
+    @CommandLine.Option(names = {"--minPayloadSize"}, defaultValue = "0", description = "Only output publishes with at least this many payload bytes (default: 0)", order = 1)
+    private int minPayloadSize;
+
+    @CommandLine.Option(names = {"--maxPayloadSize"}, defaultValue = "" + Integer.MAX_VALUE, description = "Only output publishes with at most this many payload bytes", order = 1)
+    private int maxPayloadSize;
+
+    @CommandLine.Option(names = {"--sampleEvery"}, defaultValue = "1", description = "Only output every n-th publish which passed the filters (default: 1)", order = 1)
+    private long sampleEvery;
+
+    @CommandLine.Option(names = {"--sampleRate"}, defaultValue = "1", description = "Only output each publish which passed the filters with this probability between 0 and 1 (default: 1)", order = 1)
+    private double sampleRate;
+
+    /**
+     * @return the filter or null if no filter or sampling option was set
+     * @throws IllegalArgumentException if the option values are invalid
+     */
+    public @Nullable PublishFilter buildPublishFilter() {
+        if (topicRegex == null && payloadSubstring == null && payloadBytes == null && userProperties == null &&
+                minPayloadSize == 0 && maxPayloadSize == Integer.MAX_VALUE && sampleEvery == 1 && sampleRate == 1) {
+            return null;
+        }
+
+        if (payloadSubstring != null && payloadBytes != null) {
+            throw new IllegalArgumentException("Only one of --filterPayload and --filterPayloadHex can be used");
+        }
+        if (minPayloadSize < 0 || maxPayloadSize < minPayloadSize) {
+            throw new IllegalArgumentException("The payload size range [" + minPayloadSize + ", " + maxPayloadSize + "] is invalid");
+        }
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("--sampleEvery has to be at least 1");
+        }
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("--sampleRate has to be greater than 0 and at most 1");
+        }
+
+        final byte[] payloadPattern = payloadSubstring != null ? payloadSubstring.getBytes(StandardCharsets.UTF_8) : payloadBytes;
+
+        return new PublishFilter(
+                minPayloadSize,
+                maxPayloadSize,
+                topicRegex != null ? Pattern.compile(topicRegex) : null,
+                payloadPattern,
+                userProperties != null ? Arrays.asList(userProperties) : null,
+                sampleEvery,
+                sampleRate);
+    }
+
+    public boolean hasUserPropertyFilter() {
+        return userProperties != null;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "FilterOptions{" +
+                (topicRegex != null ? ("topicRegex=" + topicRegex + ", ") : "") +
+                (payloadSubstring != null ? ("payloadSubstring=" + payloadSubstring + ", ") : "") +
+                (payloadBytes != null ? ("payloadBytes=" + payloadBytes.length + " bytes, ") : "") +
+                (userProperties != null ? ("userProperties=" + Arrays.toString(userProperties) + ", ") : "") +
+                "payloadSize=[" + minPayloadSize + ", " + maxPayloadSize + "]" +
+                ", sampleEvery=" + sampleEvery +
+                ", sampleRate=" + sampleRate +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.options;
+
+import com.hivemq.cli.converters.InetSocketAddressConverter;
+import com.hivemq.cli.mqtt.metrics.MetricsServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class MetricsOptions {
+
+    @CommandLine.Option(names = {"--metrics"}, converter = InetSocketAddressConverter.class, description = "Serve metrics in the Prometheus text format on [host]:port/metrics, e.g. :9400", order = 1)
+    @Nullable
+    private InetSocketAddress metricsAddress;
+
+    /**
+     * @return the started server or null if no metrics address was set
+     */
+    public @Nullable MetricsServer startMetricsServer() throws IOException {
+        if (metricsAddress == null) {
+            return null;
+        }
+        final MetricsServer metricsServer = new MetricsServer(metricsAddress);
+        metricsServer.start();
+        return metricsServer;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "MetricsOptions{" +
+                (metricsAddress != null ? ("metrics=" + metricsAddress.getHostString() + ":" + metricsAddress.getPort()) : "") +
+                '}';
+    }
+}
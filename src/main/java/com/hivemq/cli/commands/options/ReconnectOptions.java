@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.options;
+
+import com.hivemq.cli.mqtt.ReconnectPolicy;
+import com.hivemq.client.mqtt.MqttVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+public class ReconnectOptions {
+
+    // how long the broker keeps the session of a reconnecting subscriber if no session expiry interval was given
+    static final long DEFAULT_SESSION_EXPIRY_INTERVAL = 3600;
+
+    @CommandLine.Option(names = {"--reconnect"}, defaultValue = "false", description = "Reconnect automatically with a persistent session if the connection is lost, the session is ended on exit unless a session expiry interval is given (MQTT 3: only kept with --identifier) (default: false)", order = 1)
+    private boolean reconnect;
+
+    @CommandLine.Option(names = {"--reconnectDelay"}, defaultValue = "1000", description = "The delay in milliseconds before the first reconnect attempt, doubled with every failed attempt (default: 1000)", order = 1)
+    private long initialDelay;
+
+    @CommandLine.Option(names = {"--reconnectMaxDelay"}, defaultValue = "120000", description = "The maximum delay in milliseconds between two reconnect attempts (default: 120000)", order = 1)
+    private long maxDelay;
+
+    public boolean isReconnect() {
+        return reconnect;
+    }
+
+    /**
+     * @return the policy or null if automatic reconnect is not enabled
+     * @throws IllegalArgumentException if the delays are not valid
+     */
+    public @Nullable ReconnectPolicy buildReconnectPolicy() {
+        if (!reconnect) {
+            return null;
+        }
+        return new ReconnectPolicy(initialDelay, maxDelay);
+    }
+
+    /**
+     * A reconnecting client resumes its session, so it does not start clean unless requested. An MQTT 3 session never
+     * expires, so it is only kept for an identifier which was given explicitly and can be resumed later.
+     */
+    public @Nullable Boolean getCleanStart(
+            final @Nullable Boolean cleanStart, final @NotNull MqttVersion version, final boolean identifierGenerated) {
+        if (reconnect && cleanStart == null && (version == MqttVersion.MQTT_5_0 || !identifierGenerated)) {
+            return false;
+        }
+        return cleanStart;
+    }
+
+    public @Nullable Long getSessionExpiryInterval(final @Nullable Long sessionExpiryInterval) {
+        if (reconnect && sessionExpiryInterval == null) {
+            return DEFAULT_SESSION_EXPIRY_INTERVAL;
+        }
+        return sessionExpiryInterval;
+    }
+
+    /**
+     * @return whether the session is only kept for the reconnects and is ended when the client disconnects on purpose
+     */
+    public boolean isSessionEndedOnDisconnect(final @Nullable Long sessionExpiryInterval) {
+        return reconnect && sessionExpiryInterval == null;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ReconnectOptions{" +
+                "reconnect=" + reconnect +
+                (reconnect ? (", reconnectDelay=" + initialDelay + ", reconnectMaxDelay=" + maxDelay) : "") +
+                '}';
+    }
+}
@@ -19,21 +19,12 @@ package com.hivemq.cli.commands.options;
 import com.hivemq.cli.converters.DirectoryToCertificateCollectionConverter;
 import com.hivemq.cli.converters.FileToCertificateConverter;
 import com.hivemq.cli.converters.FileToPrivateKeyConverter;
+import com.hivemq.cli.utils.SslConfigCache;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import picocli.CommandLine;
 
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.TrustManagerFactory;
-import java.io.IOException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -95,71 +86,16 @@ public class SslOptions {
         }
 
 
-        // build trustManagerFactory for server side authentication and to enable tls
-        TrustManagerFactory trustManagerFactory = null;
-        if (certificates != null && !certificates.isEmpty()) {
-            trustManagerFactory = buildTrustManagerFactory(certificates);
-        }
-
-
-        // build keyManagerFactory if clientSideAuthentication is used
-        KeyManagerFactory keyManagerFactory = null;
-        if (clientCertificate != null && clientPrivateKey != null) {
-            keyManagerFactory = buildKeyManagerFactory(clientCertificate, clientPrivateKey);
-        }
-
         // default to tlsv.2
         if (supportedTLSVersions == null) {
             supportedTLSVersions = new ArrayList<>();
             supportedTLSVersions.add(DEFAULT_TLS_VERSION);
         }
 
-        return MqttClientSslConfig.builder()
-                .trustManagerFactory(trustManagerFactory)
-                .keyManagerFactory(keyManagerFactory)
-                .cipherSuites(cipherSuites)
-                .protocols(supportedTLSVersions)
-                .build();
+        return SslConfigCache.getSslConfig(certificates, clientCertificate, clientPrivateKey, cipherSuites, supportedTLSVersions);
     }
 
 
-    private TrustManagerFactory buildTrustManagerFactory(final @NotNull Collection<X509Certificate> certCollection) throws Exception {
-
-        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-        ks.load(null, null);
-
-        // add all certificates of the collection to the KeyStore
-        int i = 1;
-        for (final X509Certificate cert : certCollection) {
-            final String alias = Integer.toString(i);
-            ks.setCertificateEntry(alias, cert);
-            i++;
-        }
-
-        final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-
-        trustManagerFactory.init(ks);
-
-        return trustManagerFactory;
-    }
-
-    private KeyManagerFactory buildKeyManagerFactory(final @NotNull X509Certificate cert, final @NotNull PrivateKey key) throws KeyStoreException, CertificateException, NoSuchAlgorithmException, IOException, UnrecoverableKeyException {
-
-        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-
-        ks.load(null, null);
-
-        final Certificate[] certChain = new Certificate[1];
-        certChain[0] = cert;
-        ks.setKeyEntry("mykey", key, null, certChain);
-
-        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-
-        keyManagerFactory.init(ks, null);
-
-        return keyManagerFactory;
-    }
-
     public boolean isUseSsl() {
         return useSsl;
     }
@@ -64,6 +64,9 @@ public class ContextDisconnectCommand extends ShellContextCommand implements Run
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property of the disconnect message")
     @Nullable private Mqtt5UserProperty[] userProperties;
 
+    @CommandLine.Option(names = {"--timeout"}, defaultValue = "10", description = "The time in seconds to wait for all clients to disconnect when using --all, clients not disconnected in time are reported and stay connected, so the disconnect can be retried (default: 10)")
+    private long timeout;
+
     @Override
     public void run() {
 
@@ -106,6 +109,7 @@ public class ContextDisconnectCommand extends ShellContextCommand implements Run
         return getClass().getSimpleName() + "{" +
                 "key=" + getKey() +
                 ", all=" + disconnectAll +
+                (disconnectAll ? (", timeout=" + timeout) : "") +
                 (sessionExpiryInterval != null ?  (", sessionExpiryInterval=" + sessionExpiryInterval) : "") +
                 (reasonString != null ?  (", reasonString=" + reasonString) : "") +
                 (userProperties != null ?  (", userProperties=" + Arrays.toString(userProperties)) : "") +
@@ -130,6 +134,11 @@ public class ContextDisconnectCommand extends ShellContextCommand implements Run
         return MqttUtils.convertToMqtt5UserProperties(userProperties);
     }
 
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+
     public void setUserProperties(@Nullable final Mqtt5UserProperty... userProperties) {
         this.userProperties = userProperties;
     }
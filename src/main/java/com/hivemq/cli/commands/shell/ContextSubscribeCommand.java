@@ -19,35 +19,43 @@ package com.hivemq.cli.commands.shell;
 import com.google.common.base.Throwables;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.commands.options.FilterOptions;
 import com.hivemq.cli.commands.Unsubscribe;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.MqttQosConverter;
+import com.hivemq.cli.mqtt.ContextClientDisconnectListener;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.aggregation.PayloadAggregator;
+import com.hivemq.cli.mqtt.filter.DeduplicationCache;
+import com.hivemq.cli.mqtt.filter.PublishFilter;
+import com.hivemq.cli.mqtt.output.PublishOutput;
 import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttVersion;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jline.utils.NonBlockingReader;
 import org.tinylog.Logger;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Arrays;
-import java.util.Scanner;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Collections;
+import java.util.List;
 
 @CommandLine.Command(name = "sub",
         aliases = "subscribe",
         description = "Subscribe this mqtt client to a list of topics")
 public class ContextSubscribeCommand extends ShellContextCommand implements Runnable, Subscribe, Unsubscribe {
 
-    public static final int IDLE_TIME = 1000;
     private final DefaultCLIProperties defaultCLIProperties;
+    private PublishFilter publishFilter;
 
     //needed for pico cli - reflection code generation
     public ContextSubscribeCommand() {
@@ -91,6 +99,9 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
     @CommandLine.Option(names = {"-T", "--showTopics"}, defaultValue = "false", description = "Prepend the specific topic name to the received publish", order = 1)
     private boolean showTopics;
 
+    @CommandLine.Mixin
+    private FilterOptions filterOptions = new FilterOptions();
+
     @Override
     public void run() {
 
@@ -104,6 +115,14 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
             printToSTDOUT = true;
         }
 
+        try {
+            publishFilter = filterOptions.buildPublishFilter();
+        }
+        catch (final IllegalArgumentException ex) {
+            Logger.error(ex.getMessage());
+            return;
+        }
+
         try {
             qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
             mqttClientExecutor.subscribe(contextClient, this);
@@ -113,56 +132,57 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
         }
 
         if (stay) {
-            try {
-                stay();
-            }
-            catch (final InterruptedException ex) {
-                Logger.error(ex, Throwables.getRootCause(ex).getMessage());
-            }
+            stay();
         }
     }
 
-    private void stay() throws InterruptedException {
+    private void stay() {
 
-        final CountDownLatch latch = new CountDownLatch(1);
+        final MqttClient client = contextClient;
+        if (client == null) {
+            return;
+        }
 
-        final Runnable waitForDisconnectRunnable = () -> {
-            while (contextClient.getState().isConnected()) {
-                try {
-                    Thread.sleep(IDLE_TIME);
-                }
-                catch (final InterruptedException e) {
-                    return;
+        // the disconnect listener interrupts the read from the terminal, the lock guards against interrupting the
+        // shell thread after it stopped staying
+        final Thread stayingThread = Thread.currentThread();
+        final Object lock = new Object();
+        final boolean[] staying = {true};
+        ContextClientDisconnectListener.whenDisconnected(client).thenRun(() -> {
+            synchronized (lock) {
+                if (staying[0]) {
+                    stayingThread.interrupt();
                 }
             }
-            latch.countDown();
-        };
-
-        final Runnable waitForExitCommandRunnable = () -> {
-            final Scanner scanner = new Scanner(System.in);
-            scanner.nextLine();
-            latch.countDown();
-        };
-
-        final ExecutorService WORKER_THREADS = Executors.newFixedThreadPool(2);
+        });
 
-        WORKER_THREADS.submit(waitForDisconnectRunnable);
-        WORKER_THREADS.submit(waitForExitCommandRunnable);
-
-        latch.await();
-
-        WORKER_THREADS.shutdownNow();
+        try {
+            int c;
+            do {
+                c = ShellCommand.TERMINAL_READER.read();
+            } while (c != '\n' && c != '\r' && c != NonBlockingReader.EOF);
+        }
+        catch (final InterruptedIOException ignored) {
+            // the client was disconnected
+        }
+        catch (final IOException ex) {
+            Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+        }
+        finally {
+            synchronized (lock) {
+                staying[0] = false;
+                Thread.interrupted();
+            }
+        }
 
-        if (contextClient != null) {
-            if (!contextClient.getState().isConnectedOrReconnect()) {
+        if (!client.getState().isConnectedOrReconnect()) {
+            if (client == contextClient) {
                 removeContext();
             }
-            else {
-                mqttClientExecutor.unsubscribe(contextClient, this);
-            }
         }
-
-
+        else {
+            mqttClientExecutor.unsubscribe(client, this);
+        }
     }
 
     @Override
@@ -177,6 +197,7 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
                 ", showTopics=" + showTopics +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
                 (publishFile != null ? (", publishFile=" + publishFile.getAbsolutePath()) : "") +
+                ", " + filterOptions +
                 '}';
     }
 
@@ -196,6 +217,9 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
             if (userProperties != null) {
                 Logger.warn("Subscribe user properties were set but are unused in Mqtt version {}", MqttVersion.MQTT_3_1_1);
             }
+            if (filterOptions.hasUserPropertyFilter()) {
+                Logger.warn("A user property filter was set but no publish carries user properties in Mqtt version {}", MqttVersion.MQTT_3_1_1);
+            }
         }
     }
 
@@ -233,4 +257,28 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
     public void setUserProperties(@Nullable final Mqtt5UserProperty... userProperties) {
         this.userProperties = userProperties;
     }
+
+    @Override
+    @Nullable
+    public PayloadAggregator getPayloadAggregator() {
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public PublishFilter getPublishFilter() {
+        return publishFilter;
+    }
+
+    @Override
+    @Nullable
+    public DeduplicationCache getDeduplicationCache() {
+        return null;
+    }
+
+    @Override
+    @NotNull
+    public List<PublishOutput> getPublishOutputs() {
+        return Collections.emptyList();
+    }
 }
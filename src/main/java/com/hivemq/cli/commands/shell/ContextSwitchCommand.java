@@ -18,6 +18,7 @@ package com.hivemq.cli.commands.shell;
 
 import com.google.common.base.Throwables;
 import com.hivemq.cli.commands.Context;
+import com.hivemq.cli.mqtt.ClientKey;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
 import com.hivemq.client.mqtt.MqttClient;
 import org.jetbrains.annotations.NotNull;
@@ -100,11 +101,8 @@ public class ContextSwitchCommand extends ShellContextCommand implements Runnabl
     }
 
     @Override
-    public String getKey() {
-        return "client {" +
-                "identifier='" + getIdentifier() + '\'' +
-                ", host='" + getHost() + '\'' +
-                '}';
+    public ClientKey getKey() {
+        return ClientKey.of(getIdentifier(), getHost());
     }
 
     @Override
@@ -19,6 +19,7 @@ package com.hivemq.cli.commands.shell;
 import com.hivemq.cli.commands.CliCommand;
 import com.hivemq.cli.mqtt.ClientData;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.metrics.ClientMetrics;
 import com.hivemq.client.mqtt.MqttClient;
 import org.jetbrains.annotations.NotNull;
 import org.tinylog.Logger;
@@ -30,6 +31,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -115,13 +117,27 @@ public class ListClientsCommand implements Runnable, CliCommand {
                     .max(Integer::compareTo)
                     .orElse("NO_SSL".length());
 
+            final int longestIncoming = sortedClientData.stream()
+                    .map(c -> getIncomingTraffic(c.getMetrics()).length())
+                    .max(Integer::compareTo)
+                    .get();
+
+            final int longestOutgoing = sortedClientData.stream()
+                    .map(c -> getOutgoingTraffic(c.getMetrics()).length())
+                    .max(Integer::compareTo)
+                    .get();
+
             final String format = new String("%-" + longestState + "s " +
                     "%02d:%02d:%02d " +
                     "%-" + longestID + "s " +
                     "%-" + longestHost + "s " +
                     "%5d " +
                     "%-" + longestVersion + "s " +
-                    "%-" + longestSSLVersion + "s\n");
+                    "%-" + longestSSLVersion + "s " +
+                    "in: %-" + longestIncoming + "s " +
+                    "out: %-" + longestOutgoing + "s " +
+                    "failed: %d " +
+                    "ack: %s\n");
 
             for (final ClientData clientData : sortedClientData) {
 
@@ -131,6 +147,8 @@ public class ListClientsCommand implements Runnable, CliCommand {
 
                 final String connectionState = client.getState().toString();
 
+                final ClientMetrics metrics = clientData.getMetrics();
+
                 writer.printf(format,
                         connectionState,
                         dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(),
@@ -138,7 +156,11 @@ public class ListClientsCommand implements Runnable, CliCommand {
                         client.getConfig().getServerHost(),
                         client.getConfig().getServerPort(),
                         client.getConfig().getMqttVersion().name(),
-                        client.getConfig().getSslConfig().map(ssl -> ssl.getProtocols().get().toString()).orElse("NO_SSL"));
+                        client.getConfig().getSslConfig().map(ssl -> ssl.getProtocols().get().toString()).orElse("NO_SSL"),
+                        getIncomingTraffic(metrics),
+                        getOutgoingTraffic(metrics),
+                        metrics.getFailedPublishes(),
+                        formatLatency(metrics.getAverageAckLatencyNanos()));
 
                 if (listSubscriptions) {
                     writer.printf(" -subscribed topics: %s\n", clientData.getSubscribedTopics());
@@ -161,7 +183,7 @@ public class ListClientsCommand implements Runnable, CliCommand {
 
 
     public List<ClientData> getSortedClientData() {
-        List<ClientData> sortedClientData =  new ArrayList<>(MqttClientExecutor.getClientDataMap().values());
+        List<ClientData> sortedClientData =  new ArrayList<>(MqttClientExecutor.getClientRegistry().getAll());
 
         if (doNotSort) {
             return sortedClientData;
@@ -188,6 +210,35 @@ public class ListClientsCommand implements Runnable, CliCommand {
     }
 
 
+    private static @NotNull String getIncomingTraffic(final @NotNull ClientMetrics metrics) {
+        return metrics.getMessagesReceived() + "/" + formatBytes(metrics.getBytesReceived());
+    }
+
+    private static @NotNull String getOutgoingTraffic(final @NotNull ClientMetrics metrics) {
+        return metrics.getMessagesSent() + "/" + formatBytes(metrics.getBytesSent());
+    }
+
+    private static @NotNull String formatBytes(final long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        final int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format(Locale.ROOT, "%.1f%sB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    private static @NotNull String formatLatency(final double nanos) {
+        if (Double.isNaN(nanos)) {
+            return "-";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.0fus", nanos / 1_000);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000);
+        }
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
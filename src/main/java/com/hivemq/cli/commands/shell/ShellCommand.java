@@ -20,6 +20,7 @@ package com.hivemq.cli.commands.shell;
 import com.google.common.base.Throwables;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.mqtt.ContextClientDisconnectListener;
 import com.hivemq.cli.utils.LoggerUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jline.reader.LineReaderBuilder;
@@ -32,6 +33,7 @@ import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
+import org.jline.utils.NonBlockingReader;
 import org.tinylog.Logger;
 import org.tinylog.configuration.Configuration;
 import picocli.CommandLine;
@@ -62,6 +64,7 @@ public class ShellCommand implements Runnable {
     private String logfilePath;
 
     public static PrintWriter TERMINAL_WRITER;
+    public static NonBlockingReader TERMINAL_READER;
 
     private static LineReaderImpl currentReader;
     private static LineReaderImpl shellReader;
@@ -103,6 +106,8 @@ public class ShellCommand implements Runnable {
 
         logfilePath = Configuration.get("writer.file");
 
+        ContextClientDisconnectListener.enableShellContext();
+
         interact();
     }
 
@@ -133,6 +138,7 @@ public class ShellCommand implements Runnable {
 
 
             TERMINAL_WRITER = terminal.writer();
+            TERMINAL_READER = terminal.reader();
             TERMINAL_WRITER.println(shellCommandLine.getUsageMessage());
             TERMINAL_WRITER.flush();
 
@@ -22,6 +22,7 @@ import com.hivemq.cli.commands.Connect;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.UnsignedIntConverter;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.ReconnectPolicy;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
@@ -138,6 +139,15 @@ public class ShellConnectCommand extends AbstractCommonFlags implements Runnable
         return MqttUtils.convertToMqtt5UserProperties(connectUserProperties);
     }
 
+    @Nullable
+    public ReconnectPolicy getReconnectPolicy() {
+        return null;
+    }
+
+    public boolean isSessionEndedOnDisconnect() {
+        return false;
+    }
+
     @Nullable
     @Override
     public MqttClientSslConfig getSslConfig() {
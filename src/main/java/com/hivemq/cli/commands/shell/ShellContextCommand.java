@@ -18,6 +18,7 @@ package com.hivemq.cli.commands.shell;
 
 
 import com.hivemq.cli.commands.CliCommand;
+import com.hivemq.cli.mqtt.ClientKey;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
 import com.hivemq.client.mqtt.MqttClient;
 import org.jetbrains.annotations.NotNull;
@@ -68,11 +69,8 @@ public class ShellContextCommand implements Runnable, CliCommand {
         ShellCommand.TERMINAL_WRITER.println(ShellCommand.getUsageMessage());
     }
 
-    public String getKey() {
-        return "client {" +
-                "identifier='" + contextClient.getConfig().getClientIdentifier().get() + '\'' +
-                ", host='" + contextClient.getConfig().getServerHost() + '\'' +
-                '}';
+    public ClientKey getKey() {
+        return ClientKey.of(contextClient.getConfig());
     }
 
     public String getIdentifier() {
@@ -23,6 +23,7 @@ import com.hivemq.cli.commands.Disconnect;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.UnsignedIntConverter;
 import com.hivemq.cli.impl.MqttAction;
+import com.hivemq.cli.mqtt.ClientKey;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
@@ -79,6 +80,9 @@ public class ShellDisconnectCommand implements MqttAction, Disconnect {
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property of the disconnect message")
     @Nullable private Mqtt5UserProperty[] userProperties;
 
+    @CommandLine.Option(names = {"--timeout"}, defaultValue = "10", description = "The time in seconds to wait for all clients to disconnect when using --all, clients not disconnected in time are reported and stay connected, so the disconnect can be retried (default: 10)")
+    private long timeout;
+
     @Override
     public void run() {
 
@@ -113,17 +117,15 @@ public class ShellDisconnectCommand implements MqttAction, Disconnect {
     }
 
     @Override
-    public String getKey() {
-        return "client {" +
-                "identifier='" + getIdentifier() + '\'' +
-                ", host='" + getHost() + '\'' +
-                '}';
+    public ClientKey getKey() {
+        return ClientKey.of(getIdentifier(), getHost());
     }
 
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
                 "disconnectAll=" + disconnectAll +
+                (disconnectAll ? (", timeout=" + timeout) : "") +
                 (identifier != null ? (", identifier=" + identifier) : "") +
                 (host != null ? (", host=" + host) : "") +
                 (sessionExpiryInterval != null ? (", sessionExpiryInterval=" + host) : "") +
@@ -153,6 +155,11 @@ public class ShellDisconnectCommand implements MqttAction, Disconnect {
         return MqttUtils.convertToMqtt5UserProperties(userProperties);
     }
 
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+
     public void setUserProperties(final @Nullable Mqtt5UserProperty... userProperties) {
         this.userProperties = userProperties;
     }
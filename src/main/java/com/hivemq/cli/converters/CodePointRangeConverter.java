@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import picocli.CommandLine;
+
+/**
+ * Converts a single code point like {@code U+00E4} or a range like {@code U+0020-U+002F} to a String containing all
+ * characters of the range. Surrogates and {@code U+0000} are excluded as they are not allowed in MQTT strings.
+ */
+public class CodePointRangeConverter implements CommandLine.ITypeConverter<String> {
+
+    public static final String WRONG_INPUT_MESSAGE = "Value must be a code point 'U+XXXX' or a range 'U+XXXX-U+XXXX' in [U+0001 - U+10FFFF]";
+
+    @Override
+    public String convert(final @NotNull String s) throws Exception {
+        final int separator = s.indexOf('-');
+        final int first = parseCodePoint(separator == -1 ? s : s.substring(0, separator));
+        final int last = separator == -1 ? first : parseCodePoint(s.substring(separator + 1));
+        if (first > last) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+
+        final StringBuilder chars = new StringBuilder();
+        for (int codePoint = first; codePoint <= last; codePoint++) {
+            if (Character.getType(codePoint) != Character.SURROGATE) {
+                chars.appendCodePoint(codePoint);
+            }
+        }
+        return chars.toString();
+    }
+
+    private static int parseCodePoint(final @NotNull String s) throws Exception {
+        if (!s.startsWith("U+") && !s.startsWith("u+")) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+        try {
+            final int codePoint = Integer.parseInt(s.substring(2), 16);
+            if (codePoint < 1 || codePoint > Character.MAX_CODE_POINT) {
+                throw new Exception(WRONG_INPUT_MESSAGE);
+            }
+            return codePoint;
+        } catch (final NumberFormatException ex) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.hivemq.cli.converters;
 
 import com.hivemq.cli.utils.CertificateConverterUtils;
+import com.hivemq.cli.utils.FileUtils;
 import org.jetbrains.annotations.NotNull;
 import picocli.CommandLine;
 
@@ -34,7 +35,7 @@ public class DirectoryToCertificateCollectionConverter implements CommandLine.IT
     @Override
     public Collection<X509Certificate> convert(final @NotNull String s) throws Exception {
 
-        final File directory = new File(s);
+        final File directory = FileUtils.resolve(s);
 
         if (!directory.exists())
             throw new FileNotFoundException(DIRECTORY_NOT_FOUND);
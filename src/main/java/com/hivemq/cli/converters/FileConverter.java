@@ -15,6 +15,7 @@ package com.hivemq.cli.converters;
  * limitations under the License.
  *
  */
+import com.hivemq.cli.utils.FileUtils;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -28,7 +29,7 @@ class FileConverter implements CommandLine.ITypeConverter<File> {
     @Override
     public File convert(String value) throws Exception {
 
-        final File file = new File(value);
+        final File file = FileUtils.resolve(value);
 
         if (!file.exists())
             throw new FileNotFoundException(FILE_NOT_FOUND);
@@ -18,6 +18,7 @@ package com.hivemq.cli.converters;
 
 
 import com.hivemq.cli.utils.PasswordUtils;
+import com.hivemq.cli.utils.SecurityUtils;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMDecryptorProvider;
@@ -47,42 +48,47 @@ public class FileToPrivateKeyConverter implements CommandLine.ITypeConverter<Pri
     public PrivateKey convert(final @NotNull String s) throws Exception {
         final FileConverter fileConverter = new FileConverter();
         final File keyFile = fileConverter.convert(s);
-        return getPrivateKeyFromFile(keyFile);
+        return PemKeyReader.getPrivateKeyFromFile(keyFile);
     }
 
-    private PrivateKey getPrivateKeyFromFile(final @NotNull File keyFile) throws Exception {
-        Security.addProvider(new BouncyCastleProvider());
-        // read the keyfile
-        final PEMParser pemParser = new PEMParser(new FileReader(keyFile));
+    // BouncyCastle is only loaded once a private key is read, not when pico cli creates the converter
+    private static class PemKeyReader {
 
-        final Object object;
-        try {
-            object = pemParser.readObject();
-        } catch (PEMException pe) {
-            throw new Exception(MALFORMED_KEY);
-        }
+        private static PrivateKey getPrivateKeyFromFile(final @NotNull File keyFile) throws Exception {
+            SecurityUtils.useUnlimitedCryptoPolicy();
+            Security.addProvider(new BouncyCastleProvider());
+            // read the keyfile
+            final PEMParser pemParser = new PEMParser(new FileReader(keyFile));
 
-        final JcaPEMKeyConverter converter = new JcaPEMKeyConverter().setProvider("BC");
+            final Object object;
+            try {
+                object = pemParser.readObject();
+            } catch (PEMException pe) {
+                throw new Exception(MALFORMED_KEY);
+            }
 
-        final PrivateKey privateKey;
-        if (object instanceof PEMEncryptedKeyPair) {
-            final char[] password = PasswordUtils.readPassword("Enter private key password: ");
-            final PEMEncryptedKeyPair encryptedPrivateKey = (PEMEncryptedKeyPair) object;
-            final PEMDecryptorProvider decryptorProvider = new JcePEMDecryptorProviderBuilder().build(password);
-            final KeyPair keyPair = converter.getKeyPair(encryptedPrivateKey.decryptKeyPair(decryptorProvider));
-            privateKey = keyPair.getPrivate();
-        } else if (object instanceof PKCS8EncryptedPrivateKeyInfo) {
-            final char[] password = PasswordUtils.readPassword("Enter private key password:");
-            final PKCS8EncryptedPrivateKeyInfo encryptedPrivateKey = (PKCS8EncryptedPrivateKeyInfo) object;
-            final InputDecryptorProvider decryptorProvider = new JceOpenSSLPKCS8DecryptorProviderBuilder().build(password);
-            final PrivateKeyInfo privateKeyInfo = encryptedPrivateKey.decryptPrivateKeyInfo(decryptorProvider);
-            privateKey = converter.getPrivateKey(privateKeyInfo);
-        } else if (object instanceof PEMKeyPair) {
-            privateKey = converter.getPrivateKey(((PEMKeyPair) object).getPrivateKeyInfo());
-        } else {
-            throw new IllegalArgumentException(UNRECOGNIZED_KEY);
-        }
+            final JcaPEMKeyConverter converter = new JcaPEMKeyConverter().setProvider("BC");
 
-        return privateKey;
+            final PrivateKey privateKey;
+            if (object instanceof PEMEncryptedKeyPair) {
+                final char[] password = PasswordUtils.readPassword("Enter private key password: ");
+                final PEMEncryptedKeyPair encryptedPrivateKey = (PEMEncryptedKeyPair) object;
+                final PEMDecryptorProvider decryptorProvider = new JcePEMDecryptorProviderBuilder().build(password);
+                final KeyPair keyPair = converter.getKeyPair(encryptedPrivateKey.decryptKeyPair(decryptorProvider));
+                privateKey = keyPair.getPrivate();
+            } else if (object instanceof PKCS8EncryptedPrivateKeyInfo) {
+                final char[] password = PasswordUtils.readPassword("Enter private key password:");
+                final PKCS8EncryptedPrivateKeyInfo encryptedPrivateKey = (PKCS8EncryptedPrivateKeyInfo) object;
+                final InputDecryptorProvider decryptorProvider = new JceOpenSSLPKCS8DecryptorProviderBuilder().build(password);
+                final PrivateKeyInfo privateKeyInfo = encryptedPrivateKey.decryptPrivateKeyInfo(decryptorProvider);
+                privateKey = converter.getPrivateKey(privateKeyInfo);
+            } else if (object instanceof PEMKeyPair) {
+                privateKey = converter.getPrivateKey(((PEMKeyPair) object).getPrivateKeyInfo());
+            } else {
+                throw new IllegalArgumentException(UNRECOGNIZED_KEY);
+            }
+
+            return privateKey;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import picocli.CommandLine;
+
+public class HexToByteArrayConverter implements CommandLine.ITypeConverter<byte[]> {
+
+    static final String WRONG_INPUT_MESSAGE = "Value must be a non empty sequence of hexadecimal byte values (e.g. 0a1b or 0x0a1b)";
+
+    @Override
+    public byte[] convert(final @NotNull String s) throws Exception {
+        final String hex = s.startsWith("0x") || s.startsWith("0X") ? s.substring(2) : s;
+        if (hex.isEmpty() || hex.length() % 2 != 0) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            final int high = Character.digit(hex.charAt(2 * i), 16);
+            final int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high == -1 || low == -1) {
+                throw new Exception(WRONG_INPUT_MESSAGE);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import picocli.CommandLine;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Converts {@code [host]:port} to a socket address, binding to the loopback interface if no host is given.
+ */
+public class InetSocketAddressConverter implements CommandLine.ITypeConverter<InetSocketAddress> {
+
+    static final String WRONG_INPUT_MESSAGE = "Value must be of the form [host]:port with a port in range [1 - 65535] (e.g. :8080 or 0.0.0.0:8080)";
+
+    @Override
+    public InetSocketAddress convert(final @NotNull String s) throws Exception {
+        final int separator = s.lastIndexOf(':');
+        if (separator == -1) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+
+        final int port;
+        try {
+            port = Integer.parseInt(s.substring(separator + 1));
+        }
+        catch (final NumberFormatException ex) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+        if (port < 1 || port > 65535) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+
+        String host = s.substring(0, separator);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        if (host.isEmpty()) {
+            host = "127.0.0.1";
+        }
+        return new InetSocketAddress(host, port);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The settings shared by the daemon and the thin invocations. Unlike the {@link DaemonClient} this does not load the
+ * Netty transport, so invocations which are not forwarded stay unaffected.
+ */
+public class Daemon {
+
+    static final String SOCKET_ENVIRONMENT_VARIABLE = "MQTT_CLI_DAEMON_SOCKET";
+
+    // only short lived commands which profit from an already connected client are forwarded
+    private static final @NotNull Set<String> FORWARDED_COMMANDS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("pub", "publish")));
+
+    private Daemon() {
+    }
+
+    public static boolean isForwarded(final @NotNull String[] args) {
+        return args.length > 0 && FORWARDED_COMMANDS.contains(args[0]);
+    }
+
+    /**
+     * @return the socket given by the environment variable {@value #SOCKET_ENVIRONMENT_VARIABLE} or
+     *         {@code ~/.mqtt-cli/daemon.sock}
+     */
+    public static @NotNull File getDefaultSocket() {
+        final String socket = System.getenv(SOCKET_ENVIRONMENT_VARIABLE);
+        if (socket != null && !socket.isEmpty()) {
+            return new File(socket);
+        }
+        return new File(System.getProperty("user.home") + File.separator +
+                ".mqtt-cli" + File.separator +
+                "daemon.sock");
+    }
+}
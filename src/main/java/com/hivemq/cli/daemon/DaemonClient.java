@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Forwards a command to the {@link DaemonServer} listening on a Unix domain socket and receives its output.
+ */
+public class DaemonClient implements Closeable {
+
+    private final @NotNull EventLoopGroup eventLoopGroup;
+    private final @NotNull Channel channel;
+    private final @NotNull CompletableFuture<DaemonResponse> response;
+
+    private DaemonClient(
+            final @NotNull EventLoopGroup eventLoopGroup,
+            final @NotNull Channel channel,
+            final @NotNull CompletableFuture<DaemonResponse> response) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.channel = channel;
+        this.response = response;
+    }
+
+    /**
+     * @return the connected client or null if no daemon listens on the socket
+     */
+    public static @Nullable DaemonClient connect(final @NotNull File socket) {
+        if (!socket.exists() || !Epoll.isAvailable()) {
+            return null;
+        }
+        final CompletableFuture<DaemonResponse> response = new CompletableFuture<>();
+        final EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory("mqtt-cli-daemon-client", true));
+        final ChannelFuture connectFuture = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(EpollDomainSocketChannel.class)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(final @NotNull Channel channel) {
+                        channel.pipeline()
+                                .addLast(DaemonProtocol.newFrameDecoder())
+                                .addLast(DaemonProtocol.newFramePrepender())
+                                .addLast(new ResponseHandler(response));
+                    }
+                })
+                .connect(new DomainSocketAddress(socket));
+        connectFuture.awaitUninterruptibly();
+        if (!connectFuture.isSuccess()) {
+            eventLoopGroup.shutdownGracefully();
+            return null;
+        }
+        return new DaemonClient(eventLoopGroup, connectFuture.channel(), response);
+    }
+
+    /**
+     * Sends the command to the daemon and waits until it was executed.
+     */
+    public @NotNull DaemonResponse execute(final @NotNull DaemonRequest request) throws IOException {
+        final ChannelFuture writeFuture = channel.writeAndFlush(DaemonProtocol.encodeRequest(channel.alloc(), request));
+        if (!writeFuture.awaitUninterruptibly().isSuccess()) {
+            throw new IOException("Could not send the command to the daemon", writeFuture.cause());
+        }
+        try {
+            return response.get();
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the daemon", ex);
+        }
+        catch (final ExecutionException ex) {
+            throw new IOException("The daemon did not answer", ex.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        channel.close().awaitUninterruptibly();
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    private static class ResponseHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final @NotNull CompletableFuture<DaemonResponse> response;
+
+        ResponseHandler(final @NotNull CompletableFuture<DaemonResponse> response) {
+            this.response = response;
+        }
+
+        @Override
+        protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull ByteBuf frame) {
+            try {
+                response.complete(DaemonProtocol.decodeResponse(frame));
+            }
+            catch (final IllegalArgumentException | IndexOutOfBoundsException ex) {
+                response.completeExceptionally(ex);
+            }
+        }
+
+        @Override
+        public void channelInactive(final @NotNull ChannelHandlerContext ctx) {
+            response.completeExceptionally(new IOException("The daemon closed the connection"));
+        }
+
+        @Override
+        public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+            response.completeExceptionally(cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The framing between the thin invocations and the daemon.
+ * <p>
+ * Every frame is prefixed by its length. A request frame holds the amount of arguments followed by the length
+ * prefixed UTF-8 arguments. A response frame holds the exit code followed by the length prefixed output of stdout and
+ * stderr.
+ */
+class DaemonProtocol {
+
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private DaemonProtocol() {
+    }
+
+    static @NotNull LengthFieldBasedFrameDecoder newFrameDecoder() {
+        return new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, 4, 0, 4);
+    }
+
+    static @NotNull LengthFieldPrepender newFramePrepender() {
+        return new LengthFieldPrepender(4);
+    }
+
+    static @NotNull ByteBuf encodeRequest(final @NotNull ByteBufAllocator allocator, final @NotNull DaemonRequest request) {
+        final ByteBuf buffer = allocator.buffer();
+        writeBytes(buffer, request.getWorkingDirectory().getPath().getBytes(StandardCharsets.UTF_8));
+        buffer.writeInt(request.getArgs().length);
+        for (final String arg : request.getArgs()) {
+            writeBytes(buffer, arg.getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer;
+    }
+
+    static @NotNull DaemonRequest decodeRequest(final @NotNull ByteBuf frame) {
+        final File workingDirectory = new File(new String(readBytes(frame), StandardCharsets.UTF_8));
+        if (!workingDirectory.isAbsolute()) {
+            throw new IllegalArgumentException("Invalid working directory " + workingDirectory.getPath());
+        }
+        final int count = frame.readInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid amount of arguments " + count);
+        }
+        final String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = new String(readBytes(frame), StandardCharsets.UTF_8);
+        }
+        return new DaemonRequest(workingDirectory, args);
+    }
+
+    static @NotNull ByteBuf encodeResponse(final @NotNull ByteBufAllocator allocator, final @NotNull DaemonResponse response) {
+        final ByteBuf buffer = allocator.buffer();
+        buffer.writeInt(response.getExitCode());
+        writeBytes(buffer, response.getOut());
+        writeBytes(buffer, response.getErr());
+        return buffer;
+    }
+
+    static @NotNull DaemonResponse decodeResponse(final @NotNull ByteBuf frame) {
+        final int exitCode = frame.readInt();
+        final byte[] out = readBytes(frame);
+        final byte[] err = readBytes(frame);
+        return new DaemonResponse(exitCode, out, err);
+    }
+
+    private static void writeBytes(final @NotNull ByteBuf buffer, final @NotNull byte[] bytes) {
+        buffer.writeInt(bytes.length);
+        buffer.writeBytes(bytes);
+    }
+
+    private static @NotNull byte[] readBytes(final @NotNull ByteBuf frame) {
+        final int length = frame.readInt();
+        if (length < 0 || length > frame.readableBytes()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        frame.readBytes(bytes);
+        return bytes;
+    }
+}
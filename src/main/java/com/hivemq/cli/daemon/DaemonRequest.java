@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * A command forwarded to the daemon together with the working directory of the invocation, as relative paths in the
+ * arguments refer to it and not to the working directory of the daemon.
+ */
+public class DaemonRequest {
+
+    private final @NotNull File workingDirectory;
+    private final @NotNull String[] args;
+
+    public DaemonRequest(final @NotNull File workingDirectory, final @NotNull String[] args) {
+        this.workingDirectory = workingDirectory;
+        this.args = args;
+    }
+
+    public @NotNull File getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    public @NotNull String[] getArgs() {
+        return args;
+    }
+}
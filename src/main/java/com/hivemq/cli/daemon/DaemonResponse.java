@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The result of a command executed by the daemon.
+ */
+public class DaemonResponse {
+
+    private final int exitCode;
+    private final @NotNull byte[] out;
+    private final @NotNull byte[] err;
+
+    public DaemonResponse(final int exitCode, final @NotNull byte[] out, final @NotNull byte[] err) {
+        this.exitCode = exitCode;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static @NotNull DaemonResponse error(final int exitCode, final @NotNull String message) {
+        return new DaemonResponse(exitCode, new byte[0], (message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public @NotNull byte[] getOut() {
+        return out;
+    }
+
+    public @NotNull byte[] getErr() {
+        return err;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Listens on a Unix domain socket for the commands forwarded by {@link DaemonClient}s. Requires the native epoll
+ * transport (Linux).
+ * <p>
+ * The commands are executed one after another on a single thread, as they share the command line instance and the
+ * standard streams of the process.
+ */
+public class DaemonServer {
+
+    public interface CommandHandler {
+
+        @NotNull DaemonResponse execute(@NotNull DaemonRequest request);
+    }
+
+    private final @NotNull File socket;
+    private final @NotNull CommandHandler commandHandler;
+    private final @NotNull ExecutorService commandExecutor =
+            Executors.newSingleThreadExecutor(new DefaultThreadFactory("mqtt-cli-daemon-command", true));
+    private @Nullable EventLoopGroup eventLoopGroup;
+    private @Nullable Channel serverChannel;
+
+    public DaemonServer(final @NotNull File socket, final @NotNull CommandHandler commandHandler) {
+        this.socket = socket;
+        this.commandHandler = commandHandler;
+    }
+
+    public void start() throws IOException {
+        if (!Epoll.isAvailable()) {
+            throw new IOException("Unix domain sockets are only supported on Linux", Epoll.unavailabilityCause());
+        }
+        if (socket.exists()) {
+            final DaemonClient runningDaemon = DaemonClient.connect(socket);
+            if (runningDaemon != null) {
+                runningDaemon.close();
+                throw new IOException("A daemon is already listening on socket " + socket.getPath());
+            }
+            if (!socket.delete()) {
+                throw new IOException("Could not delete the stale socket " + socket.getPath());
+            }
+        }
+        final File parent = socket.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        eventLoopGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory("mqtt-cli-daemon-socket", true));
+        final ChannelFuture bindFuture = new ServerBootstrap()
+                .group(eventLoopGroup)
+                .channel(EpollServerDomainSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(final @NotNull Channel channel) {
+                        channel.pipeline()
+                                .addLast(DaemonProtocol.newFrameDecoder())
+                                .addLast(DaemonProtocol.newFramePrepender())
+                                .addLast(new RequestHandler());
+                    }
+                })
+                .bind(new DomainSocketAddress(socket));
+        bindFuture.awaitUninterruptibly();
+        if (!bindFuture.isSuccess()) {
+            stop();
+            throw new IOException("Could not listen on socket " + socket.getPath(), bindFuture.cause());
+        }
+        serverChannel = bindFuture.channel();
+
+        // everyone who can connect is able to execute commands as the user of the daemon
+        socket.setReadable(false, false);
+        socket.setWritable(false, false);
+        socket.setReadable(true, true);
+        socket.setWritable(true, true);
+    }
+
+    public void awaitStop() {
+        if (serverChannel != null) {
+            serverChannel.closeFuture().awaitUninterruptibly();
+        }
+    }
+
+    public void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly();
+        }
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+        }
+        commandExecutor.shutdown();
+        socket.delete();
+    }
+
+    public @NotNull File getSocket() {
+        return socket;
+    }
+
+    private class RequestHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        @Override
+        protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull ByteBuf frame) {
+            final DaemonRequest request;
+            try {
+                request = DaemonProtocol.decodeRequest(frame);
+            }
+            catch (final IllegalArgumentException | IndexOutOfBoundsException ex) {
+                Logger.debug("Received an invalid request from the daemon socket: {}", ex.getMessage());
+                ctx.close();
+                return;
+            }
+            commandExecutor.execute(() -> {
+                DaemonResponse response;
+                try {
+                    response = commandHandler.execute(request);
+                }
+                catch (final Exception ex) {
+                    Logger.error(ex, "The forwarded command failed");
+                    response = DaemonResponse.error(-1, String.valueOf(ex.getMessage()));
+                }
+                ctx.writeAndFlush(DaemonProtocol.encodeResponse(ctx.alloc(), response));
+            });
+        }
+
+        @Override
+        public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+            Logger.debug("Closing a daemon connection after an error: {}", cause.getMessage());
+            ctx.close();
+        }
+    }
+}
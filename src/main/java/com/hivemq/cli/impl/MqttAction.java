@@ -16,7 +16,9 @@
  */
 package com.hivemq.cli.impl;
 
+import com.hivemq.cli.mqtt.ClientKey;
+
 public interface MqttAction extends Runnable {
 
-    String getKey();
+    ClientKey getKey();
 }
@@ -17,19 +17,10 @@
 package com.hivemq.cli.ioc;
 
 import com.hivemq.cli.DefaultCLIProperties;
-import com.hivemq.cli.commandline.CommandErrorMessageHandler;
-import com.hivemq.cli.commandline.CommandLineConfig;
-import com.hivemq.cli.commands.MqttCLICommand;
-import com.hivemq.cli.commands.cli.PublishCommand;
-import com.hivemq.cli.commands.cli.SubscribeCommand;
-import com.hivemq.cli.commands.cli.TestBrokerCommand;
-import com.hivemq.cli.commands.shell.ShellCommand;
 import dagger.Module;
 import dagger.Provides;
 import org.jetbrains.annotations.NotNull;
-import picocli.CommandLine;
 
-import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 
@@ -44,28 +35,6 @@ class CLIModule {
                     ".mqtt-cli" + File.separator +
                     "config.properties";
 
-    @Provides
-    @Singleton
-    @Named("cli")
-    static @NotNull CommandLine provideCli(
-            final @NotNull MqttCLICommand main,
-            final @NotNull PublishCommand publishCommand,
-            final @NotNull SubscribeCommand subscribeCommand,
-            final @NotNull ShellCommand shellCommand,
-            final @NotNull TestBrokerCommand testBrokerCommand,
-            final @NotNull CommandLineConfig config,
-            final @NotNull CommandErrorMessageHandler handler) {
-
-        return new CommandLine(main)
-                .addSubcommand(publishCommand)
-                .addSubcommand(subscribeCommand)
-                .addSubcommand(shellCommand)
-                .addSubcommand(testBrokerCommand)
-                .setColorScheme(config.getColorScheme())
-                .setUsageHelpWidth(config.getCliWidth())
-                .setParameterExceptionHandler(handler);
-    }
-
     @Provides
     @Singleton
     static @NotNull DefaultCLIProperties provideDefaultProperties() {
@@ -17,6 +17,7 @@
 package com.hivemq.cli.ioc;
 
 import com.hivemq.cli.DefaultCLIProperties;
+import com.hivemq.cli.commandline.CliCommandLineFactory;
 import dagger.Component;
 import org.jetbrains.annotations.NotNull;
 import picocli.CommandLine;
@@ -31,8 +32,7 @@ import javax.inject.Singleton;
 })
 public interface MqttCLI {
 
-    @Named("cli")
-    @NotNull CommandLine cli();
+    @NotNull CliCommandLineFactory cli();
 
     @Named("shell")
     @NotNull CommandLine shell();
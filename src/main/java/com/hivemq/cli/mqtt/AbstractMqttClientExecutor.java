@@ -16,20 +16,23 @@
  */
 package com.hivemq.cli.mqtt;
 
+import com.google.common.base.Throwables;
 import com.hivemq.cli.commands.Connect;
 import com.hivemq.cli.commands.ConnectRestrictions;
 import com.hivemq.cli.commands.Context;
 import com.hivemq.cli.commands.Disconnect;
 import com.hivemq.cli.commands.Publish;
 import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.mqtt.jfr.MqttFlightRecorder;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
 import com.hivemq.cli.commands.Unsubscribe;
 import com.hivemq.cli.commands.Will;
 import com.hivemq.cli.commands.cli.PublishCommand;
 import com.hivemq.cli.commands.cli.SubscribeCommand;
-import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientBuilder;
-import com.hivemq.client.mqtt.MqttClientState;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.MqttGlobalPublishFilter;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
@@ -53,22 +56,30 @@ import org.tinylog.Logger;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 abstract class AbstractMqttClientExecutor {
 
-    @NotNull private static final Map<String, ClientData> clientKeyToClientData = new ConcurrentHashMap<>();
+    @NotNull private static final ClientRegistry clientRegistry = new ClientRegistry();
 
 
     abstract void mqtt5Connect(final @NotNull Mqtt5Client client, final @NotNull Mqtt5Connect connectMessage, final @NotNull Connect connect);
 
     abstract void mqtt3Connect(final @NotNull Mqtt3Client client, final @NotNull Mqtt3Connect connectMessage, final @NotNull Connect connect);
 
-    abstract void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos);
 
-    abstract void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos);
 
     abstract void mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos);
 
@@ -78,9 +89,9 @@ abstract class AbstractMqttClientExecutor {
 
     abstract void mqtt3Unsubscribe(final @NotNull Mqtt3Client client, final @NotNull Unsubscribe unsubscribe);
 
-    abstract void mqtt5Disconnect(final @NotNull Mqtt5Client client, final @NotNull Disconnect disconnect);
+    abstract @NotNull CompletableFuture<Void> mqtt5Disconnect(final @NotNull Mqtt5Client client, final @NotNull Disconnect disconnect);
 
-    abstract void mqtt3Disconnect(final @NotNull Mqtt3Client client, final @NotNull Disconnect disconnect);
+    abstract @NotNull CompletableFuture<Void> mqtt3Disconnect(final @NotNull Mqtt3Client client, final @NotNull Disconnect disconnect);
 
 
     public MqttClient subscribe(final @NotNull SubscribeCommand subscribeCommand) {
@@ -94,20 +105,25 @@ abstract class AbstractMqttClientExecutor {
     }
 
     public void subscribe(final @NotNull MqttClient client, final @NotNull Subscribe subscribe) {
-        for (int i = 0; i < subscribe.getTopics().length; i++) {
-            final String topic = subscribe.getTopics()[i];
+        final String[] topics = subscribe.getTopics();
+        if (topics.length == 0) {
+            return;
+        }
 
+        // topics without an own QoS use the last given one
+        final MqttQos[] qos = new MqttQos[topics.length];
+        for (int i = 0; i < topics.length; i++) {
             int qosI = i < subscribe.getQos().length ? i: subscribe.getQos().length-1;
-            final MqttQos qos = subscribe.getQos()[qosI];
+            qos[i] = subscribe.getQos()[qosI];
+        }
 
-            switch (client.getConfig().getMqttVersion()) {
-                case MQTT_5_0:
-                    mqtt5Subscribe((Mqtt5Client) client, subscribe, topic, qos);
-                    break;
-                case MQTT_3_1_1:
-                    mqtt3Subscribe((Mqtt3Client) client, subscribe, topic, qos);
-                    break;
-            }
+        switch (client.getConfig().getMqttVersion()) {
+            case MQTT_5_0:
+                mqtt5Subscribe((Mqtt5Client) client, subscribe, topics, qos);
+                break;
+            case MQTT_3_1_1:
+                mqtt3Subscribe((Mqtt3Client) client, subscribe, topics, qos);
+                break;
         }
     }
 
@@ -138,20 +154,21 @@ abstract class AbstractMqttClientExecutor {
     }
 
     public void disconnect(final @NotNull Disconnect disconnect) {
-        final String clientKey = disconnect.getKey();
+        final ClientKey clientKey = disconnect.getKey();
+        final ClientData clientData = clientRegistry.get(clientKey);
 
-        if (clientKeyToClientData.containsKey(clientKey)) {
-            final MqttClient client = clientKeyToClientData.get(clientKey).getClient();
+        if (clientData != null) {
+            final MqttClient client = clientData.getClient();
 
             switch (client.getConfig().getMqttVersion()) {
                 case MQTT_5_0:
-                    mqtt5Disconnect((Mqtt5Client) client, disconnect);
+                    mqtt5Disconnect((Mqtt5Client) client, disconnect).join();
                     break;
                 case MQTT_3_1_1:
-                    mqtt3Disconnect((Mqtt3Client) client, disconnect);
+                    mqtt3Disconnect((Mqtt3Client) client, disconnect).join();
                     break;
             }
-            clientKeyToClientData.remove(clientKey);
+            clientRegistry.remove(clientData);
         }
         else {
             Logger.error("client to disconnect is not connected ({}) ", clientKey);
@@ -159,18 +176,97 @@ abstract class AbstractMqttClientExecutor {
     }
 
     public void disconnectAllClients(final @NotNull Disconnect disconnect) {
-        for (Map.Entry<String,ClientData> entry: clientKeyToClientData.entrySet()) {
-            final MqttClient client = entry.getValue().getClient();
-            switch (client.getConfig().getMqttVersion()) {
-                case MQTT_5_0:
-                    mqtt5Disconnect((Mqtt5Client) client, disconnect);
-                    break;
-                case MQTT_3_1_1:
-                    mqtt3Disconnect((Mqtt3Client) client, disconnect);
-                    break;
+        final Map<ClientData, CompletableFuture<Void>> disconnectFutures = new LinkedHashMap<>();
+
+        // all DISCONNECTs are sent at once, so slow brokers only delay the overall deadline
+        for (final ClientData clientData : clientRegistry.getAll()) {
+            final MqttClient client = clientData.getClient();
+            CompletableFuture<Void> future;
+            try {
+                switch (client.getConfig().getMqttVersion()) {
+                    case MQTT_5_0:
+                        future = mqtt5Disconnect((Mqtt5Client) client, disconnect);
+                        break;
+                    case MQTT_3_1_1:
+                        future = mqtt3Disconnect((Mqtt3Client) client, disconnect);
+                        break;
+                    default:
+                        continue;
+                }
             }
+            catch (final Exception ex) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(ex);
+            }
+            disconnectFutures.put(clientData, future);
+        }
+
+        final List<ClientKey> timedOut = awaitDisconnects(disconnectFutures, disconnect.getTimeout(), TimeUnit.SECONDS);
+        removeDisconnectedClients(disconnectFutures);
+        if (!timedOut.isEmpty()) {
+            Logger.warn("Clients still connected, disconnect them again to retry: {}", timedOut);
         }
-        clientKeyToClientData.clear();
+    }
+
+    // clients which did not disconnect in time stay registered, so they can still be listed and disconnected again
+    static void removeDisconnectedClients(final @NotNull Map<ClientData, CompletableFuture<Void>> disconnectFutures) {
+        for (final Map.Entry<ClientData, CompletableFuture<Void>> entry : disconnectFutures.entrySet()) {
+            if (entry.getValue().isDone()) {
+                clientRegistry.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Waits until all disconnects completed or the timeout elapsed. Clients which did not disconnect in time are
+     * listed in a summary and no longer waited for, they are not closed.
+     *
+     * @return the clients which did not disconnect in time
+     */
+    public static @NotNull List<ClientKey> awaitDisconnects(
+            final @NotNull Map<ClientData, CompletableFuture<Void>> disconnectFutures,
+            final long timeout,
+            final @NotNull TimeUnit timeUnit) {
+
+        try {
+            CompletableFuture.allOf(disconnectFutures.values().toArray(new CompletableFuture<?>[0]))
+                    .get(timeout, timeUnit);
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        catch (final ExecutionException | TimeoutException ignored) {
+            // failed and timed out disconnects are reported per client below
+        }
+
+        final List<ClientKey> timedOut = new ArrayList<>();
+        for (final Map.Entry<ClientData, CompletableFuture<Void>> entry : disconnectFutures.entrySet()) {
+            final ClientData clientData = entry.getKey();
+            final CompletableFuture<Void> future = entry.getValue();
+            if (!future.isDone()) {
+                timedOut.add(clientData.getKey());
+            }
+            else if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                }
+                catch (final CompletionException ex) {
+                    Logger.error(ex, "{} failed DISCONNECT: {}",
+                            LoggerUtils.getClientPrefix(clientData.getClient().getConfig()),
+                            Throwables.getRootCause(ex).getMessage());
+                }
+            }
+        }
+
+        if (!timedOut.isEmpty()) {
+            Logger.warn("{} of {} clients did not disconnect within {} {}: {}",
+                    timedOut.size(),
+                    disconnectFutures.size(),
+                    timeout,
+                    timeUnit.name().toLowerCase(Locale.ROOT),
+                    timedOut);
+        }
+        return timedOut;
     }
 
     public void unsubscribe(final @NotNull MqttClient client, final @NotNull Unsubscribe unsubscribe) {
@@ -187,12 +283,8 @@ abstract class AbstractMqttClientExecutor {
 
 
     public boolean isConnected(final @NotNull Context context) {
-        if (clientKeyToClientData.containsKey(context.getKey())) {
-            final MqttClient client = clientKeyToClientData.get(context.getKey()).getClient();
-            final MqttClientState state = client.getState();
-            return state.isConnected();
-        }
-        return false;
+        final MqttClient client = clientRegistry.getClient(context.getKey());
+        return client != null && client.getState().isConnected();
     }
 
 
@@ -200,7 +292,7 @@ abstract class AbstractMqttClientExecutor {
         if (isConnected(connect)) {
             Logger.debug("Client is already connected ({})", connect.getKey());
             Logger.info("Using already connected  ({})", connect.getKey());
-            return clientKeyToClientData.get(connect.getKey()).getClient();
+            return clientRegistry.getClient(connect.getKey());
         }
 
         switch (connect.getVersion()) {
@@ -238,13 +330,15 @@ abstract class AbstractMqttClientExecutor {
 
         client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, buildRemainingMqtt5PublishesCallback(connect, client));
 
+        final long connectStart = System.nanoTime();
+
         mqtt5Connect(client, connectBuilder.build(), connect);
 
-        final ClientData clientData = new ClientData(client);
+        MqttFlightRecorder.connected(client.getConfig(), System.nanoTime() - connectStart);
 
-        final String key = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(), client.getConfig().getServerHost());
+        final ClientData clientData = new ClientData(client, connect.isSessionEndedOnDisconnect());
 
-        clientKeyToClientData.put(key, clientData);
+        clientRegistry.put(clientData);
 
         return client;
     }
@@ -270,13 +364,15 @@ abstract class AbstractMqttClientExecutor {
 
         client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, buildRemainingMqtt3PublishesCallback(connect, client));
 
+        final long connectStart = System.nanoTime();
+
         mqtt3Connect(client, connectBuilder.build(), connect);
 
-        final ClientData clientData = new ClientData(client);
+        MqttFlightRecorder.connected(client.getConfig(), System.nanoTime() - connectStart);
 
-        final String key = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(), client.getConfig().getServerHost());
+        final ClientData clientData = new ClientData(client);
 
-        clientKeyToClientData.put(key, clientData);
+        clientRegistry.put(clientData);
 
         return client;
     }
@@ -377,8 +473,25 @@ abstract class AbstractMqttClientExecutor {
 
     private @NotNull MqttClientBuilder createBuilder(final @NotNull Connect connect) {
 
-        return MqttClient.builder()
+        final MqttClientBuilder clientBuilder = MqttClient.builder();
+
+        NettyTransport.useEpoll(connect.isEpoll());
+        final MqttClientExecutorConfig executorConfig = connect.getExecutorConfig();
+        if (executorConfig != null) {
+            clientBuilder.executorConfig(executorConfig);
+        }
+
+        final ReconnectPolicy reconnectPolicy = connect.getReconnectPolicy();
+        if (reconnectPolicy != null) {
+            final ReconnectHandler reconnectHandler =
+                    new ReconnectHandler(reconnectPolicy, connect instanceof Subscribe ? (Subscribe) connect : null);
+            clientBuilder.addDisconnectedListener(reconnectHandler)
+                    .addConnectedListener(reconnectHandler);
+        }
+
+        return clientBuilder
                 .addDisconnectedListener(new ContextClientDisconnectListener())
+                .addConnectedListener(context -> MetricsRegistry.forClient(context.getClientConfig()).connected())
                 .webSocketConfig(connect.getWebSocketConfig())
                 .serverHost(connect.getHost())
                 .serverPort(connect.getPort())
@@ -424,19 +537,13 @@ abstract class AbstractMqttClientExecutor {
         return null;
     }
 
-    public @NotNull static Map<String, ClientData> getClientDataMap() {
-        return clientKeyToClientData;
+    public @NotNull static ClientRegistry getClientRegistry() {
+        return clientRegistry;
     }
 
     public @Nullable MqttClient getMqttClient(final @NotNull Context context) {
 
-        MqttClient client = null;
-
-        if (clientKeyToClientData.containsKey(context.getKey())) {
-            client = clientKeyToClientData.get(context.getKey()).getClient();
-        }
-
-        return client;
+        return clientRegistry.getClient(context.getKey());
     }
 
     @NotNull private Consumer<Mqtt5Publish> buildRemainingMqtt5PublishesCallback(final @NotNull Connect connect, final @NotNull Mqtt5Client client) {
@@ -16,49 +16,68 @@
  */
 package com.hivemq.cli.mqtt;
 
+import com.hivemq.cli.mqtt.metrics.ClientMetrics;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClientData {
 
     @NotNull private final MqttClient mqttClient;
+    @NotNull private final ClientKey key;
     @NotNull private final LocalDateTime creationTime;
     @NotNull private final Set<MqttTopicFilter> subscribedTopics;
+    @NotNull private final ClientMetrics metrics;
+    private final boolean sessionEndedOnDisconnect;
 
 
     public ClientData(final @NotNull MqttClient mqttClient) {
-        this.mqttClient = mqttClient;
-        this.creationTime = LocalDateTime.now();
-        this.subscribedTopics = new HashSet<>();
+        this(mqttClient, LocalDateTime.now());
     }
 
     public ClientData(final @NotNull MqttClient mqttClient, final @NotNull LocalDateTime creationTime) {
-        this.mqttClient = mqttClient;
-        this.creationTime = creationTime;
-        this.subscribedTopics = new HashSet<>();
+        this(mqttClient, creationTime, Collections.emptySet());
+    }
+
+    public ClientData(final @NotNull MqttClient mqttClient, final boolean sessionEndedOnDisconnect) {
+        this(mqttClient, LocalDateTime.now(), Collections.emptySet(), sessionEndedOnDisconnect);
     }
 
     public ClientData(final @NotNull MqttClient mqttClient, final @NotNull LocalDateTime creationTime, final @NotNull Set<MqttTopicFilter> subscribedTopics) {
+        this(mqttClient, creationTime, subscribedTopics, false);
+    }
+
+    private ClientData(final @NotNull MqttClient mqttClient,
+                       final @NotNull LocalDateTime creationTime,
+                       final @NotNull Set<MqttTopicFilter> subscribedTopics,
+                       final boolean sessionEndedOnDisconnect) {
         this.mqttClient = mqttClient;
+        this.key = ClientKey.of(mqttClient.getConfig());
         this.creationTime = creationTime;
-        this.subscribedTopics = subscribedTopics;
+        // subscriptions are changed from the callback threads of the client
+        this.subscribedTopics = ConcurrentHashMap.newKeySet();
+        this.subscribedTopics.addAll(subscribedTopics);
+        this.metrics = MetricsRegistry.forClient(key);
+        this.sessionEndedOnDisconnect = sessionEndedOnDisconnect;
     }
 
-    public void addSubscription(final @NotNull MqttTopicFilter topic) {
-        subscribedTopics.add(topic);
+    // only changed through the ClientRegistry which keeps its subscription index up to date
+    boolean addSubscription(final @NotNull MqttTopicFilter topic) {
+        return subscribedTopics.add(topic);
     }
 
-    public boolean removeSubscription(final @NotNull MqttTopicFilter topic) {
+    boolean removeSubscription(final @NotNull MqttTopicFilter topic) {
         return subscribedTopics.remove(topic);
     }
 
-    public void removeAllSubscriptions() {
-        subscribedTopics.clear();
+    @NotNull public ClientKey getKey() {
+        return key;
     }
 
     @NotNull public LocalDateTime getCreationTime() {
@@ -66,12 +85,24 @@ public class ClientData {
     }
 
     @NotNull public Set<MqttTopicFilter> getSubscribedTopics() {
-        return subscribedTopics;
+        return Collections.unmodifiableSet(subscribedTopics);
     }
 
     @NotNull public MqttClient getClient() {
         return this.mqttClient;
     }
 
+    @NotNull public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return whether the session of the MQTT 5 client was only requested for automatic reconnects and has to be
+     *         ended when the client is disconnected on purpose
+     */
+    public boolean isSessionEndedOnDisconnect() {
+        return sessionEndedOnDisconnect;
+    }
+
 
 }
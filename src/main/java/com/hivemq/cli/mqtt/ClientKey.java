@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClientConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Identifies a client by its identifier and the host it is connected to.
+ */
+public final class ClientKey {
+
+    private final @NotNull String identifier;
+    private final @NotNull String host;
+    private final int hashCode;
+
+    private ClientKey(final @NotNull String identifier, final @NotNull String host) {
+        this.identifier = identifier;
+        this.host = host;
+        this.hashCode = 31 * identifier.hashCode() + host.hashCode();
+    }
+
+    public static @NotNull ClientKey of(final @NotNull String identifier, final @NotNull String host) {
+        return new ClientKey(identifier, host);
+    }
+
+    public static @NotNull ClientKey of(final @NotNull MqttClientConfig config) {
+        return new ClientKey(config.getClientIdentifier().map(Object::toString).orElse(""), config.getServerHost());
+    }
+
+    public @NotNull String getIdentifier() {
+        return identifier;
+    }
+
+    public @NotNull String getHost() {
+        return host;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientKey)) {
+            return false;
+        }
+        final ClientKey that = (ClientKey) o;
+        return hashCode == that.hashCode && identifier.equals(that.identifier) && host.equals(that.host);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return MqttUtils.buildKey(identifier, host);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the data of all clients of this process, indexed by their key, their host and their subscriptions.
+ * <p>
+ * All changes of a client (registering, removing, (un)subscribing) are done inside a compute of its key, so the
+ * secondary indexes always match the registered clients while changes of different clients do not block each other.
+ */
+public class ClientRegistry {
+
+    private final @NotNull ConcurrentHashMap<ClientKey, ClientData> clients = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentHashMap<String, Set<ClientData>> hostToClients = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentHashMap<MqttTopicFilter, Set<ClientData>> subscriptionToClients = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the client data under its key, replacing a previously registered client with the same key.
+     *
+     * @return the previously registered client data or null
+     */
+    public @Nullable ClientData put(final @NotNull ClientData clientData) {
+        final ClientData[] previous = new ClientData[1];
+        clients.compute(clientData.getKey(), (key, current) -> {
+            if (current != null) {
+                unindex(current);
+            }
+            index(clientData);
+            previous[0] = current;
+            return clientData;
+        });
+        return previous[0];
+    }
+
+    public @Nullable ClientData get(final @NotNull ClientKey key) {
+        return clients.get(key);
+    }
+
+    public @Nullable MqttClient getClient(final @NotNull ClientKey key) {
+        final ClientData clientData = clients.get(key);
+        return clientData == null ? null : clientData.getClient();
+    }
+
+    public boolean contains(final @NotNull ClientKey key) {
+        return clients.containsKey(key);
+    }
+
+    public @Nullable ClientData remove(final @NotNull ClientKey key) {
+        final ClientData[] removed = new ClientData[1];
+        clients.computeIfPresent(key, (k, current) -> {
+            unindex(current);
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes the client data only if it is still registered, so a late disconnect of a replaced client does not
+     * remove its successor.
+     */
+    public boolean remove(final @NotNull ClientData clientData) {
+        final boolean[] removed = new boolean[1];
+        clients.computeIfPresent(clientData.getKey(), (key, current) -> {
+            if (current != clientData) {
+                return current;
+            }
+            unindex(current);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public void clear() {
+        for (final ClientKey key : clients.keySet()) {
+            remove(key);
+        }
+    }
+
+    public boolean addSubscription(final @NotNull ClientKey key, final @NotNull MqttTopicFilter topicFilter) {
+        final boolean[] added = new boolean[1];
+        clients.computeIfPresent(key, (k, clientData) -> {
+            if (clientData.addSubscription(topicFilter)) {
+                addToIndex(subscriptionToClients, topicFilter, clientData);
+                added[0] = true;
+            }
+            return clientData;
+        });
+        return added[0];
+    }
+
+    public boolean removeSubscription(final @NotNull ClientKey key, final @NotNull MqttTopicFilter topicFilter) {
+        final boolean[] removed = new boolean[1];
+        clients.computeIfPresent(key, (k, clientData) -> {
+            if (clientData.removeSubscription(topicFilter)) {
+                removeFromIndex(subscriptionToClients, topicFilter, clientData);
+                removed[0] = true;
+            }
+            return clientData;
+        });
+        return removed[0];
+    }
+
+    public @NotNull Collection<ClientData> getAll() {
+        return Collections.unmodifiableCollection(clients.values());
+    }
+
+    public @NotNull Set<ClientData> getByHost(final @NotNull String host) {
+        return view(hostToClients.get(host));
+    }
+
+    public @NotNull Set<ClientData> getBySubscription(final @NotNull MqttTopicFilter topicFilter) {
+        return view(subscriptionToClients.get(topicFilter));
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public boolean isEmpty() {
+        return clients.isEmpty();
+    }
+
+    private void index(final @NotNull ClientData clientData) {
+        addToIndex(hostToClients, clientData.getKey().getHost(), clientData);
+        for (final MqttTopicFilter topicFilter : clientData.getSubscribedTopics()) {
+            addToIndex(subscriptionToClients, topicFilter, clientData);
+        }
+    }
+
+    private void unindex(final @NotNull ClientData clientData) {
+        removeFromIndex(hostToClients, clientData.getKey().getHost(), clientData);
+        for (final MqttTopicFilter topicFilter : clientData.getSubscribedTopics()) {
+            removeFromIndex(subscriptionToClients, topicFilter, clientData);
+        }
+    }
+
+    private static <K> void addToIndex(
+            final @NotNull Map<K, Set<ClientData>> index, final @NotNull K key, final @NotNull ClientData clientData) {
+        index.compute(key, (k, set) -> {
+            final Set<ClientData> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(clientData);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(
+            final @NotNull Map<K, Set<ClientData>> index, final @NotNull K key, final @NotNull ClientData clientData) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(clientData);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static @NotNull Set<ClientData> view(final @Nullable Set<ClientData> set) {
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+}
@@ -19,8 +19,9 @@ package com.hivemq.cli.mqtt;
 import com.google.common.base.Throwables;
 import com.hivemq.cli.commands.shell.ShellCommand;
 import com.hivemq.cli.commands.shell.ShellContextCommand;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
 import com.hivemq.cli.utils.LoggerUtils;
-import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientConfig;
 import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedContext;
 import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedListener;
@@ -28,8 +29,33 @@ import com.hivemq.client.mqtt.lifecycle.MqttDisconnectSource;
 import org.jetbrains.annotations.NotNull;
 import org.tinylog.Logger;
 
+import java.util.concurrent.CompletableFuture;
+
 public class ContextClientDisconnectListener implements MqttClientDisconnectedListener {
 
+    // the shell classes are only loaded for disconnects once the shell runs
+    private static volatile boolean shellContextEnabled;
+
+    private final @NotNull CompletableFuture<Void> disconnected = new CompletableFuture<>();
+
+    public static void enableShellContext() {
+        shellContextEnabled = true;
+    }
+
+    /**
+     * @param client a client created by the {@link MqttClientExecutor}
+     * @return a future which completes as soon as the client is disconnected for good, i.e. without a reconnect
+     *         following
+     */
+    public static @NotNull CompletableFuture<Void> whenDisconnected(final @NotNull MqttClient client) {
+        for (final MqttClientDisconnectedListener listener : client.getConfig().getDisconnectedListeners()) {
+            if (listener instanceof ContextClientDisconnectListener) {
+                return ((ContextClientDisconnectListener) listener).disconnected;
+            }
+        }
+        throw new IllegalArgumentException("The client " + ClientKey.of(client.getConfig()) + " has no disconnect listener");
+    }
+
     @Override
     public void onDisconnected(final @NotNull MqttClientDisconnectedContext context) {
 
@@ -51,16 +77,25 @@ public class ContextClientDisconnectListener implements MqttClientDisconnectedLi
             ShellContextCommand.removeContext();
         }
 
-        MqttClientExecutor.getClientDataMap().remove(getKeyFromConfig(context.getClientConfig()));
-    }
-
-    private String getKeyFromConfig(final @NotNull MqttClientConfig clientConfig) {
-            return MqttUtils.buildKey(clientConfig.getClientIdentifier().get().toString(), clientConfig.getServerHost());
+        // a client which is reconnected keeps its subscriptions for the resubscribe
+        if (!context.getReconnector().isReconnect()) {
+            final ClientKey key = ClientKey.of(context.getClientConfig());
+            MqttClientExecutor.getClientRegistry().remove(key);
+            MetricsRegistry.remove(key);
+            disconnected.complete(null);
+        }
     }
 
     private boolean contextEqualsShellContext(final @NotNull MqttClientDisconnectedContext context) {
+        if (!shellContextEnabled) {
+            return false;
+        }
+        final MqttClient shellClient = ShellContextCommand.contextClient;
+        if (shellClient == null) {
+            return false;
+        }
         final MqttClientConfig clientConfig = context.getClientConfig();
-        final MqttClientConfig shellClientConfig = ShellContextCommand.contextClient.getConfig();
+        final MqttClientConfig shellClientConfig = shellClient.getConfig();
 
         return clientConfig.getClientIdentifier().equals(shellClientConfig.getClientIdentifier()) &&
                 clientConfig.getServerHost().equals(shellClientConfig.getServerHost());
@@ -22,19 +22,28 @@ import com.hivemq.cli.commands.Disconnect;
 import com.hivemq.cli.commands.Publish;
 import com.hivemq.cli.commands.Subscribe;
 import com.hivemq.cli.commands.Unsubscribe;
+import com.hivemq.cli.mqtt.jfr.MqttFlightRecorder;
+import com.hivemq.cli.mqtt.metrics.ClientMetrics;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
 import com.hivemq.cli.utils.LoggerUtils;
-import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
+import com.hivemq.client.mqtt.mqtt3.exceptions.Mqtt3SubAckException;
 import com.hivemq.client.mqtt.mqtt3.message.connect.Mqtt3Connect;
 import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3PublishBuilder;
 import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
 import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscription;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.suback.Mqtt3SubAck;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.suback.Mqtt3SubAckReturnCode;
 import com.hivemq.client.mqtt.mqtt3.message.unsubscribe.Mqtt3Unsubscribe;
+import com.hivemq.client.mqtt.mqtt3.message.unsubscribe.Mqtt3UnsubscribeBuilder;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5SubAckException;
+import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5UnsubAckException;
 import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
 import com.hivemq.client.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
@@ -43,8 +52,13 @@ import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishBuilder;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
 import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.Mqtt5UnsubscribeBuilder;
 import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode;
 import org.jetbrains.annotations.NotNull;
 import org.tinylog.Logger;
 
@@ -52,6 +66,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Singleton
 public class MqttClientExecutor extends AbstractMqttClientExecutor {
@@ -86,13 +103,16 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
         Logger.debug("{} received CONNACK {} ", clientLogPrefix, connAck);
     }
 
-    void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos) {
+    void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
-        final Mqtt5SubscribeBuilder.Start.Complete builder = Mqtt5Subscribe.builder()
-                .topicFilter(topic)
-                .qos(qos);
+        // all topic filters of the command are sent in a single SUBSCRIBE
+        Mqtt5SubscribeBuilder.Complete builder = Mqtt5Subscribe.builder()
+                .addSubscription(Mqtt5Subscription.builder().topicFilter(topics[0]).qos(qos[0]).build());
+        for (int i = 1; i < topics.length; i++) {
+            builder = builder.addSubscription(Mqtt5Subscription.builder().topicFilter(topics[i]).qos(qos[i]).build());
+        }
 
         if (subscribe.getUserProperties() != null) {
             builder.userProperties(subscribe.getUserProperties());
@@ -103,64 +123,122 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
         Logger.debug("{} sending SUBSCRIBE {}", clientLogPrefix, subscribeMessage);
 
+        final long subscribeStart = System.nanoTime();
+
         client.toAsync()
                 .subscribe(subscribeMessage, new SubscribeMqtt5PublishCallback(subscribe, client))
                 .whenComplete((subAck, throwable) -> {
 
                     if (throwable != null) {
-                        Logger.error(throwable,"{} failed SUBSCRIBE to TOPIC '{}': {}",
-                                clientLogPrefix,
-                                topic,
-                                Throwables.getRootCause(throwable).getMessage());
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt5SubAckException) {
+                            // the SUBACK contained only error codes
+                            handleMqtt5SubAck(client, topics, qos, ((Mqtt5SubAckException) cause).getMqttMessage(), subscribeStart);
+                        }
+                        else {
+                            Logger.error(throwable,"{} failed SUBSCRIBE to TOPICS {}: {}",
+                                    clientLogPrefix,
+                                    Arrays.toString(topics),
+                                    cause.getMessage());
+                        }
                     } else {
-
-                        final String clientKey = MqttUtils.buildKey(
-                                client.getConfig().getClientIdentifier().get().toString(),
-                                client.getConfig().getServerHost());
-
-                        getClientDataMap().get(clientKey).addSubscription(MqttTopicFilter.of(topic));
-
-                        Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+                        handleMqtt5SubAck(client, topics, qos, subAck, subscribeStart);
                     }
                 })
         .join();
 
     }
 
-    void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos) {
+    private void handleMqtt5SubAck(
+            final @NotNull Mqtt5Client client,
+            final @NotNull String[] topics,
+            final @NotNull MqttQos[] qos,
+            final @NotNull Mqtt5SubAck subAck,
+            final long subscribeStart) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final ClientKey clientKey = ClientKey.of(client.getConfig());
+        final List<Mqtt5SubAckReasonCode> reasonCodes = subAck.getReasonCodes();
+
+        Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+
+        for (int i = 0; i < topics.length && i < reasonCodes.size(); i++) {
+            final Mqtt5SubAckReasonCode reasonCode = reasonCodes.get(i);
+            if (reasonCode.isError()) {
+                Logger.error("{} failed SUBSCRIBE to TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            }
+            else {
+                getClientRegistry().addSubscription(clientKey, MqttTopicFilter.of(topics[i]));
+                MqttFlightRecorder.subscribed(client.getConfig(), topics[i], qos[i], System.nanoTime() - subscribeStart);
+                Logger.debug("{} subscribed to TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            }
+        }
+    }
 
-        final Mqtt3SubscribeBuilder.Start.Complete builder = Mqtt3Subscribe.builder()
-                .topicFilter(topic)
-                .qos(qos);
+    void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos) {
+
+        final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+
+        Mqtt3SubscribeBuilder.Complete builder = Mqtt3Subscribe.builder()
+                .addSubscription(Mqtt3Subscription.builder().topicFilter(topics[0]).qos(qos[0]).build());
+        for (int i = 1; i < topics.length; i++) {
+            builder = builder.addSubscription(Mqtt3Subscription.builder().topicFilter(topics[i]).qos(qos[i]).build());
+        }
 
 
         final Mqtt3Subscribe subscribeMessage = builder.build();
 
         Logger.debug("{} sending SUBSCRIBE {}", clientLogPrefix, subscribeMessage);
 
+        final long subscribeStart = System.nanoTime();
+
         client.toAsync()
                 .subscribe(subscribeMessage, new SubscribeMqtt3PublishCallback(subscribe, client))
                 .whenComplete((subAck, throwable) -> {
                     if (throwable != null) {
-                        Logger.error(throwable, "{} failed SUBSCRIBE to TOPIC '{}': {}",
-                                clientLogPrefix,
-                                topic,
-                                Throwables.getRootCause(throwable).getMessage());
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt3SubAckException) {
+                            handleMqtt3SubAck(client, topics, qos, ((Mqtt3SubAckException) cause).getMqttMessage(), subscribeStart);
+                        }
+                        else {
+                            Logger.error(throwable, "{} failed SUBSCRIBE to TOPICS {}: {}",
+                                    clientLogPrefix,
+                                    Arrays.toString(topics),
+                                    cause.getMessage());
+                        }
                     } else {
-
-                        final String clientKey = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(),
-                                client.getConfig().getServerHost());
-
-                        getClientDataMap().get(clientKey).addSubscription(MqttTopicFilter.of(topic));
-
-                        Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+                        handleMqtt3SubAck(client, topics, qos, subAck, subscribeStart);
                     }
                 })
         .join();
     }
 
+    private void handleMqtt3SubAck(
+            final @NotNull Mqtt3Client client,
+            final @NotNull String[] topics,
+            final @NotNull MqttQos[] qos,
+            final @NotNull Mqtt3SubAck subAck,
+            final long subscribeStart) {
+
+        final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final ClientKey clientKey = ClientKey.of(client.getConfig());
+        final List<Mqtt3SubAckReturnCode> returnCodes = subAck.getReturnCodes();
+
+        Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+
+        for (int i = 0; i < topics.length && i < returnCodes.size(); i++) {
+            final Mqtt3SubAckReturnCode returnCode = returnCodes.get(i);
+            if (returnCode.isError()) {
+                Logger.error("{} failed SUBSCRIBE to TOPIC '{}': {}", clientLogPrefix, topics[i], returnCode);
+            }
+            else {
+                getClientRegistry().addSubscription(clientKey, MqttTopicFilter.of(topics[i]));
+                MqttFlightRecorder.subscribed(client.getConfig(), topics[i], qos[i], System.nanoTime() - subscribeStart);
+                Logger.debug("{} subscribed to TOPIC '{}': {}", clientLogPrefix, topics[i], returnCode);
+            }
+        }
+    }
+
     void mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
@@ -190,16 +268,38 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
                 bufferToString(publish.getMessage()),
                 publishMessage);
 
+        final ClientMetrics metrics = MetricsRegistry.forClient(client.getConfig());
+        final int payloadSize = publishMessage.getPayload().map(ByteBuffer::remaining).orElse(0);
+        final long sendTime = System.nanoTime();
+
+        MqttFlightRecorder.publishSent(client.getConfig(), topic, qos, payloadSize);
+
         client.toAsync()
             .publish(publishMessage)
             .whenComplete((publishResult, throwable) -> {
                 if (throwable != null) {
+                    metrics.publishFailed();
                     Logger.error(throwable,"{} failed PUBLISH to TOPIC '{}': {}",
                             clientLogPrefix,
                             topic,
                             Throwables.getRootCause(throwable).getMessage());
                 }
+                else if (publishResult.getError().isPresent()) {
+                    metrics.publishFailed();
+                    Logger.debug("{} received PUBLISH acknowledgement {}",
+                            clientLogPrefix,
+                            publishResult);
+                }
                 else {
+                // a QoS 0 publish completes once it is written, there is no acknowledgement to measure
+                if (qos == MqttQos.AT_MOST_ONCE) {
+                    metrics.published(payloadSize);
+                }
+                else {
+                    final long ackLatency = System.nanoTime() - sendTime;
+                    metrics.published(payloadSize, ackLatency);
+                    MqttFlightRecorder.publishAcked(client.getConfig(), topic, qos, payloadSize, ackLatency);
+                }
                 Logger.debug("{} received PUBLISH acknowledgement {}",
                         clientLogPrefix,
                         publishResult);
@@ -226,16 +326,34 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
         Logger.debug("{} sending PUBLISH ('{}') {}", clientLogPrefix, bufferToString(publish.getMessage()), publishMessage);
 
+        final ClientMetrics metrics = MetricsRegistry.forClient(client.getConfig());
+        final int payloadSize = publishMessage.getPayload().map(ByteBuffer::remaining).orElse(0);
+        final long sendTime = System.nanoTime();
+
+        MqttFlightRecorder.publishSent(client.getConfig(), topic, qos, payloadSize);
+
         client.toAsync().publish(publishMessage)
                 .whenComplete((publishResult, throwable) -> {
                     if (throwable != null) {
 
+                        metrics.publishFailed();
+
                         Logger.error(throwable, "{} failed PUBLISH to TOPIC '{}': {}",
                                 clientLogPrefix,
                                 topic,
                                 Throwables.getRootCause(throwable).getMessage());
                     } else {
 
+                        // a QoS 0 publish completes once it is written, there is no acknowledgement to measure
+                        if (qos == MqttQos.AT_MOST_ONCE) {
+                            metrics.published(payloadSize);
+                        }
+                        else {
+                            final long ackLatency = System.nanoTime() - sendTime;
+                            metrics.published(payloadSize, ackLatency);
+                            MqttFlightRecorder.publishAcked(client.getConfig(), topic, qos, payloadSize, ackLatency);
+                        }
+
                         Logger.debug("{} received PUBLISH acknowledgement {}",
                                 clientLogPrefix,
                                 publishResult);
@@ -247,74 +365,103 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
     @Override
     void mqtt5Unsubscribe(@NotNull final Mqtt5Client client, @NotNull final Unsubscribe unsubscribe) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final String[] topics = unsubscribe.getTopics();
 
-        for (String topic : unsubscribe.getTopics()) {
-
-            final Mqtt5Unsubscribe unsubscribeMessage = Mqtt5Unsubscribe.builder()
-                    .topicFilter(topic)
-                    .build();
+        Mqtt5UnsubscribeBuilder.Complete builder = Mqtt5Unsubscribe.builder().addTopicFilter(topics[0]);
+        for (int i = 1; i < topics.length; i++) {
+            builder = builder.addTopicFilter(topics[i]);
+        }
 
-            Logger.debug("{} sending UNSUBSCRIBE {}",
-                        clientLogPrefix,
-                        unsubscribeMessage);
+        final Mqtt5Unsubscribe unsubscribeMessage = builder.build();
 
-            client.toAsync()
-                    .unsubscribe(unsubscribeMessage)
-                    .whenComplete((Mqtt5UnsubAck unsubAck, Throwable throwable) -> {
+        Logger.debug("{} sending UNSUBSCRIBE {}",
+                clientLogPrefix,
+                unsubscribeMessage);
 
-                        if (throwable != null) {
+        client.toAsync()
+                .unsubscribe(unsubscribeMessage)
+                .whenComplete((Mqtt5UnsubAck unsubAck, Throwable throwable) -> {
 
-                            Logger.error(throwable,"{} failed UNSUBSCRIBE from TOPIC '{}': {}",
+                    if (throwable != null) {
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt5UnsubAckException) {
+                            // the UNSUBACK contained only error codes
+                            handleMqtt5UnsubAck(client, unsubscribe, ((Mqtt5UnsubAckException) cause).getMqttMessage());
+                        }
+                        else {
+                            Logger.error(throwable,"{} failed UNSUBSCRIBE from TOPICS {}: {}",
                                     clientLogPrefix,
-                                    topic,
-                                    Throwables.getRootCause(throwable).getMessage());
-                        } else {
+                                    Arrays.toString(topics),
+                                    cause.getMessage());
+                        }
+                    } else {
+                        handleMqtt5UnsubAck(client, unsubscribe, unsubAck);
+                    }
+                })
+        .join();
+    }
 
-                            getClientDataMap().get(unsubscribe.getKey()).removeSubscription(MqttTopicFilter.of(topic));
+    private void handleMqtt5UnsubAck(
+            final @NotNull Mqtt5Client client, final @NotNull Unsubscribe unsubscribe, final @NotNull Mqtt5UnsubAck unsubAck) {
 
-                            Logger.debug("{} received UNSUBACK {}",
-                                    clientLogPrefix,
-                                    unsubAck);
-                        }
-                    })
-            .join();
+        final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final String[] topics = unsubscribe.getTopics();
+        final List<Mqtt5UnsubAckReasonCode> reasonCodes = unsubAck.getReasonCodes();
+
+        Logger.debug("{} received UNSUBACK {}",
+                clientLogPrefix,
+                unsubAck);
+
+        for (int i = 0; i < topics.length && i < reasonCodes.size(); i++) {
+            final Mqtt5UnsubAckReasonCode reasonCode = reasonCodes.get(i);
+            if (reasonCode.isError()) {
+                Logger.error("{} failed UNSUBSCRIBE from TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            }
+            else {
+                getClientRegistry().removeSubscription(unsubscribe.getKey(), MqttTopicFilter.of(topics[i]));
+                Logger.debug("{} unsubscribed from TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            }
         }
     }
 
     @Override
     void mqtt3Unsubscribe(@NotNull final Mqtt3Client client, @NotNull final Unsubscribe unsubscribe) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final String[] topics = unsubscribe.getTopics();
 
-        for (String topic : unsubscribe.getTopics()) {
+        Mqtt3UnsubscribeBuilder.Complete builder = Mqtt3Unsubscribe.builder().addTopicFilter(topics[0]);
+        for (int i = 1; i < topics.length; i++) {
+            builder = builder.addTopicFilter(topics[i]);
+        }
 
-            final Mqtt3Unsubscribe unsubscribeMessage = Mqtt3Unsubscribe.builder()
-                    .topicFilter(topic)
-                    .build();
+        final Mqtt3Unsubscribe unsubscribeMessage = builder.build();
 
-                Logger.debug("{} Sending UNSUBSCRIBE {}",
-                        clientLogPrefix,
-                        unsubscribeMessage);
+        Logger.debug("{} Sending UNSUBSCRIBE {}",
+                clientLogPrefix,
+                unsubscribeMessage);
 
-                client.toAsync()
-                    .unsubscribe(unsubscribeMessage)
-                    .whenComplete((Void unsubAck, Throwable throwable) -> {
+        client.toAsync()
+                .unsubscribe(unsubscribeMessage)
+                .whenComplete((Void unsubAck, Throwable throwable) -> {
 
-                        if (throwable != null) {
-                            Logger.error(throwable, "{} failed UNSUBSCRIBE from TOPIC '{}': {}",
-                                    clientLogPrefix,
-                                    topic,
-                                    Throwables.getRootCause(throwable).getMessage());
-                        } else {
-                            getClientDataMap().get(unsubscribe.getKey()).removeSubscription(MqttTopicFilter.of(topic));
-                            Logger.debug("{} received UNSUBACK", clientLogPrefix );
+                    if (throwable != null) {
+                        Logger.error(throwable, "{} failed UNSUBSCRIBE from TOPICS {}: {}",
+                                clientLogPrefix,
+                                Arrays.toString(topics),
+                                Throwables.getRootCause(throwable).getMessage());
+                    } else {
+                        // an MQTT 3 UNSUBACK has no return codes, all topic filters were unsubscribed
+                        for (final String topic : topics) {
+                            getClientRegistry().removeSubscription(unsubscribe.getKey(), MqttTopicFilter.of(topic));
                         }
-                    })
-            .join();
-        }
+                        Logger.debug("{} received UNSUBACK", clientLogPrefix );
+                    }
+                })
+        .join();
     }
 
     @Override
-    void mqtt5Disconnect(@NotNull final Mqtt5Client client, @NotNull final Disconnect disconnect) {
+    @NotNull CompletableFuture<Void> mqtt5Disconnect(@NotNull final Mqtt5Client client, @NotNull final Disconnect disconnect) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
 
@@ -336,16 +483,16 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
         Logger.debug("{} sending DISCONNECT {}", clientLogPrefix, disconnectMessage);
 
-        client.toBlocking().disconnect(disconnectMessage);
+        return client.toAsync().disconnect(disconnectMessage);
     }
 
 
     @Override
-    void mqtt3Disconnect(@NotNull final Mqtt3Client client, @NotNull final Disconnect disconnect) {
+    @NotNull CompletableFuture<Void> mqtt3Disconnect(@NotNull final Mqtt3Client client, @NotNull final Disconnect disconnect) {
 
         Logger.debug("{} Sending DISCONNECT", LoggerUtils.getClientPrefix(client.getConfig()));
 
-        client.toBlocking().disconnect();
+        return client.toAsync().disconnect();
     }
 
     private @NotNull String bufferToString(ByteBuffer b) {
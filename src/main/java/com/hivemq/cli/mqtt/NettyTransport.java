@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
+import com.hivemq.client.mqtt.MqttClientExecutorConfigBuilder;
+import io.netty.channel.epoll.Epoll;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.ThreadPerTaskExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures the Netty event loops and the transport used by the clients.
+ * <p>
+ * The clients share one event loop per Netty executor. Clients without an own executor use the process wide event
+ * loop, whose thread count is set by the first client using it. The transport (epoll or NIO) is chosen once for the
+ * whole process when the first client is created.
+ */
+public class NettyTransport {
+
+    private static final String NO_NATIVE_PROPERTY = "io.netty.transport.noNative";
+
+    private static final @NotNull AtomicInteger EVENT_LOOP_COUNT = new AtomicInteger();
+
+    private NettyTransport() {
+    }
+
+    /**
+     * @param nettyThreads    the amount of Netty threads or null for the default (twice the amount of processors)
+     * @param sharedEventLoop whether the client uses the process wide event loop or one of its own
+     * @return the executor config or null if the library defaults apply
+     */
+    public static @Nullable MqttClientExecutorConfig buildExecutorConfig(
+            final @Nullable Integer nettyThreads,
+            final boolean sharedEventLoop) {
+
+        if (nettyThreads == null && sharedEventLoop) {
+            return null;
+        }
+        if (nettyThreads != null && nettyThreads < 1) {
+            throw new IllegalArgumentException("The amount of Netty threads has to be at least 1");
+        }
+
+        final MqttClientExecutorConfigBuilder builder = MqttClientExecutorConfig.builder();
+        if (nettyThreads != null) {
+            builder.nettyThreads(nettyThreads);
+        }
+        if (!sharedEventLoop) {
+            // the event loops are looked up by their executor, so a new executor creates a new event loop
+            final String poolName = "mqtt-cli-event-loop-" + EVENT_LOOP_COUNT.incrementAndGet();
+            builder.nettyExecutor(new ThreadPerTaskExecutor(new DefaultThreadFactory(poolName)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Disables the native epoll transport if requested. Has to be called before the first client is created.
+     *
+     * @param epoll whether epoll shall be used if it is available on this platform
+     */
+    public static void useEpoll(final boolean epoll) {
+        if (!epoll) {
+            System.setProperty(NO_NATIVE_PROPERTY, "true");
+        }
+
+        if (Epoll.isAvailable()) {
+            if (!epoll) {
+                Logger.warn("The epoll transport is already in use and can not be disabled anymore");
+            }
+        }
+        else if (epoll) {
+            Logger.debug("The epoll transport is not available, using NIO ({})", Epoll.unavailabilityCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
+import com.hivemq.cli.utils.LoggerUtils;
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
+import com.hivemq.client.mqtt.lifecycle.MqttClientConnectedContext;
+import com.hivemq.client.mqtt.lifecycle.MqttClientConnectedListener;
+import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedContext;
+import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedListener;
+import com.hivemq.client.mqtt.lifecycle.MqttDisconnectSource;
+import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
+import com.hivemq.client.mqtt.mqtt3.lifecycle.Mqtt3ClientConnectedContext;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscription;
+import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.lifecycle.Mqtt5ClientConnectedContext;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconnects a client after it lost its connection following the {@link ReconnectPolicy}, resubscribes the topics
+ * of its {@link ClientData} if the broker did not keep the session and reports how long the client was disconnected.
+ * <p>
+ * Has to be added before the {@link ContextClientDisconnectListener} which only forgets a client if no reconnect
+ * follows.
+ */
+public class ReconnectHandler implements MqttClientDisconnectedListener, MqttClientConnectedListener {
+
+    private final @NotNull ReconnectPolicy reconnectPolicy;
+    private final @Nullable Subscribe subscribe;
+
+    // both listeners are called from the same client thread
+    private boolean connectedOnce;
+    private long disconnectedAt = -1;
+
+    public ReconnectHandler(final @NotNull ReconnectPolicy reconnectPolicy, final @Nullable Subscribe subscribe) {
+        this.reconnectPolicy = reconnectPolicy;
+        this.subscribe = subscribe;
+    }
+
+    @Override
+    public void onDisconnected(final @NotNull MqttClientDisconnectedContext context) {
+        // a failing first connect is reported to the user instead of being retried
+        if (context.getSource() == MqttDisconnectSource.USER || !connectedOnce) {
+            return;
+        }
+
+        if (disconnectedAt == -1) {
+            disconnectedAt = System.nanoTime();
+        }
+
+        final int attempts = context.getReconnector().getAttempts();
+        final long delay = reconnectPolicy.getDelayMillis(attempts);
+
+        Logger.warn("{} lost connection ({}), reconnect attempt {} in {} ms",
+                LoggerUtils.getClientPrefix(context.getClientConfig()),
+                Throwables.getRootCause(context.getCause()).getMessage(),
+                attempts + 1,
+                delay);
+
+        context.getReconnector().reconnect(true).delay(delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onConnected(final @NotNull MqttClientConnectedContext context) {
+        connectedOnce = true;
+        if (disconnectedAt == -1) {
+            return;
+        }
+
+        final long downtime = System.nanoTime() - disconnectedAt;
+        disconnectedAt = -1;
+
+        final ClientKey key = ClientKey.of(context.getClientConfig());
+        final boolean sessionPresent = isSessionPresent(context);
+
+        MetricsRegistry.forClient(key).reconnected(downtime);
+
+        Logger.info("{} reconnected after {} ms, session present: {}",
+                LoggerUtils.getClientPrefix(context.getClientConfig()),
+                TimeUnit.NANOSECONDS.toMillis(downtime),
+                sessionPresent);
+
+        if (!sessionPresent) {
+            final ClientData clientData = MqttClientExecutor.getClientRegistry().get(key);
+            if (clientData != null && !clientData.getSubscribedTopics().isEmpty()) {
+                resubscribe(clientData);
+            }
+        }
+    }
+
+    private static boolean isSessionPresent(final @NotNull MqttClientConnectedContext context) {
+        if (context instanceof Mqtt5ClientConnectedContext) {
+            return ((Mqtt5ClientConnectedContext) context).getConnAck().isSessionPresent();
+        }
+        if (context instanceof Mqtt3ClientConnectedContext) {
+            return ((Mqtt3ClientConnectedContext) context).getConnAck().isSessionPresent();
+        }
+        return false;
+    }
+
+    // the publishes of the new subscriptions arrive at the remaining publishes callback of the client
+    private void resubscribe(final @NotNull ClientData clientData) {
+        final String clientLogPrefix = LoggerUtils.getClientPrefix(clientData.getClient().getConfig());
+        final List<MqttTopicFilter> topicFilters = new ArrayList<>(clientData.getSubscribedTopics());
+
+        Logger.info("{} resubscribing to TOPICS {}", clientLogPrefix, topicFilters);
+
+        final MqttClient client = clientData.getClient();
+        if (client instanceof Mqtt5Client) {
+            Mqtt5SubscribeBuilder.Complete builder = null;
+            for (final MqttTopicFilter topicFilter : topicFilters) {
+                final Mqtt5Subscription subscription = Mqtt5Subscription.builder()
+                        .topicFilter(topicFilter)
+                        .qos(getQos(topicFilter))
+                        .build();
+                builder = builder == null ? Mqtt5Subscribe.builder().addSubscription(subscription) : builder.addSubscription(subscription);
+            }
+            ((Mqtt5Client) client).toAsync().subscribe(builder.build())
+                    .whenComplete((subAck, throwable) -> logResubscribe(clientLogPrefix, topicFilters, throwable));
+        }
+        else if (client instanceof Mqtt3Client) {
+            Mqtt3SubscribeBuilder.Complete builder = null;
+            for (final MqttTopicFilter topicFilter : topicFilters) {
+                final Mqtt3Subscription subscription = Mqtt3Subscription.builder()
+                        .topicFilter(topicFilter)
+                        .qos(getQos(topicFilter))
+                        .build();
+                builder = builder == null ? Mqtt3Subscribe.builder().addSubscription(subscription) : builder.addSubscription(subscription);
+            }
+            ((Mqtt3Client) client).toAsync().subscribe(builder.build())
+                    .whenComplete((subAck, throwable) -> logResubscribe(clientLogPrefix, topicFilters, throwable));
+        }
+    }
+
+    private static void logResubscribe(
+            final @NotNull String clientLogPrefix,
+            final @NotNull List<MqttTopicFilter> topicFilters,
+            final @Nullable Throwable throwable) {
+
+        if (throwable != null) {
+            Logger.error(throwable, "{} failed to resubscribe to TOPICS {}: {}",
+                    clientLogPrefix,
+                    topicFilters,
+                    Throwables.getRootCause(throwable).getMessage());
+        }
+        else {
+            Logger.info("{} resubscribed to TOPICS {}", clientLogPrefix, topicFilters);
+        }
+    }
+
+    // the QoS the topic filter was subscribed with by the command, the last given QoS applies to the remaining topics
+    @NotNull MqttQos getQos(final @NotNull MqttTopicFilter topicFilter) {
+        if (subscribe == null || subscribe.getQos().length == 0) {
+            return MqttQos.EXACTLY_ONCE;
+        }
+        final String[] topics = subscribe.getTopics();
+        final MqttQos[] qos = subscribe.getQos();
+        for (int i = 0; i < topics.length; i++) {
+            if (topics[i].equals(topicFilter.toString())) {
+                return qos[Math.min(i, qos.length - 1)];
+            }
+        }
+        return qos[qos.length - 1];
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter between the attempts to reconnect a lost connection.
+ * <p>
+ * The backoff of an attempt doubles from the initial delay up to the maximum delay. The actual delay is at least half
+ * of the backoff and a random amount up to the full backoff, so clients which lost the connection to the same broker
+ * at the same time do not all reconnect at once.
+ */
+public class ReconnectPolicy {
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+
+    public ReconnectPolicy(final long initialDelayMillis, final long maxDelayMillis) {
+        if (initialDelayMillis <= 0) {
+            throw new IllegalArgumentException("The initial reconnect delay has to be greater than 0");
+        }
+        if (maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("The maximum reconnect delay must not be smaller than the initial delay");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * @param attempt the number of failed reconnect attempts since the connection was lost
+     * @return the delay in milliseconds before the next attempt
+     */
+    public long getDelayMillis(final int attempt) {
+        return getDelayMillis(attempt, ThreadLocalRandom.current());
+    }
+
+    long getDelayMillis(final int attempt, final @NotNull Random random) {
+        final long backoff = getBackoffMillis(attempt);
+        final long half = backoff / 2;
+        return half + (long) (random.nextDouble() * (backoff - half + 1));
+    }
+
+    long getBackoffMillis(final int attempt) {
+        if (attempt >= Long.SIZE - 1 || initialDelayMillis > (maxDelayMillis >> attempt)) {
+            return maxDelayMillis;
+        }
+        return Math.min(initialDelayMillis << attempt, maxDelayMillis);
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ReconnectPolicy{" +
+                "initialDelay=" + initialDelayMillis +
+                ", maxDelay=" + maxDelayMillis +
+                '}';
+    }
+}
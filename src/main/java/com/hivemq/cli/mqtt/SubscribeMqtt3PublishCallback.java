@@ -17,6 +17,13 @@
 package com.hivemq.cli.mqtt;
 
 import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.mqtt.aggregation.PayloadAggregator;
+import com.hivemq.cli.mqtt.filter.DeduplicationCache;
+import com.hivemq.cli.mqtt.filter.PublishFilter;
+import com.hivemq.cli.mqtt.jfr.MqttFlightRecorder;
+import com.hivemq.cli.mqtt.metrics.ClientMetrics;
+import com.hivemq.cli.mqtt.metrics.MetricsRegistry;
+import com.hivemq.cli.mqtt.output.PublishOutput;
 import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttPublishUtils;
 import com.hivemq.cli.utils.json.JsonMqttPublish;
@@ -27,30 +34,64 @@ import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class SubscribeMqtt3PublishCallback implements Consumer<Mqtt3Publish> {
 
     private final @Nullable File publishFile;
+    private final @Nullable PayloadAggregator payloadAggregator;
+    private final @Nullable PublishFilter publishFilter;
+    private final @Nullable DeduplicationCache deduplicationCache;
+    private final @NotNull List<PublishOutput> publishOutputs;
     private final @NotNull Mqtt3Client client;
+    private final @NotNull ClientMetrics metrics;
     private final boolean printToStdout;
     private final boolean isBase64;
     private final boolean isJsonOutput;
     private final boolean showTopics;
 
+    private static final ByteBuffer EMPTY_PAYLOAD = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
     SubscribeMqtt3PublishCallback(final @NotNull Subscribe subscribe, final @NotNull Mqtt3Client client) {
         printToStdout = subscribe.isPrintToSTDOUT();
         publishFile = subscribe.getPublishFile();
         isBase64 = subscribe.isBase64();
         isJsonOutput = subscribe.isJsonOutput();
         showTopics = subscribe.showTopics();
+        payloadAggregator = subscribe.getPayloadAggregator();
+        publishFilter = subscribe.getPublishFilter();
+        deduplicationCache = subscribe.getDeduplicationCache();
+        publishOutputs = subscribe.getPublishOutputs();
+        metrics = MetricsRegistry.forClient(client.getConfig());
         this.client = client;
     }
 
     @Override
     public void accept(final @NotNull Mqtt3Publish mqtt3Publish) {
 
+        final int payloadSize = mqtt3Publish.getPayload().map(ByteBuffer::remaining).orElse(0);
+        metrics.received(payloadSize);
+        MqttFlightRecorder.messageReceived(client.getConfig(), mqtt3Publish.getTopic(), mqtt3Publish.getQos(), payloadSize);
+
+        if (publishFilter != null && !publishFilter.accept(mqtt3Publish)) {
+            metrics.filtered();
+            return;
+        }
+
+        if (deduplicationCache != null && deduplicationCache.isDuplicate(mqtt3Publish)) {
+            metrics.duplicate();
+            Logger.debug("{} dropped duplicate PUBLISH {}", LoggerUtils.getClientPrefix(client.getConfig()), mqtt3Publish);
+            return;
+        }
+
+        if (payloadAggregator != null) {
+            payloadAggregator.add(mqtt3Publish.getTopic().toString(), mqtt3Publish.getPayload().orElse(EMPTY_PAYLOAD));
+            return;
+        }
+
         String message;
 
         if (isJsonOutput) { message = new JsonMqttPublish(mqtt3Publish, isBase64).toString(); }
@@ -59,6 +100,7 @@ public class SubscribeMqtt3PublishCallback implements Consumer<Mqtt3Publish> {
         if (showTopics) { message = mqtt3Publish.getTopic().toString() + ": " + message; }
 
         if (publishFile != null) { MqttPublishUtils.printToFile(publishFile, message); }
+        for (final PublishOutput publishOutput : publishOutputs) { publishOutput.write(mqtt3Publish.getTopic().toString(), message); }
         if (printToStdout) { System.out.println(message); }
 
         Logger.debug("{} received PUBLISH ('{}') {}",
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.aggregation;
+
+import com.hivemq.cli.utils.json.JsonFormatted;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+public class AggregationSummary extends JsonFormatted {
+
+    private final @NotNull String topic;
+    private final long count;
+    private final long skipped;
+    private final @Nullable Double min;
+    private final @Nullable Double max;
+    private final @Nullable Double mean;
+    private final @Nullable Double p50;
+    private final @Nullable Double p90;
+    private final @Nullable Double p99;
+
+    AggregationSummary(final @NotNull String topic,
+                       final long count,
+                       final long skipped,
+                       final double min,
+                       final double max,
+                       final double mean,
+                       final double p50,
+                       final double p90,
+                       final double p99) {
+        this.topic = topic;
+        this.count = count;
+        this.skipped = skipped;
+        this.min = valueOrNull(min);
+        this.max = valueOrNull(max);
+        this.mean = valueOrNull(mean);
+        this.p50 = valueOrNull(p50);
+        this.p90 = valueOrNull(p90);
+        this.p99 = valueOrNull(p99);
+    }
+
+    public @NotNull String toLine() {
+        return String.format(Locale.ROOT,
+                "%s: count=%d min=%s max=%s mean=%s p50=%s p90=%s p99=%s%s",
+                topic, count, format(min), format(max), format(mean), format(p50), format(p90), format(p99),
+                skipped > 0 ? " skipped=" + skipped : "");
+    }
+
+    // NaN is not valid JSON, missing statistics are left out instead
+    private static @Nullable Double valueOrNull(final double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static @NotNull String format(final @Nullable Double value) {
+        if (value == null) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.4f", value).replaceAll("\\.?0+$", "");
+    }
+
+    public @NotNull String getTopic() {
+        return topic;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public @Nullable Double getMin() {
+        return min;
+    }
+
+    public @Nullable Double getMax() {
+        return max;
+    }
+
+    public @Nullable Double getMean() {
+        return mean;
+    }
+
+    public @Nullable Double getP50() {
+        return p50;
+    }
+
+    public @Nullable Double getP90() {
+        return p90;
+    }
+
+    public @Nullable Double getP99() {
+        return p99;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.aggregation;
+
+import com.hivemq.cli.utils.MqttPublishUtils;
+import com.hivemq.cli.utils.json.JsonFieldExtractor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates a numeric JSON field of the received publishes per topic and emits a summary of every topic at the end
+ * of each time window. Topics which received nothing during a whole window are forgotten until their next publish.
+ */
+public class PayloadAggregator {
+
+    private final @NotNull JsonFieldExtractor extractor;
+    private final long windowSeconds;
+    private final boolean printToStdout;
+    private final @Nullable File publishFile;
+    private final boolean isJsonOutput;
+
+    private final @NotNull Map<String, TopicWindow> windows = new ConcurrentHashMap<>();
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "aggregation-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PayloadAggregator(final @NotNull JsonFieldExtractor extractor,
+                             final long windowSeconds,
+                             final boolean printToStdout,
+                             final @Nullable File publishFile,
+                             final boolean isJsonOutput) {
+        this.extractor = extractor;
+        this.windowSeconds = windowSeconds;
+        this.printToStdout = printToStdout;
+        this.publishFile = publishFile;
+        this.isJsonOutput = isJsonOutput;
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::flush, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+        // emit the last partial window when the subscription is terminated with ctrl+c
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    public void add(final @NotNull String topic, final @NotNull ByteBuffer payload) {
+        final double value = extractor.extract(payload);
+        // added while the entry is locked, so a concurrent flush can not evict the window in between
+        windows.compute(topic, (t, window) -> {
+            final TopicWindow topicWindow = window == null ? new TopicWindow() : window;
+            topicWindow.add(value);
+            return topicWindow;
+        });
+    }
+
+    public synchronized void stop() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    synchronized void flush() {
+        // sort the topics so the output of consecutive windows lines up
+        final Set<String> topics = new TreeSet<>(windows.keySet());
+        for (final String topic : topics) {
+            final AggregationSummary[] drained = new AggregationSummary[1];
+            // an idle window is removed, it is created again with the next publish to the topic
+            windows.computeIfPresent(topic, (t, window) -> {
+                drained[0] = window.drain(t);
+                return drained[0] == null ? null : window;
+            });
+            final AggregationSummary summary = drained[0];
+            if (summary == null) {
+                continue;
+            }
+            final String message = isJsonOutput ? summary.toString() : summary.toLine();
+            if (publishFile != null) { MqttPublishUtils.printToFile(publishFile, message); }
+            if (printToStdout) { System.out.println(message); }
+            Logger.debug("Aggregated {} values of '{}' on topic '{}'", summary.getCount(), extractor, topic);
+        }
+    }
+
+    int getTopicCount() {
+        return windows.size();
+    }
+
+}
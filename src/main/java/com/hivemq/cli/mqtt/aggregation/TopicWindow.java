@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.aggregation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Numeric statistics of a single topic for the current aggregation window.
+ * <p>
+ * Count, min, max and mean are exact. Percentiles are computed from a fixed size reservoir sample so the memory of a
+ * window stays bounded regardless of the message rate. The sample buffer grows with the values received, so topics
+ * with few messages stay small.
+ */
+class TopicWindow {
+
+    static final int MAX_SAMPLES = 10_000;
+    private static final int INITIAL_SAMPLES = 16;
+
+    private @NotNull double[] samples = new double[INITIAL_SAMPLES];
+    private long count;
+    private long skipped;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+
+    synchronized void add(final double value) {
+        if (Double.isNaN(value)) {
+            skipped++;
+            return;
+        }
+        if (count < MAX_SAMPLES) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, Math.min(samples.length * 2, MAX_SAMPLES));
+            }
+            samples[(int) count] = value;
+        }
+        else {
+            final long index = ThreadLocalRandom.current().nextLong(count + 1);
+            if (index < MAX_SAMPLES) {
+                samples[(int) index] = value;
+            }
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    /**
+     * Returns the statistics of the current window and starts a new one.
+     *
+     * @return the summary or null if nothing was received during the window
+     */
+    synchronized @Nullable AggregationSummary drain(final @NotNull String topic) {
+        if (count == 0 && skipped == 0) {
+            return null;
+        }
+
+        final AggregationSummary summary;
+        if (count == 0) {
+            summary = new AggregationSummary(topic, 0, skipped, Double.NaN, Double.NaN, Double.NaN,
+                    Double.NaN, Double.NaN, Double.NaN);
+        }
+        else {
+            final double[] sorted = Arrays.copyOf(samples, (int) Math.min(count, MAX_SAMPLES));
+            Arrays.sort(sorted);
+            summary = new AggregationSummary(topic, count, skipped, min, max, sum / count,
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99));
+        }
+
+        count = 0;
+        skipped = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        sum = 0;
+        return summary;
+    }
+
+    // nearest-rank percentile
+    static double percentile(final @NotNull double[] sorted, final int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.filter;
+
+import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Remembers the fingerprints of the most recently received publishes to drop repeated deliveries of the same message,
+ * e.g. caused by overlapping subscriptions or a resumed session.
+ * <p>
+ * A fingerprint is a 64 bit hash over the topic, the payload and the MQTT 5 correlation data. All entries are kept in
+ * arrays allocated up front, so the memory used by the cache does not grow after construction. When the cache is full
+ * the least recently seen fingerprint is evicted.
+ * <p>
+ * A fingerprint only counts as a duplicate within the window after it was first seen, so a publisher which
+ * legitimately repeats the same message, e.g. a sensor reporting an unchanged value, is not suppressed for good.
+ */
+public class DeduplicationCache {
+
+    private static final int NONE = -1;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int capacity;
+    private final long windowNanos;
+    private final @NotNull long[] fingerprints;
+    // System.nanoTime() at which each fingerprint was first seen within its window
+    private final @NotNull long[] seenAt;
+    // doubly linked recency list over the slots, head is the most recently seen fingerprint
+    private final @NotNull int[] previous;
+    private final @NotNull int[] next;
+    // hash buckets with chaining through the slots
+    private final @NotNull int[] buckets;
+    private final @NotNull int[] chain;
+
+    private int size;
+    private int head = NONE;
+    private int tail = NONE;
+    private long lookups;
+    private long hits;
+
+    /**
+     * @param capacity the amount of fingerprints remembered
+     * @param window   the time after which a fingerprint is no longer a duplicate
+     */
+    public DeduplicationCache(final int capacity, final @NotNull Duration window) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The de-duplication cache size has to be at least 1");
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("The de-duplication window has to be positive");
+        }
+        this.capacity = capacity;
+        this.windowNanos = window.toNanos();
+        fingerprints = new long[capacity];
+        seenAt = new long[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+        chain = new int[capacity];
+        buckets = new int[Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1];
+        Arrays.fill(buckets, NONE);
+    }
+
+    public boolean isDuplicate(final @NotNull Mqtt5Publish publish) {
+        final long fingerprint = fingerprint(publish.getTopic().toString(),
+                publish.getPayload().orElse(null),
+                publish.getCorrelationData().orElse(null));
+        return isDuplicate(fingerprint);
+    }
+
+    public boolean isDuplicate(final @NotNull Mqtt3Publish publish) {
+        return isDuplicate(fingerprint(publish.getTopic().toString(), publish.getPayload().orElse(null), null));
+    }
+
+    boolean isDuplicate(final long fingerprint) {
+        return isDuplicate(fingerprint, System.nanoTime());
+    }
+
+    /**
+     * Records the fingerprint as the most recently seen one.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true if the fingerprint was already seen within the window
+     */
+    synchronized boolean isDuplicate(final long fingerprint, final long now) {
+        lookups++;
+        final int bucket = bucket(fingerprint);
+
+        for (int slot = buckets[bucket]; slot != NONE; slot = chain[slot]) {
+            if (fingerprints[slot] == fingerprint) {
+                unlink(slot);
+                linkFirst(slot);
+                if (now - seenAt[slot] > windowNanos) {
+                    // a legitimate repeat, its window starts anew
+                    seenAt[slot] = now;
+                    return false;
+                }
+                hits++;
+                return true;
+            }
+        }
+
+        final int slot;
+        if (size < capacity) {
+            slot = size++;
+        }
+        else {
+            slot = tail;
+            unlink(slot);
+            removeFromBucket(slot);
+        }
+
+        fingerprints[slot] = fingerprint;
+        seenAt[slot] = now;
+        chain[slot] = buckets[bucket];
+        buckets[bucket] = slot;
+        linkFirst(slot);
+        return false;
+    }
+
+    private void removeFromBucket(final int slot) {
+        final int bucket = bucket(fingerprints[slot]);
+        if (buckets[bucket] == slot) {
+            buckets[bucket] = chain[slot];
+            return;
+        }
+        for (int current = buckets[bucket]; current != NONE; current = chain[current]) {
+            if (chain[current] == slot) {
+                chain[current] = chain[slot];
+                return;
+            }
+        }
+    }
+
+    private void unlink(final int slot) {
+        if (previous[slot] != NONE) { next[previous[slot]] = next[slot]; }
+        else { head = next[slot]; }
+        if (next[slot] != NONE) { previous[next[slot]] = previous[slot]; }
+        else { tail = previous[slot]; }
+    }
+
+    private void linkFirst(final int slot) {
+        previous[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) { previous[head] = slot; }
+        head = slot;
+        if (tail == NONE) { tail = slot; }
+    }
+
+    private int bucket(final long fingerprint) {
+        final long mixed = fingerprint ^ (fingerprint >>> 32);
+        return (int) mixed & (buckets.length - 1);
+    }
+
+    // FNV-1a over the topic, payload and correlation data, separated so that shifted boundaries yield other values
+    static long fingerprint(final @NotNull String topic,
+                            final @Nullable ByteBuffer payload,
+                            final @Nullable ByteBuffer correlationData) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < topic.length(); i++) {
+            final char c = topic.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        hash = hash(hash, payload);
+        hash = hash(hash, correlationData);
+        return hash;
+    }
+
+    private static long hash(long hash, final @Nullable ByteBuffer buffer) {
+        final int length = buffer == null ? -1 : buffer.remaining();
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((length >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        if (buffer != null) {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                hash = (hash ^ (buffer.get(i) & 0xff)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMemoryBytes() {
+        return (long) capacity * (2 * Long.BYTES + 3 * Integer.BYTES) + (long) buckets.length * Integer.BYTES;
+    }
+
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized @NotNull String getStatistics() {
+        final double hitRatio = lookups == 0 ? 0 : (double) hits / lookups;
+        return String.format(Locale.ROOT,
+                "De-duplication: dropped %d of %d publishes (hit ratio %.2f%%), cache %d/%d entries using %.1f KiB",
+                hits, lookups, hitRatio * 100, size, capacity, getMemoryBytes() / 1024.0);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.filter;
+
+import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Decides on the raw publish whether a received message is passed on to the output.
+ * <p>
+ * The checks run from the cheapest to the most expensive one so a rejected message is dropped before its payload is
+ * copied or formatted. Sampling runs last and therefore only counts messages which matched all other checks.
+ */
+public class PublishFilter {
+
+    static final int MAX_CACHED_TOPICS = 10_000;
+
+    private final int minPayloadSize;
+    private final int maxPayloadSize;
+    private final @Nullable Pattern topicPattern;
+    private final @Nullable byte[] payloadPattern;
+    private final @Nullable List<Mqtt5UserProperty> userProperties;
+    private final long sampleEvery;
+    private final double sampleRate;
+
+    private final @NotNull Map<String, Boolean> topicMatches = new ConcurrentHashMap<>();
+    private final @NotNull AtomicLong matched = new AtomicLong();
+
+    public PublishFilter(final int minPayloadSize,
+                         final int maxPayloadSize,
+                         final @Nullable Pattern topicPattern,
+                         final @Nullable byte[] payloadPattern,
+                         final @Nullable List<Mqtt5UserProperty> userProperties,
+                         final long sampleEvery,
+                         final double sampleRate) {
+        this.minPayloadSize = minPayloadSize;
+        this.maxPayloadSize = maxPayloadSize;
+        this.topicPattern = topicPattern;
+        this.payloadPattern = payloadPattern;
+        this.userProperties = userProperties;
+        this.sampleEvery = sampleEvery;
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean accept(final @NotNull Mqtt5Publish publish) {
+        return accept(publish.getTopic().toString(), publish.getPayload().orElse(null), publish.getUserProperties());
+    }
+
+    public boolean accept(final @NotNull Mqtt3Publish publish) {
+        return accept(publish.getTopic().toString(), publish.getPayload().orElse(null), null);
+    }
+
+    boolean accept(final @NotNull String topic,
+                   final @Nullable ByteBuffer payload,
+                   final @Nullable Mqtt5UserProperties publishUserProperties) {
+
+        final int payloadSize = payload == null ? 0 : payload.remaining();
+        if (payloadSize < minPayloadSize || payloadSize > maxPayloadSize) {
+            return false;
+        }
+
+        if (topicPattern != null && !matchesTopic(topic)) {
+            return false;
+        }
+
+        if (userProperties != null) {
+            if (publishUserProperties == null || !publishUserProperties.asList().containsAll(userProperties)) {
+                return false;
+            }
+        }
+
+        if (payloadPattern != null && (payload == null || indexOf(payload, payloadPattern) == -1)) {
+            return false;
+        }
+
+        if (sampleEvery > 1 && matched.getAndIncrement() % sampleEvery != 0) {
+            return false;
+        }
+
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // the topics of a subscription usually repeat, so the regex only runs once per distinct topic
+    private boolean matchesTopic(final @NotNull String topic) {
+        final Boolean cached = topicMatches.get(topic);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean matches = topicPattern.matcher(topic).find();
+        if (topicMatches.size() < MAX_CACHED_TOPICS) {
+            topicMatches.put(topic, matches);
+        }
+        return matches;
+    }
+
+    // absolute reads, the position of the payload is not modified
+    static int indexOf(final @NotNull ByteBuffer payload, final @NotNull byte[] pattern) {
+        final int start = payload.position();
+        final int last = payload.limit() - pattern.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (payload.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i - start;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "PublishFilter{" +
+                "payloadSize=[" + minPayloadSize + ", " + maxPayloadSize + "]" +
+                (topicPattern != null ? (", topicPattern=" + topicPattern) : "") +
+                (payloadPattern != null ? (", payloadPatternLength=" + payloadPattern.length) : "") +
+                (userProperties != null ? (", userProperties=" + userProperties) : "") +
+                (sampleEvery > 1 ? (", sampleEvery=" + sampleEvery) : "") +
+                (sampleRate < 1 ? (", sampleRate=" + sampleRate) : "") +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.jfr;
+
+import com.hivemq.client.mqtt.MqttClientConfig;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the JFR events, only loaded once the flight recorder of the running VM is initialized. The event classes
+ * register themselves when they are first used.
+ */
+class JfrEvents {
+
+    static void connected(final @NotNull MqttClientConfig config, final long durationNanos) {
+        final ConnectEvent event = new ConnectEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.clientId = clientId(config);
+        event.host = config.getServerHost();
+        event.port = config.getServerPort();
+        event.mqttVersion = config.getMqttVersion().toString();
+        event.connectTime = durationNanos;
+        event.commit();
+    }
+
+    static void subscribed(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final long durationNanos) {
+        final SubscribeEvent event = new SubscribeEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.clientId = clientId(config);
+        event.topic = topic;
+        event.qos = qos.getCode();
+        event.subscribeTime = durationNanos;
+        event.commit();
+    }
+
+    static void publishSent(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final int size) {
+        final PublishSentEvent event = new PublishSentEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.clientId = clientId(config);
+        event.topic = topic;
+        event.qos = qos.getCode();
+        event.size = size;
+        event.commit();
+    }
+
+    static void publishAcked(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final int size, final long durationNanos) {
+        final PublishAckedEvent event = new PublishAckedEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.clientId = clientId(config);
+        event.topic = topic;
+        event.qos = qos.getCode();
+        event.size = size;
+        event.ackLatency = durationNanos;
+        event.commit();
+    }
+
+    static void messageReceived(final @NotNull MqttClientConfig config, final @NotNull Object topic, final @NotNull MqttQos qos, final int size) {
+        final MessageReceivedEvent event = new MessageReceivedEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.clientId = clientId(config);
+        event.topic = topic.toString();
+        event.qos = qos.getCode();
+        event.size = size;
+        event.commit();
+    }
+
+    private static @NotNull String clientId(final @NotNull MqttClientConfig config) {
+        return config.getClientIdentifier().map(Object::toString).orElse("");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.jfr;
+
+import com.hivemq.client.mqtt.MqttClientConfig;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import jdk.jfr.FlightRecorder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Emits JDK Flight Recorder events for connects, subscribes, sent and acknowledged publishes and received messages.
+ * <p>
+ * Record them by starting the CLI with e.g. {@code JAVA_TOOL_OPTIONS=-XX:StartFlightRecording=filename=mqtt.jfr}.
+ * If the VM has no JFR (older Java 8 builds, native image) the checks below are constant false and the JIT removes
+ * the calls. Otherwise the events are only created once the flight recorder is initialized, which happens when a
+ * recording is started, also later with {@code jcmd <pid> JFR.start}. Until then no JFR class is loaded.
+ */
+public class MqttFlightRecorder {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private MqttFlightRecorder() {
+    }
+
+    public static void connected(final @NotNull MqttClientConfig config, final long durationNanos) {
+        if (isRecording()) {
+            JfrEvents.connected(config, durationNanos);
+        }
+    }
+
+    public static void subscribed(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final long durationNanos) {
+        if (isRecording()) {
+            JfrEvents.subscribed(config, topic, qos, durationNanos);
+        }
+    }
+
+    public static void publishSent(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final int size) {
+        if (isRecording()) {
+            JfrEvents.publishSent(config, topic, qos, size);
+        }
+    }
+
+    public static void publishAcked(final @NotNull MqttClientConfig config, final @NotNull String topic, final @NotNull MqttQos qos, final int size, final long durationNanos) {
+        if (isRecording()) {
+            JfrEvents.publishAcked(config, topic, qos, size, durationNanos);
+        }
+    }
+
+    /**
+     * @param topic the topic of the publish, only converted to a string if the event is recorded
+     */
+    public static void messageReceived(final @NotNull MqttClientConfig config, final @NotNull Object topic, final @NotNull MqttQos qos, final int size) {
+        if (isRecording()) {
+            JfrEvents.messageReceived(config, topic, qos, size);
+        }
+    }
+
+    private static boolean isRecording() {
+        return AVAILABLE && FlightRecorder.isInitialized();
+    }
+
+    private static boolean isAvailable() {
+        if (System.getProperty("org.graalvm.nativeimage.imagecode") != null) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, MqttFlightRecorder.class.getClassLoader());
+            return true;
+        }
+        catch (final ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.hivemq.cli.PublishAcked")
+@Label("MQTT Publish Acknowledged")
+@Description("A sent QoS 1 or 2 publish was acknowledged by the broker, QoS 0 publishes have no acknowledgement")
+@Category({"MQTT CLI"})
+@StackTrace(false)
+class PublishAckedEvent extends Event {
+
+    @Label("Client Identifier")
+    String clientId;
+
+    @Label("Topic")
+    String topic;
+
+    @Label("QoS")
+    int qos;
+
+    @Label("Payload Size")
+    @DataAmount
+    int size;
+
+    @Label("Acknowledgement Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long ackLatency;
+}
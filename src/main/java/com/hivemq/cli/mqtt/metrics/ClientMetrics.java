@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single client, updated from the client's callbacks without locking.
+ */
+public class ClientMetrics {
+
+    // weight of a new sample in the moving average of the acknowledgement latency, same as the TCP smoothed RTT
+    static final double ACK_LATENCY_ALPHA = 0.125;
+
+    private final @NotNull String identifier;
+    private final @NotNull String host;
+
+    private final @NotNull LongAdder messagesReceived = new LongAdder();
+    private final @NotNull LongAdder bytesReceived = new LongAdder();
+    private final @NotNull LongAdder messagesSent = new LongAdder();
+    private final @NotNull LongAdder bytesSent = new LongAdder();
+    private final @NotNull LongAdder failedPublishes = new LongAdder();
+    private final @NotNull LongAdder connects = new LongAdder();
+    private final @NotNull LongAdder downtimeNanos = new LongAdder();
+    private final @NotNull LongAdder filtered = new LongAdder();
+    private final @NotNull LongAdder duplicates = new LongAdder();
+    private final @NotNull LatencyHistogram publishAckLatency = new LatencyHistogram();
+    private final @NotNull AtomicLong averageAckLatencyBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+
+    ClientMetrics(final @NotNull String identifier, final @NotNull String host) {
+        this.identifier = identifier;
+        this.host = host;
+    }
+
+    public void received(final int bytes) {
+        messagesReceived.increment();
+        bytesReceived.add(bytes);
+    }
+
+    /**
+     * Counts a QoS 0 publish, which has no acknowledgement and so no latency.
+     */
+    public void published(final int bytes) {
+        messagesSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    public void published(final int bytes, final long ackLatencyNanos) {
+        published(bytes);
+        publishAckLatency.record(ackLatencyNanos);
+        updateAverageAckLatency(ackLatencyNanos);
+    }
+
+    public void publishFailed() {
+        failedPublishes.increment();
+    }
+
+    public void connected() {
+        connects.increment();
+    }
+
+    public void reconnected(final long downtimeNanos) {
+        this.downtimeNanos.add(downtimeNanos);
+    }
+
+    public void filtered() {
+        filtered.increment();
+    }
+
+    public void duplicate() {
+        duplicates.increment();
+    }
+
+    public @NotNull String getIdentifier() {
+        return identifier;
+    }
+
+    public @NotNull String getHost() {
+        return host;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getFailedPublishes() {
+        return failedPublishes.sum();
+    }
+
+    /**
+     * @return the exponentially weighted moving average of the publish acknowledgement latency in nanoseconds or
+     *         {@link Double#NaN} if no publish was acknowledged yet
+     */
+    public double getAverageAckLatencyNanos() {
+        return Double.longBitsToDouble(averageAckLatencyBits.get());
+    }
+
+    public long getReconnects() {
+        return Math.max(connects.sum() - 1, 0);
+    }
+
+    /**
+     * @return the summed time in nanoseconds between losing the connection and being reconnected automatically
+     */
+    public long getDowntimeNanos() {
+        return downtimeNanos.sum();
+    }
+
+    public long getFiltered() {
+        return filtered.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public @NotNull LatencyHistogram getPublishAckLatency() {
+        return publishAckLatency;
+    }
+
+    private void updateAverageAckLatency(final long ackLatencyNanos) {
+        long currentBits;
+        double next;
+        do {
+            currentBits = averageAckLatencyBits.get();
+            final double current = Double.longBitsToDouble(currentBits);
+            next = Double.isNaN(current) ? ackLatencyNanos : current + ACK_LATENCY_ALPHA * (ackLatencyNanos - current);
+        } while (!averageAckLatencyBits.compareAndSet(currentBits, Double.doubleToRawLongBits(next)));
+    }
+}
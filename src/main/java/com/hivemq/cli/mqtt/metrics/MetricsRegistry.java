@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.metrics;
+
+import com.hivemq.cli.mqtt.ClientKey;
+import com.hivemq.cli.mqtt.output.PublishOutput;
+import com.hivemq.client.mqtt.MqttClientConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the metrics of all clients and outputs of this process and renders them in the Prometheus text format.
+ */
+public class MetricsRegistry {
+
+    private static final Map<ClientKey, ClientMetrics> clientKeyToMetrics = new ConcurrentHashMap<>();
+    private static final Map<String, PublishOutput> outputs = new ConcurrentHashMap<>();
+
+    public static @NotNull ClientMetrics forClient(final @NotNull MqttClientConfig config) {
+        return forClient(ClientKey.of(config));
+    }
+
+    public static @NotNull ClientMetrics forClient(final @NotNull ClientKey clientKey) {
+        final ClientMetrics metrics = clientKeyToMetrics.get(clientKey);
+        if (metrics != null) {
+            return metrics;
+        }
+        return clientKeyToMetrics.computeIfAbsent(clientKey, key -> new ClientMetrics(key.getIdentifier(), key.getHost()));
+    }
+
+    /**
+     * Removes the metrics of a client which is disconnected for good, so they are no longer scraped.
+     */
+    public static void remove(final @NotNull ClientKey clientKey) {
+        clientKeyToMetrics.remove(clientKey);
+    }
+
+    public static void registerOutput(final @NotNull String name, final @NotNull PublishOutput output) {
+        outputs.put(name, output);
+    }
+
+    public static @NotNull String scrape() {
+        final StringBuilder builder = new StringBuilder();
+
+        header(builder, "mqtt_cli_messages_received_total", "counter", "Publishes received by the client");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_messages_received_total", labels(metrics), metrics.getMessagesReceived());
+        }
+        header(builder, "mqtt_cli_bytes_received_total", "counter", "Payload bytes received by the client");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_bytes_received_total", labels(metrics), metrics.getBytesReceived());
+        }
+        header(builder, "mqtt_cli_messages_sent_total", "counter", "Publishes sent and acknowledged");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_messages_sent_total", labels(metrics), metrics.getMessagesSent());
+        }
+        header(builder, "mqtt_cli_bytes_sent_total", "counter", "Payload bytes sent and acknowledged");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_bytes_sent_total", labels(metrics), metrics.getBytesSent());
+        }
+        header(builder, "mqtt_cli_publishes_failed_total", "counter", "Publishes which could not be sent or were not acknowledged");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_publishes_failed_total", labels(metrics), metrics.getFailedPublishes());
+        }
+        header(builder, "mqtt_cli_reconnects_total", "counter", "Connections established after the first one");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_reconnects_total", labels(metrics), metrics.getReconnects());
+        }
+        header(builder, "mqtt_cli_reconnect_downtime_seconds_total", "counter", "Time between losing the connection and being reconnected automatically");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            builder.append("mqtt_cli_reconnect_downtime_seconds_total{").append(labels(metrics)).append("} ")
+                    .append(String.format(Locale.ROOT, "%.3f", metrics.getDowntimeNanos() / 1e9)).append('\n');
+        }
+        header(builder, "mqtt_cli_messages_dropped_total", "counter", "Received publishes not written to the output");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            sample(builder, "mqtt_cli_messages_dropped_total", labels(metrics) + ",reason=\"filtered\"", metrics.getFiltered());
+            sample(builder, "mqtt_cli_messages_dropped_total", labels(metrics) + ",reason=\"duplicate\"", metrics.getDuplicates());
+        }
+
+        header(builder, "mqtt_cli_publish_ack_latency_seconds", "histogram", "Time from sending a publish until it is acknowledged");
+        for (final ClientMetrics metrics : clientKeyToMetrics.values()) {
+            final LatencyHistogram histogram = metrics.getPublishAckLatency();
+            final long[] counts = histogram.getCumulativeCounts();
+            for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_SECONDS.length; i++) {
+                sample(builder, "mqtt_cli_publish_ack_latency_seconds_bucket",
+                        labels(metrics) + ",le=\"" + LatencyHistogram.BUCKET_BOUNDS_SECONDS[i] + "\"", counts[i]);
+            }
+            final long count = counts[counts.length - 1];
+            sample(builder, "mqtt_cli_publish_ack_latency_seconds_bucket", labels(metrics) + ",le=\"+Inf\"", count);
+            builder.append("mqtt_cli_publish_ack_latency_seconds_sum{").append(labels(metrics)).append("} ")
+                    .append(String.format(Locale.ROOT, "%.9f", histogram.getSumSeconds())).append('\n');
+            sample(builder, "mqtt_cli_publish_ack_latency_seconds_count", labels(metrics), count);
+        }
+
+        header(builder, "mqtt_cli_output_queue_depth", "gauge", "Messages waiting to be written by an output");
+        for (final Map.Entry<String, PublishOutput> output : outputs.entrySet()) {
+            sample(builder, "mqtt_cli_output_queue_depth", "output=\"" + escape(output.getKey()) + "\"", output.getValue().getQueueDepth());
+        }
+        header(builder, "mqtt_cli_output_dropped_total", "counter", "Messages dropped by an output because its consumer did not keep up");
+        for (final Map.Entry<String, PublishOutput> output : outputs.entrySet()) {
+            sample(builder, "mqtt_cli_output_dropped_total", "output=\"" + escape(output.getKey()) + "\"", output.getValue().getDroppedCount());
+        }
+
+        return builder.toString();
+    }
+
+    private static void header(final @NotNull StringBuilder builder, final @NotNull String name, final @NotNull String type, final @NotNull String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(final @NotNull StringBuilder builder, final @NotNull String name, final @NotNull String labels, final long value) {
+        builder.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static @NotNull String labels(final @NotNull ClientMetrics metrics) {
+        return "client=\"" + escape(metrics.getIdentifier()) + "\",host=\"" + escape(metrics.getHost()) + "\"";
+    }
+
+    static @NotNull String escape(final @NotNull String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.metrics;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves {@link MetricsRegistry#scrape()} on {@code /metrics} in the Prometheus text format.
+ */
+public class MetricsServer {
+
+    static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final @NotNull InetSocketAddress address;
+    private @Nullable EventLoopGroup eventLoopGroup;
+    private @Nullable Channel serverChannel;
+
+    public MetricsServer(final @NotNull InetSocketAddress address) {
+        this.address = address;
+    }
+
+    public void start() throws IOException {
+        eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("metrics-server", true));
+        final ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(eventLoopGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(final @NotNull SocketChannel channel) {
+                        channel.pipeline()
+                                .addLast(new HttpServerCodec())
+                                .addLast(new HttpObjectAggregator(8 * 1024))
+                                .addLast(new MetricsHandler());
+                    }
+                });
+        try {
+            serverChannel = bootstrap.bind(address).sync().channel();
+        }
+        catch (final Exception ex) {
+            eventLoopGroup.shutdownGracefully();
+            throw new IOException("Could not listen on " + address.getHostString() + ":" + address.getPort(), ex);
+        }
+    }
+
+    public void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly();
+        }
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    private static class MetricsHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull FullHttpRequest request) {
+            final HttpResponseStatus status;
+            final String body;
+            if (request.method() != HttpMethod.GET) {
+                status = HttpResponseStatus.METHOD_NOT_ALLOWED;
+                body = status.toString();
+            }
+            else if (!METRICS_PATH.equals(new QueryStringDecoder(request.uri()).path())) {
+                status = HttpResponseStatus.NOT_FOUND;
+                body = status + "\nAvailable: " + METRICS_PATH;
+            }
+            else {
+                status = HttpResponseStatus.OK;
+                body = MetricsRegistry.scrape();
+            }
+
+            final ByteBuf content = Unpooled.copiedBuffer(body, StandardCharsets.UTF_8);
+            final DefaultFullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+            response.headers()
+                    .set(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE)
+                    .setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+
+            if (HttpUtil.isKeepAlive(request)) {
+                ctx.writeAndFlush(response);
+            }
+            else {
+                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+            ctx.close();
+        }
+    }
+}
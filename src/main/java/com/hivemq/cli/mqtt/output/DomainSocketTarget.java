@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Connects to a Unix domain socket on which the consumer listens. Requires the native epoll transport (Linux).
+ */
+class DomainSocketTarget implements StreamTarget {
+
+    private final @NotNull File socket;
+    private @Nullable EventLoopGroup eventLoopGroup;
+    private @Nullable Channel channel;
+
+    DomainSocketTarget(final @NotNull File socket) {
+        this.socket = socket;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!Epoll.isAvailable()) {
+            throw new IOException("Unix domain sockets are only supported on Linux", Epoll.unavailabilityCause());
+        }
+        eventLoopGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory("domain-socket-output", true));
+        final ChannelFuture connectFuture = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(EpollDomainSocketChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(new DomainSocketAddress(socket));
+        connectFuture.awaitUninterruptibly();
+        if (!connectFuture.isSuccess()) {
+            throw new IOException("Could not connect to socket " + socket.getPath(), connectFuture.cause());
+        }
+        channel = connectFuture.channel();
+    }
+
+    @Override
+    public void write(final @NotNull List<byte[]> records) throws IOException {
+        if (channel == null || !channel.isActive()) {
+            throw new IOException("The socket " + socket.getPath() + " is closed");
+        }
+        ChannelFuture lastWrite = null;
+        for (final byte[] record : records) {
+            lastWrite = channel.write(Unpooled.wrappedBuffer(record));
+        }
+        channel.flush();
+        // wait on the writer thread only, so the written bytes never pile up in the channel
+        if (lastWrite != null && !lastWrite.awaitUninterruptibly().isSuccess()) {
+            throw new IOException("Could not write to socket " + socket.getPath(), lastWrite.cause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            channel.close().awaitUninterruptibly();
+        }
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return socket.getPath();
+    }
+}
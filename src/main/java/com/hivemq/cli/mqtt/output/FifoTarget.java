@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+class FifoTarget implements StreamTarget {
+
+    private final @NotNull File fifo;
+    private @Nullable OutputStream out;
+
+    FifoTarget(final @NotNull File fifo) {
+        this.fifo = fifo;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!fifo.exists()) {
+            throw new IOException("The named pipe " + fifo.getPath() + " does not exist (create it with mkfifo)");
+        }
+        // blocks until the pipe is opened for reading
+        out = new BufferedOutputStream(new FileOutputStream(fifo));
+    }
+
+    @Override
+    public void write(final @NotNull List<byte[]> records) throws IOException {
+        if (out == null) {
+            throw new IOException("The named pipe " + fifo.getPath() + " is not open");
+        }
+        for (final byte[] record : records) {
+            out.write(record);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        if (out != null) {
+            try {
+                out.close();
+            }
+            catch (final IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return fifo.getPath();
+    }
+}
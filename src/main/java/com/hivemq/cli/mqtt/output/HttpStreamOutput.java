@@ -0,0 +1,346 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshaker;
+import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the received messages to any number of local viewers over HTTP, either as Server-Sent Events on
+ * {@code /events} or as WebSocket text frames on {@code /ws}. Every message is a JSON object with topic and message.
+ * <p>
+ * Each viewer has its own bounded ring buffer which is drained on the viewer's event loop as fast as its connection
+ * allows. A slow viewer only loses its own oldest messages and never blocks the subscription or the other viewers.
+ */
+public class HttpStreamOutput implements PublishOutput {
+
+    static final String EVENTS_PATH = "/events";
+    static final String WEBSOCKET_PATH = "/ws";
+
+    private static final Gson GSON = new Gson();
+    private static final AttributeKey<Viewer> VIEWER = AttributeKey.valueOf("viewer");
+
+    private final @NotNull InetSocketAddress address;
+    private final int bufferSize;
+    private final @NotNull Set<Viewer> viewers = ConcurrentHashMap.newKeySet();
+    private final @NotNull LongAdder dropped = new LongAdder();
+    private final @NotNull ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private @Nullable EventLoopGroup eventLoopGroup;
+    private int port;
+
+    public HttpStreamOutput(final @NotNull InetSocketAddress address, final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The viewer buffer size has to be at least 1");
+        }
+        this.address = address;
+        this.bufferSize = bufferSize;
+    }
+
+    public void start() throws IOException {
+        eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("http-output", true));
+        final ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(eventLoopGroup)
+                .channel(NioServerSocketChannel.class)
+                // keep the socket buffer small, messages queue up in the viewer's ring buffer instead
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(32 * 1024, 64 * 1024))
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(final @NotNull SocketChannel channel) {
+                        channels.add(channel);
+                        channel.pipeline()
+                                .addLast(new HttpServerCodec())
+                                .addLast(new HttpObjectAggregator(64 * 1024))
+                                .addLast(new StreamHandler());
+                    }
+                });
+        try {
+            final Channel serverChannel = bootstrap.bind(address).sync().channel();
+            channels.add(serverChannel);
+            port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        }
+        catch (final Exception ex) {
+            eventLoopGroup.shutdownGracefully();
+            throw new IOException("Could not listen on " + address.getHostString() + ":" + address.getPort(), ex);
+        }
+        Logger.info("Serving received messages on http://{}:{}{} (SSE) and ws://{}:{}{}",
+                address.getHostString(), port, EVENTS_PATH,
+                address.getHostString(), port, WEBSOCKET_PATH);
+    }
+
+    @Override
+    public void write(final @NotNull String topic, final @NotNull String message) {
+        if (viewers.isEmpty()) {
+            return;
+        }
+        final JsonObject record = new JsonObject();
+        record.addProperty("topic", topic);
+        record.addProperty("message", message);
+        final String json = GSON.toJson(record);
+        for (final Viewer viewer : viewers) {
+            viewer.offer(json);
+        }
+    }
+
+    @Override
+    public void close() {
+        channels.close().awaitUninterruptibly();
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    // the bound port, which differs from the configured one if that was 0
+    int getPort() {
+        return port;
+    }
+
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        int depth = 0;
+        for (final Viewer viewer : viewers) {
+            depth += viewer.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private class StreamHandler extends SimpleChannelInboundHandler<Object> {
+
+        private @Nullable WebSocketServerHandshaker handshaker;
+
+        @Override
+        protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull Object msg) {
+            if (msg instanceof FullHttpRequest) {
+                handleRequest(ctx, (FullHttpRequest) msg);
+            }
+            else if (msg instanceof WebSocketFrame) {
+                handleFrame(ctx, (WebSocketFrame) msg);
+            }
+        }
+
+        private void handleRequest(final @NotNull ChannelHandlerContext ctx, final @NotNull FullHttpRequest request) {
+            if (!request.decoderResult().isSuccess()) {
+                sendError(ctx, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            if (request.method() != HttpMethod.GET) {
+                sendError(ctx, HttpResponseStatus.METHOD_NOT_ALLOWED);
+                return;
+            }
+
+            final String path = new QueryStringDecoder(request.uri()).path();
+            if (WEBSOCKET_PATH.equals(path)) {
+                final String location = "ws://" + request.headers().get(HttpHeaderNames.HOST, address.getHostString()) + WEBSOCKET_PATH;
+                handshaker = new WebSocketServerHandshakerFactory(location, null, false).newHandshaker(request);
+                if (handshaker == null) {
+                    WebSocketServerHandshakerFactory.sendUnsupportedVersionResponse(ctx.channel());
+                    return;
+                }
+                handshaker.handshake(ctx.channel(), request).addListener((ChannelFutureListener) future -> {
+                    if (future.isSuccess()) {
+                        addViewer(ctx.channel(), true);
+                    }
+                });
+            }
+            else if (EVENTS_PATH.equals(path)) {
+                final HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                response.headers()
+                        .set(HttpHeaderNames.CONTENT_TYPE, "text/event-stream; charset=UTF-8")
+                        .set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE)
+                        .set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+                ctx.writeAndFlush(response);
+                addViewer(ctx.channel(), false);
+            }
+            else {
+                sendError(ctx, HttpResponseStatus.NOT_FOUND);
+            }
+        }
+
+        private void handleFrame(final @NotNull ChannelHandlerContext ctx, final @NotNull WebSocketFrame frame) {
+            if (frame instanceof CloseWebSocketFrame && handshaker != null) {
+                handshaker.close(ctx.channel(), (CloseWebSocketFrame) frame.retain());
+            }
+            else if (frame instanceof PingWebSocketFrame) {
+                ctx.writeAndFlush(new PongWebSocketFrame(frame.content().retain()));
+            }
+        }
+
+        private void addViewer(final @NotNull Channel channel, final boolean webSocket) {
+            final Viewer viewer = new Viewer(channel, webSocket, bufferSize, dropped);
+            channel.attr(VIEWER).set(viewer);
+            viewers.add(viewer);
+            Logger.debug("Viewer {} connected ({})", channel.remoteAddress(), webSocket ? "WebSocket" : "SSE");
+        }
+
+        @Override
+        public void channelWritabilityChanged(final @NotNull ChannelHandlerContext ctx) {
+            final Viewer viewer = ctx.channel().attr(VIEWER).get();
+            if (viewer != null && ctx.channel().isWritable()) {
+                viewer.drain();
+            }
+            ctx.fireChannelWritabilityChanged();
+        }
+
+        @Override
+        public void channelInactive(final @NotNull ChannelHandlerContext ctx) {
+            final Viewer viewer = ctx.channel().attr(VIEWER).get();
+            if (viewer != null) {
+                viewers.remove(viewer);
+                Logger.debug("Viewer {} disconnected, {} messages were dropped for it", ctx.channel().remoteAddress(), viewer.getDropped());
+            }
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+            Logger.debug(cause, "Closing viewer {}", ctx.channel().remoteAddress());
+            ctx.close();
+        }
+
+        private void sendError(final @NotNull ChannelHandlerContext ctx, final @NotNull HttpResponseStatus status) {
+            final ByteBuf content = Unpooled.copiedBuffer(status + "\nAvailable: " + EVENTS_PATH + " (Server-Sent Events), " + WEBSOCKET_PATH + " (WebSocket)\n", StandardCharsets.UTF_8);
+            final DefaultFullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+            response.headers()
+                    .set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8")
+                    .setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private static class Viewer {
+
+        private final @NotNull Channel channel;
+        private final boolean webSocket;
+        private final int capacity;
+        private final @NotNull LongAdder totalDropped;
+        private final @NotNull ArrayDeque<String> ring = new ArrayDeque<>();
+        private long dropped;
+        private boolean drainScheduled;
+
+        Viewer(final @NotNull Channel channel, final boolean webSocket, final int capacity, final @NotNull LongAdder totalDropped) {
+            this.channel = channel;
+            this.webSocket = webSocket;
+            this.capacity = capacity;
+            this.totalDropped = totalDropped;
+        }
+
+        // called on the receiving thread, only touches the ring buffer
+        void offer(final @NotNull String json) {
+            synchronized (this) {
+                if (ring.size() >= capacity) {
+                    ring.pollFirst();
+                    dropped++;
+                    totalDropped.increment();
+                }
+                ring.addLast(json);
+                if (drainScheduled) {
+                    return;
+                }
+                drainScheduled = true;
+            }
+            channel.eventLoop().execute(this::drain);
+        }
+
+        // called on the event loop of the viewer's channel
+        void drain() {
+            boolean written = false;
+            while (channel.isWritable()) {
+                final String json;
+                synchronized (this) {
+                    json = ring.pollFirst();
+                    if (json == null) {
+                        drainScheduled = false;
+                        break;
+                    }
+                }
+                channel.write(webSocket ? new TextWebSocketFrame(json) :
+                        new DefaultHttpContent(Unpooled.copiedBuffer("data: " + json + "\n\n", StandardCharsets.UTF_8)));
+                written = true;
+            }
+            // if the channel is not writable the drain continues on the next writability change
+            if (written) {
+                channel.flush();
+            }
+        }
+
+        synchronized int size() {
+            return ring.size();
+        }
+
+        synchronized long getDropped() {
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Spreads the received messages over a fixed number of files by the hash of their topic.
+ * <p>
+ * Each file is written by its own thread through a buffered writer, messages of the same topic always end up in the
+ * same file in the order they were received.
+ */
+public class PartitionedFileOutput implements PublishOutput {
+
+    static final int QUEUE_CAPACITY = 10_000;
+
+    private final @NotNull PartitionWriter[] writers;
+
+    public PartitionedFileOutput(final @NotNull File publishFile, final int partitions) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The amount of partitions has to be at least 1");
+        }
+        writers = new PartitionWriter[partitions];
+        try {
+            for (int i = 0; i < partitions; i++) {
+                writers[i] = new PartitionWriter(partitionFile(publishFile, i));
+            }
+        }
+        catch (final IOException ex) {
+            close();
+            throw ex;
+        }
+        for (final PartitionWriter writer : writers) {
+            writer.start();
+        }
+    }
+
+    @Override
+    public void write(final @NotNull String topic, final @NotNull String message) {
+        writers[partition(topic, writers.length)].write(message);
+    }
+
+    @Override
+    public void close() {
+        for (final PartitionWriter writer : writers) {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        int depth = 0;
+        for (final PartitionWriter writer : writers) {
+            depth += writer.queue.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        // the receiving thread is blocked instead
+        return 0;
+    }
+
+    // String.hashCode is specified, so a topic maps to the same partition in every run
+    static int partition(final @NotNull String topic, final int partitions) {
+        return (topic.hashCode() & Integer.MAX_VALUE) % partitions;
+    }
+
+    static @NotNull File partitionFile(final @NotNull File publishFile, final int partition) {
+        return new File(publishFile.getAbsoluteFile().getParentFile(), publishFile.getName() + "." + partition);
+    }
+
+    private static class PartitionWriter extends Thread {
+
+        private static final String END_OF_OUTPUT = new String("");
+
+        private final @NotNull File file;
+        private final @NotNull BufferedWriter writer;
+        private final @NotNull BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean closed;
+
+        PartitionWriter(final @NotNull File file) throws IOException {
+            super("partition-writer-" + file.getName());
+            setDaemon(true);
+            this.file = file;
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        }
+
+        void write(final @NotNull String message) {
+            if (closed) {
+                return;
+            }
+            try {
+                // blocks the receiving thread when the disk can not keep up instead of dropping messages
+                queue.put(message);
+            }
+            catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final String message = queue.take();
+                    if (message == END_OF_OUTPUT) {
+                        break;
+                    }
+                    writer.write(message);
+                    writer.newLine();
+                    if (queue.isEmpty()) {
+                        writer.flush();
+                    }
+                }
+            }
+            catch (final IOException ex) {
+                Logger.error(ex, "Could not write to file ({})", file.getName());
+            }
+            catch (final InterruptedException ignored) {
+            }
+            finally {
+                // unblock writers waiting on a full queue if the file became unwritable
+                closed = true;
+                queue.clear();
+                try {
+                    writer.close();
+                }
+                catch (final IOException ex) {
+                    Logger.error(ex, "Could not close file ({})", file.getName());
+                }
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!isAlive()) {
+                try {
+                    writer.close();
+                }
+                catch (final IOException ignored) {
+                }
+                return;
+            }
+            try {
+                queue.put(END_OF_OUTPUT);
+                join();
+            }
+            catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
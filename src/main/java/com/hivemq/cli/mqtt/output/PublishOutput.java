@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A destination for the formatted messages received by a subscription in addition to the console and the output file.
+ */
+public interface PublishOutput {
+
+    void write(@NotNull String topic, @NotNull String message);
+
+    /**
+     * Writes all pending messages and releases the underlying resources.
+     */
+    void close();
+
+    /**
+     * @return the amount of messages which are not written yet
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the amount of messages which were dropped because the consumer did not keep up
+     */
+    long getDroppedCount();
+
+}
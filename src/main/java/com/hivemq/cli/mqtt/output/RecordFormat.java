@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The encoding of a single received message written to a stream output.
+ */
+public enum RecordFormat {
+
+    /**
+     * One compact JSON object per line: {@code {"topic":"...","message":"..."}}
+     */
+    NDJSON {
+        @Override
+        @NotNull byte[] encode(final @NotNull String topic, final @NotNull String message) {
+            final JsonObject record = new JsonObject();
+            record.addProperty("topic", topic);
+            record.addProperty("message", message);
+            return (GSON.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+    },
+
+    /**
+     * The UTF-8 topic and message each preceded by their length as 4 byte big endian integer.
+     */
+    LENGTH_PREFIXED {
+        @Override
+        @NotNull byte[] encode(final @NotNull String topic, final @NotNull String message) {
+            final byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+            final byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(8 + topicBytes.length + messageBytes.length)
+                    .putInt(topicBytes.length)
+                    .put(topicBytes)
+                    .putInt(messageBytes.length)
+                    .put(messageBytes)
+                    .array();
+        }
+    };
+
+    private static final Gson GSON = new Gson();
+
+    abstract @NotNull byte[] encode(@NotNull String topic, @NotNull String message);
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the received messages to a local consumer through a Unix domain socket or a named pipe.
+ * <p>
+ * Messages are only encoded and put into a bounded buffer on the receiving thread. A dedicated thread writes the
+ * buffer to the consumer, so a slow or absent consumer never blocks the subscription. When the buffer is full the
+ * {@link SlowConsumerPolicy} decides which messages are dropped.
+ */
+public class StreamOutput implements PublishOutput {
+
+    private final @NotNull StreamTarget target;
+    private final @NotNull RecordFormat format;
+    private final int bufferSize;
+    private final @NotNull SlowConsumerPolicy policy;
+
+    private final @NotNull ArrayDeque<byte[]> buffer = new ArrayDeque<>();
+    private final @NotNull AtomicLong dropped = new AtomicLong();
+    private final @NotNull Thread writerThread;
+    private boolean closed;
+
+    public static @NotNull StreamOutput toDomainSocket(final @NotNull File socket,
+                                                       final @NotNull RecordFormat format,
+                                                       final int bufferSize,
+                                                       final @NotNull SlowConsumerPolicy policy) {
+        return new StreamOutput(new DomainSocketTarget(socket), format, bufferSize, policy);
+    }
+
+    public static @NotNull StreamOutput toFifo(final @NotNull File fifo,
+                                               final @NotNull RecordFormat format,
+                                               final int bufferSize,
+                                               final @NotNull SlowConsumerPolicy policy) {
+        return new StreamOutput(new FifoTarget(fifo), format, bufferSize, policy);
+    }
+
+    StreamOutput(final @NotNull StreamTarget target,
+                 final @NotNull RecordFormat format,
+                 final int bufferSize,
+                 final @NotNull SlowConsumerPolicy policy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The output buffer size has to be at least 1");
+        }
+        this.target = target;
+        this.format = format;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        writerThread = new Thread(this::writeLoop, "stream-output-" + target.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void write(final @NotNull String topic, final @NotNull String message) {
+        final byte[] record = format.encode(topic, message);
+        synchronized (this) {
+            if (closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                dropped.incrementAndGet();
+                switch (policy) {
+                    case DROP_NEWEST:
+                        return;
+                    case DROP_OLDEST:
+                        buffer.pollFirst();
+                        break;
+                    case DISCONNECT:
+                        Logger.error("Closing output {} because the consumer does not keep up", target.getName());
+                        closed = true;
+                        dropped.addAndGet(buffer.size());
+                        buffer.clear();
+                        notifyAll();
+                        return;
+                }
+            }
+            buffer.addLast(record);
+            notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            target.open();
+        }
+        catch (final IOException ex) {
+            Logger.error(ex, "Could not open output {}: {}", target.getName(), ex.getMessage());
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+                notifyAll();
+            }
+            return;
+        }
+
+        final List<byte[]> records = new ArrayList<>();
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (buffer.isEmpty() && !closed) {
+                        wait();
+                    }
+                    if (buffer.isEmpty()) {
+                        return;
+                    }
+                    records.addAll(buffer);
+                    buffer.clear();
+                }
+                target.write(records);
+                records.clear();
+            }
+        }
+        catch (final IOException ex) {
+            Logger.error(ex, "Could not write to output {}: {}", target.getName(), ex.getMessage());
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+        }
+        catch (final InterruptedException ignored) {
+        }
+        finally {
+            target.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            // a consumer which never connected keeps the writer thread blocked in open
+            writerThread.join(1000);
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0) {
+            Logger.warn("Dropped {} messages for the slow consumer of output {}", dropped.get(), target.getName());
+        }
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return buffer.size();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.mqtt.test.results.TestResult;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent feature tests concurrently, at most the given amount at the same time.
+ * <p>
+ * Every test returns its output, which is printed in the order the tests were added as soon as the test and all
+ * previous tests are finished. So the output is the same as if the tests ran one after another.
+ */
+public class FeatureTestExecutor {
+
+    private final int concurrency;
+    private final @NotNull List<String> labels = new ArrayList<>();
+    private final @NotNull List<Supplier<String>> tests = new ArrayList<>();
+
+    public FeatureTestExecutor(final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency of the feature tests has to be at least 1");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param label the label printed before the output of the test, e.g. {@code "\t- QoS 0: "}
+     * @param test  the test returning its output without the label
+     */
+    public void add(final @NotNull String label, final @NotNull Supplier<String> test) {
+        labels.add(label);
+        tests.add(test);
+    }
+
+    public void run(final @NotNull PrintStream out) {
+        if (tests.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(concurrency, tests.size()), new DefaultThreadFactory("feature-test", true));
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (final Supplier<String> test : tests) {
+                results.add(executor.submit(test::get));
+            }
+
+            for (int i = 0; i < labels.size(); i++) {
+                out.print(labels.get(i));
+                out.println(awaitOutput(labels.get(i), results.get(i)));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static @NotNull String awaitOutput(final @NotNull String label, final @NotNull Future<String> result) {
+        try {
+            return result.get();
+        }
+        catch (final ExecutionException ex) {
+            Logger.error(ex.getCause(), "Feature test '{}' failed", label.replaceAll("[\\t\\-:>]", "").trim());
+            return "FAILED (" + Throwables.getRootCause(ex).getMessage() + ")";
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return TestResult.INTERRUPTED.toString();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import com.google.common.base.Strings;
+import com.hivemq.cli.mqtt.test.results.ClientIdCharsTestResults;
+import com.hivemq.cli.mqtt.test.results.ClientIdLengthTestResults;
+import com.hivemq.cli.mqtt.test.results.PayloadTestResults;
+import com.hivemq.cli.mqtt.test.results.TestResult;
+import com.hivemq.cli.mqtt.test.results.TopicLengthTestResults;
+import com.hivemq.cli.utils.Tuple;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Probes the maximum topic length, payload size and client identifier length of a broker as well as the characters
+ * it supports in client identifiers, for both MQTT versions.
+ * <p>
+ * The publisher and subscriber stay connected between the probes and are only reconnected if the broker disconnected
+ * them after a failed probe. A limit is searched from a likely size: if that succeeds the maximum is probed next, if
+ * the maximum fails the size is doubled until a probe fails, otherwise it is halved until a probe succeeds. The limit
+ * is then binary searched between the last success and the first failure. Failed probes often wait for the whole
+ * timeout, so this needs far fewer of them than a binary search starting at the maximum.
+ */
+class LimitProber {
+
+    static final int MAX_TOPIC_LENGTH = 65535;
+    static final int MAX_CLIENT_ID_LENGTH = 65535;
+
+    // some cloud brokers only allow a few hundred bytes instead of the maximum of the specification
+    static final int LIKELY_TOPIC_LENGTH = 256;
+    // every broker has to allow this length according to the specification
+    static final int LIKELY_CLIENT_ID_LENGTH = 23;
+    // a common packet size limit of small and embedded brokers, if it succeeds only the maximum is probed next
+    static final int LIKELY_PAYLOAD_SIZE = 65_536;
+
+    private static final String ONE_BYTE = "a";
+    private static final String SUCCESS = "SUCCESS";
+    private static final String UNDEFINED_FAILURE = "UNDEFINED_FAILURE";
+
+    private final @NotNull Function<@Nullable String, ProbeClient> clients;
+    private final int timeOut;
+
+    /**
+     * @param clients creates a client with the given identifier or with an identifier assigned by the broker for null
+     * @param timeOut the seconds to wait for a publish or a CONNACK
+     */
+    LimitProber(final @NotNull Function<@Nullable String, ProbeClient> clients, final int timeOut) {
+        this.clients = clients;
+        this.timeOut = timeOut;
+    }
+
+    /**
+     * @return the largest size in {@code [min, max]} for which the probe succeeds or {@code min - 1} if it fails for
+     *         {@code min}, expecting that the probe succeeds for all sizes up to the limit
+     */
+    static int search(final int min, final int likely, final int max, final @NotNull IntPredicate probe) {
+        final int start = Math.max(min, Math.min(likely, max));
+        // the largest size known to succeed and the smallest size known to fail
+        int success;
+        int failure;
+
+        if (probe.test(start)) {
+            if (start == max || probe.test(max)) {
+                return max;
+            }
+            success = start;
+            failure = max;
+            while (true) {
+                final long doubled = Math.max(1L, success * 2L);
+                if (doubled >= failure) {
+                    break;
+                }
+                if (probe.test((int) doubled)) {
+                    success = (int) doubled;
+                }
+                else {
+                    failure = (int) doubled;
+                    break;
+                }
+            }
+        }
+        else {
+            if (start == min) {
+                return min - 1;
+            }
+            failure = start;
+            while (true) {
+                final int halved = failure / 2;
+                if (halved <= min) {
+                    if (!probe.test(min)) {
+                        return min - 1;
+                    }
+                    success = min;
+                    break;
+                }
+                if (probe.test(halved)) {
+                    success = halved;
+                    break;
+                }
+                failure = halved;
+            }
+        }
+
+        while (failure - success > 1) {
+            final int size = success + (failure - success) / 2;
+            if (probe.test(size)) {
+                success = size;
+            }
+            else {
+                failure = size;
+            }
+        }
+        return success;
+    }
+
+    @NotNull TopicLengthTestResults probeTopicLength() {
+        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
+        final ProbeClient publisher = clients.apply(null);
+        final ProbeClient subscriber = clients.apply(null);
+        try {
+            final int maxTopicLength = search(1, LIKELY_TOPIC_LENGTH, MAX_TOPIC_LENGTH, length -> {
+                final TestResult result = probeTopic(publisher, subscriber, Strings.repeat(ONE_BYTE, length));
+                testResults.add(new Tuple<>(length, result));
+                return result == TestResult.OK;
+            });
+            return new TopicLengthTestResults(maxTopicLength, testResults);
+        }
+        finally {
+            publisher.disconnect();
+            subscriber.disconnect();
+        }
+    }
+
+    private @NotNull TestResult probeTopic(
+            final @NotNull ProbeClient publisher,
+            final @NotNull ProbeClient subscriber,
+            final @NotNull String topic) {
+
+        final byte[] payload = topic.getBytes(StandardCharsets.UTF_8);
+        try {
+            connectIfDisconnected(subscriber);
+            subscriber.subscribe(topic);
+        }
+        catch (final Exception ex) {
+            Logger.debug(ex, "Subscribe to topic of length {} bytes failed", payload.length);
+            return TestResult.SUBSCRIBE_FAILED;
+        }
+
+        try {
+            connectIfDisconnected(publisher);
+            publisher.publish(topic, payload);
+            return awaitPayload(subscriber, payload);
+        }
+        catch (final InterruptedException ex) {
+            Logger.error(ex, "Interrupted while waiting to receive publish to topic with {} bytes", payload.length);
+            Thread.currentThread().interrupt();
+            return TestResult.INTERRUPTED;
+        }
+        catch (final Exception ex) {
+            Logger.debug(ex, "Publish to topic of length {} bytes failed", payload.length);
+            return TestResult.PUBLISH_FAILED;
+        }
+        finally {
+            unsubscribeIfConnected(subscriber, topic);
+        }
+    }
+
+    /**
+     * @param topic  the topic to which the payloads are published
+     * @param likely the size from which the search starts
+     * @param max    the largest size which is probed
+     */
+    @NotNull PayloadTestResults probePayloadSize(final @NotNull String topic, final int likely, final int max) {
+        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
+        final ProbeClient publisher = clients.apply(null);
+        final ProbeClient subscriber = clients.apply(null);
+        try {
+            final int payloadSize = search(0, likely, max, size -> {
+                final TestResult result = probePayload(publisher, subscriber, topic, Strings.repeat(ONE_BYTE, size).getBytes(StandardCharsets.UTF_8));
+                testResults.add(new Tuple<>(size, result));
+                return result == TestResult.OK;
+            });
+            return new PayloadTestResults(payloadSize, testResults);
+        }
+        finally {
+            publisher.disconnect();
+            subscriber.disconnect();
+        }
+    }
+
+    private @NotNull TestResult probePayload(
+            final @NotNull ProbeClient publisher,
+            final @NotNull ProbeClient subscriber,
+            final @NotNull String topic,
+            final @NotNull byte[] payload) {
+
+        // the subscription is only lost if the broker disconnected the subscriber
+        if (!subscriber.isConnected()) {
+            try {
+                connectIfDisconnected(subscriber);
+                subscriber.subscribe(topic);
+            }
+            catch (final Exception ex) {
+                Logger.debug(ex, "Subscribe for payload of size {} bytes failed", payload.length);
+                return TestResult.SUBSCRIBE_FAILED;
+            }
+        }
+
+        try {
+            connectIfDisconnected(publisher);
+            publisher.publish(topic, payload);
+            return awaitPayload(subscriber, payload);
+        }
+        catch (final InterruptedException ex) {
+            Logger.error(ex, "Interrupted while waiting for subscriber to receive payload with length {} bytes", payload.length);
+            Thread.currentThread().interrupt();
+            return TestResult.INTERRUPTED;
+        }
+        catch (final Exception ex) {
+            Logger.debug(ex, "Publish with payload of size {} bytes failed", payload.length);
+            return TestResult.PUBLISH_FAILED;
+        }
+    }
+
+    @NotNull ClientIdLengthTestResults probeClientIdLength() {
+        final List<Tuple<Integer, String>> connectResults = new LinkedList<>();
+        final int maxClientIdLength = search(1, LIKELY_CLIENT_ID_LENGTH, MAX_CLIENT_ID_LENGTH, length -> {
+            final String result = probeConnect(Strings.repeat(ONE_BYTE, length));
+            connectResults.add(new Tuple<>(length, result));
+            return SUCCESS.equals(result);
+        });
+        return new ClientIdLengthTestResults(maxClientIdLength, connectResults);
+    }
+
+    /**
+     * Connects with client identifiers made of the given code points to find the ones the broker does not support.
+     * <p>
+     * All code points are tried in one identifier first. If the broker rejects an identifier, its code points are
+     * split in halves which are tried again, so only identifiers containing unsupported code points are narrowed down
+     * to single code points. The identifiers of a round are tried concurrently and all rounds share one deadline, the
+     * code points whose identifiers were not answered until then are reported as {@code TIME_OUT}.
+     *
+     * @param codePoints  distinct code points, the results are in the same order
+     * @param concurrency the maximum amount of connects at the same time
+     */
+    @NotNull ClientIdCharsTestResults probeClientIdChars(final @NotNull int[] codePoints, final int concurrency) {
+        final String[] results = new String[codePoints.length];
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeOut);
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(concurrency, codePoints.length)), new DefaultThreadFactory("client-id-probe", true));
+        try {
+            // start (inclusive) and end (exclusive) of the code points of each identifier
+            List<int[]> groups = codePoints.length == 0 ?
+                    Collections.emptyList() : Collections.singletonList(new int[]{0, codePoints.length});
+            while (!groups.isEmpty()) {
+                final List<Future<String>> connects = new ArrayList<>(groups.size());
+                for (final int[] group : groups) {
+                    final String identifier = new String(codePoints, group[0], group[1] - group[0]);
+                    connects.add(executor.submit(() -> probeConnect(identifier)));
+                }
+
+                final List<int[]> rejectedGroups = new ArrayList<>();
+                for (int i = 0; i < groups.size(); i++) {
+                    final int[] group = groups.get(i);
+                    final String result = awaitConnect(connects.get(i), deadline);
+                    if (group[1] - group[0] > 1 && !SUCCESS.equals(result) && !TestResult.TIME_OUT.toString().equals(result)
+                            && !TestResult.INTERRUPTED.toString().equals(result)) {
+                        final int middle = (group[0] + group[1]) >>> 1;
+                        rejectedGroups.add(new int[]{group[0], middle});
+                        rejectedGroups.add(new int[]{middle, group[1]});
+                    }
+                    else {
+                        Arrays.fill(results, group[0], group[1], result);
+                    }
+                }
+                groups = rejectedGroups;
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        final List<Tuple<Integer, String>> connectResults = new ArrayList<>(codePoints.length);
+        for (int i = 0; i < codePoints.length; i++) {
+            connectResults.add(new Tuple<>(codePoints[i], results[i]));
+        }
+        return new ClientIdCharsTestResults(connectResults);
+    }
+
+    private static @NotNull String awaitConnect(final @NotNull Future<String> connect, final long deadline) {
+        try {
+            return connect.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        catch (final TimeoutException ex) {
+            connect.cancel(true);
+            return TestResult.TIME_OUT.toString();
+        }
+        catch (final InterruptedException ex) {
+            connect.cancel(true);
+            Thread.currentThread().interrupt();
+            return TestResult.INTERRUPTED.toString();
+        }
+        catch (final ExecutionException ex) {
+            Logger.debug(ex.getCause(), "Connect with client id failed");
+            return UNDEFINED_FAILURE;
+        }
+    }
+
+    /**
+     * @return the reason or return code of the CONNACK or {@code UNDEFINED_FAILURE} if the broker did not answer
+     */
+    @NotNull String probeConnect(final @NotNull String identifier) {
+        ProbeClient client = null;
+        try {
+            client = clients.apply(identifier);
+            return client.connect();
+        }
+        catch (final Exception ex) {
+            Logger.debug(ex, "Connect with client id length {} bytes failed", identifier.getBytes(StandardCharsets.UTF_8).length);
+            return UNDEFINED_FAILURE;
+        }
+        finally {
+            if (client != null) {
+                client.disconnect();
+            }
+        }
+    }
+
+    // publishes of previous probes which arrive late have a different payload and are skipped
+    private @NotNull TestResult awaitPayload(final @NotNull ProbeClient subscriber, final @NotNull byte[] expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeOut);
+        while (true) {
+            final byte[] payload = subscriber.receive(deadline);
+            if (payload == null) {
+                return TestResult.TIME_OUT;
+            }
+            if (Arrays.equals(payload, expected)) {
+                return TestResult.OK;
+            }
+            if (payload.length == expected.length) {
+                return TestResult.WRONG_PAYLOAD;
+            }
+        }
+    }
+
+    private static void connectIfDisconnected(final @NotNull ProbeClient client) throws Exception {
+        if (!client.isConnected()) {
+            final String result = client.connect();
+            if (!SUCCESS.equals(result)) {
+                throw new IllegalStateException("Connect failed with " + result);
+            }
+        }
+    }
+
+    private static void unsubscribeIfConnected(final @NotNull ProbeClient client, final @NotNull String topic) {
+        if (client.isConnected()) {
+            try {
+                client.unsubscribe(topic);
+            }
+            catch (final Exception ex) {
+                Logger.debug(ex, "Unsubscribe from topic of length {} bytes failed", topic.length());
+            }
+        }
+    }
+}
@@ -16,12 +16,9 @@
  */
 package com.hivemq.cli.mqtt.test;
 
-import com.google.common.base.Strings;
 import com.hivemq.cli.mqtt.test.results.*;
 import com.hivemq.cli.utils.TopicUtils;
-import com.hivemq.cli.utils.Tuple;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
-import com.hivemq.client.mqtt.MqttGlobalPublishFilter;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3ClientBuilder;
@@ -30,7 +27,6 @@ import com.hivemq.client.mqtt.mqtt3.exceptions.Mqtt3PubAckException;
 import com.hivemq.client.mqtt.mqtt3.exceptions.Mqtt3SubAckException;
 import com.hivemq.client.mqtt.mqtt3.message.auth.Mqtt3SimpleAuth;
 import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
-import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAckReturnCode;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
 import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
 import org.jetbrains.annotations.NotNull;
@@ -39,24 +35,18 @@ import org.tinylog.Logger;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
-import static com.hivemq.client.mqtt.mqtt3.Mqtt3BlockingClient.Mqtt3Publishes;
-
 public class Mqtt3FeatureTester {
 
-    private static final String ONE_BYTE = "a";
-    private static final int MAX_TOPIC_LENGTH = 65535;
-    private static final int MAX_CLIENT_ID_LENGTH = 65535;
-
     private int maxTopicLength = -1;
     private final String host;
     private final int port;
@@ -64,6 +54,7 @@ public class Mqtt3FeatureTester {
     private final ByteBuffer password;
     private final MqttClientSslConfig sslConfig;
     private final int timeOut;
+    private final @NotNull LimitProber limitProber;
 
     public Mqtt3FeatureTester(final @NotNull String host,
                               final @NotNull Integer port,
@@ -77,6 +68,7 @@ public class Mqtt3FeatureTester {
         this.password = password;
         this.sslConfig = sslConfig;
         this.timeOut = timeOut;
+        this.limitProber = new LimitProber(Mqtt3ProbeClient::new, timeOut);
     }
 
     // Test methods
@@ -304,242 +296,21 @@ public class Mqtt3FeatureTester {
     }
 
     public @NotNull PayloadTestResults testPayloadSize(final int maxSize) {
-        final Mqtt3Client publisher = buildClient();
-        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
         final String topic = (maxTopicLength == -1 ? TopicUtils.generateTopicUUID() : TopicUtils.generateTopicUUID(maxTopicLength));
 
-
-        publisher.toBlocking().connect();
-
-        final boolean maxTestSuccess = testPayload(publisher, topic, testResults, maxSize);
-        if (maxTestSuccess) {
-            return new PayloadTestResults(maxSize, testResults);
-        } else { // Binary search the payload size
-            int top = maxSize;
-            int bottom = 0;
-            int mid = -1;
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testPayload(publisher, topic, testResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid - 1;
-                }
-            }
-
-            disconnectIfConnected(publisher);
-
-            return new PayloadTestResults(mid, testResults);
-        }
-    }
-
-    private boolean testPayload(final @NotNull Mqtt3Client publisher,
-                                final @NotNull String topic,
-                                final @NotNull List<Tuple<Integer, TestResult>> testResults,
-                                final int payloadSize) {
-        final Mqtt3Client subscriber = buildClient();
-        final String currentPayload = Strings.repeat(ONE_BYTE, payloadSize);
-        final Mqtt3Publish publish = Mqtt3Publish.builder()
-                .topic(topic)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .payload(currentPayload.getBytes())
-                .build();
-
-        subscriber.toBlocking().connect();
-        subscriber.toBlocking().subscribeWith()
-                .topicFilter(topic)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .send();
-        final Mqtt3Publishes publishes = subscriber.toBlocking().publishes(MqttGlobalPublishFilter.SUBSCRIBED);
-
-        try {
-            if (!publisher.getState().isConnectedOrReconnect()) {
-                publisher.toBlocking().connect();
-            }
-            publisher.toBlocking().publish(publish);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt3PubAckException)) {
-                Logger.error(ex, "Publish with payload of size {} bytes failed", currentPayload.getBytes().length);
-            }
-            testResults.add(new Tuple<>(payloadSize, TestResult.PUBLISH_FAILED));
-            return false;
-        }
-
-        try {
-            final Optional<Mqtt3Publish> receive = publishes.receive(timeOut, TimeUnit.SECONDS);
-            if (!receive.isPresent()) {
-                testResults.add(new Tuple<>(payloadSize, TestResult.TIME_OUT));
-                return false;
-            } else if (!Arrays.equals(receive.get().getPayloadAsBytes(), currentPayload.getBytes())) {
-                testResults.add(new Tuple<>(payloadSize, TestResult.WRONG_PAYLOAD));
-                return false;
-            }
-        } catch (InterruptedException e) {
-            Logger.error(e, "Interrupted while waiting for subscriber to receive payload with length {} bytes", currentPayload.getBytes().length);
-            testResults.add(new Tuple<>(payloadSize, TestResult.INTERRUPTED));
-            return false;
-        } finally {
-            disconnectIfConnected(subscriber);
-        }
-
-        testResults.add(new Tuple<>(payloadSize, TestResult.OK));
-        return true;
+        return limitProber.probePayloadSize(topic, Math.min(LimitProber.LIKELY_PAYLOAD_SIZE, maxSize), maxSize);
     }
 
     public @NotNull TopicLengthTestResults testTopicLength() {
-        final Mqtt3Client publisher = buildClient();
-        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
-
-        publisher.toBlocking().connect();
-
-        final boolean maxTopicLengthSuccess = testTopic(publisher, testResults, MAX_TOPIC_LENGTH);
-        if (maxTopicLengthSuccess) {
-            return new TopicLengthTestResults(MAX_TOPIC_LENGTH, testResults);
-        } else { // Binary search the right topic length
-            int top = MAX_TOPIC_LENGTH;
-            int bottom = 0;
-            int mid = -1;
-
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testTopic(publisher, testResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid - 1;
-                }
-            }
-
-            setMaxTopicLength(mid);
-            disconnectIfConnected(publisher);
-
-            return new TopicLengthTestResults(mid, testResults);
+        final TopicLengthTestResults topicLengthTestResults = limitProber.probeTopicLength();
+        if (topicLengthTestResults.getMaxTopicLength() < LimitProber.MAX_TOPIC_LENGTH) {
+            setMaxTopicLength(topicLengthTestResults.getMaxTopicLength());
         }
-    }
-
-    private boolean testTopic(final @NotNull Mqtt3Client publisher,
-                              final @NotNull List<Tuple<Integer, TestResult>> testResults,
-                              final int topicSize) {
-        final Mqtt3Client subscriber = buildClient();
-        final String currentTopicName = Strings.repeat(ONE_BYTE, topicSize);
-        final Mqtt3Publish publish = Mqtt3Publish.builder()
-                .topic(currentTopicName)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .payload(currentTopicName.getBytes())
-                .build();
-        final Mqtt3Subscribe subscribe = Mqtt3Subscribe.builder()
-                .topicFilter(currentTopicName)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .build();
-
-        subscriber.toBlocking().connect();
-        final Mqtt3Publishes publishes = subscriber.toBlocking().publishes(MqttGlobalPublishFilter.SUBSCRIBED);
-
-        // Test subscribe to topic
-        try {
-            subscriber.toBlocking().subscribe(subscribe);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt3SubAckException)) {
-                Logger.error(ex, "Subscribe to topic of length {} bytes failed", currentTopicName.getBytes().length);
-            }
-            testResults.add(new Tuple<>(topicSize, TestResult.SUBSCRIBE_FAILED));
-            return false;
-        }
-
-        // Test publish to topic
-        try {
-            if (!publisher.getState().isConnectedOrReconnect()) {
-                publisher.toBlocking().connect();
-            }
-            publisher.toBlocking().publish(publish);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt3PubAckException)) {
-                Logger.error(ex, "Publish to topic of length {}", currentTopicName.getBytes().length);
-            }
-            testResults.add(new Tuple<>(topicSize, TestResult.PUBLISH_FAILED));
-            return false;
-        }
-
-        // Subscriber retrieves payload
-        try {
-            final Optional<Mqtt3Publish> receive = publishes.receive(timeOut, TimeUnit.SECONDS);
-            if (!receive.isPresent()) {
-                testResults.add(new Tuple<>(topicSize, TestResult.TIME_OUT));
-                return false;
-            } else if (!Arrays.equals(receive.get().getPayloadAsBytes(), currentTopicName.getBytes())) {
-                testResults.add(new Tuple<>(topicSize, TestResult.WRONG_PAYLOAD));
-                return false;
-            }
-        } catch (InterruptedException e) {
-            Logger.error(e, "Interrupted while waiting to receive publish to topic with {} bytes", currentTopicName.getBytes().length);
-            testResults.add(new Tuple<>(topicSize, TestResult.INTERRUPTED));
-            return false;
-        }
-        finally {
-            disconnectIfConnected(subscriber);
-        }
-
-        // Everything successful
-        testResults.add(new Tuple<>(topicSize, TestResult.OK));
-        return true;
+        return topicLengthTestResults;
     }
 
     public @NotNull ClientIdLengthTestResults testClientIdLength() {
-        final List<Tuple<Integer, String>> connectResults = new LinkedList<>();
-
-        final boolean maxClientIdSuccess = testClientIdLength(connectResults, MAX_CLIENT_ID_LENGTH);
-        if (maxClientIdSuccess) {
-            return new ClientIdLengthTestResults(MAX_CLIENT_ID_LENGTH, connectResults);
-        }
-        else { // Binary search the right client id length
-            int top = MAX_CLIENT_ID_LENGTH;
-            int bottom = 0;
-            int mid = -1;
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testClientIdLength(connectResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid -1;
-                }
-            }
-
-            return new ClientIdLengthTestResults(mid, connectResults);
-        }
-    }
-
-    private boolean testClientIdLength(final @NotNull List<Tuple<Integer, String>> connectResults,
-                                       final int clientIdLength) {
-        final String currentIdentifier = Strings.repeat(ONE_BYTE, clientIdLength);
-        final Mqtt3Client currClient = getClientBuilder()
-                .identifier(currentIdentifier)
-                .build();
-
-        try {
-            final Mqtt3ConnAck connAck = currClient.toBlocking().connect();
-            connectResults.add(new Tuple<>(clientIdLength, connAck.getReturnCode().toString()));
-            if (connAck.getReturnCode() != Mqtt3ConnAckReturnCode.SUCCESS) {
-                return false;
-            }
-        } catch (final Mqtt3ConnAckException connAckEx) {
-            connectResults.add(new Tuple<>(clientIdLength, connAckEx.getMqttMessage().getReturnCode().toString()));
-            return false;
-        }
-        catch (final Exception ex) {
-                Logger.error(ex, "Connect with client id length {} bytes",
-                        currClient.getConfig().getClientIdentifier()
-                                .map(id -> id.toString().getBytes().length).orElse(0));
-            connectResults.add(new Tuple<>(clientIdLength, "UNDEFINED_FAILURE"));
-            return false;
-        }
-        finally {
-            disconnectIfConnected(currClient);
-        }
-
-        return true;
-
+        return limitProber.probeClientIdLength();
     }
 
     private @NotNull TestResult testWildcard(final String subscribeWildcardTopic, final String publishTopic) {
@@ -602,53 +373,14 @@ public class Mqtt3FeatureTester {
         return countDownLatch.getCount() == 0 ? TestResult.OK : TestResult.TIME_OUT;
     }
 
-    public @NotNull AsciiCharsInClientIdTestResults testAsciiCharsInClientId() {
-        final String ASCII = " !\"#$%&\\'()*+,-./:;<=>?@[\\\\]^_`{|}~";
-        final List<Tuple<Character, String>> connectResults = new LinkedList<>();
-
-        boolean allSuccess = false;
-        final Mqtt3Client client = getClientBuilder()
-                .identifier(ASCII)
-                .build();
-        try {
-            client.toBlocking().connect();
-            allSuccess = true;
-        } catch (Exception ex) {
-            Logger.error("Could not connect with Client ID '" + ASCII + "'", ex);
-        }
-        finally {
-            disconnectIfConnected(client);
-        }
-
-        if (allSuccess) {
-            return new AsciiCharsInClientIdTestResults(connectResults);
-        }
-        else {
-            for (int i = 0; i < ASCII.length(); i++) {
-                testAsciiChar(connectResults, ASCII.charAt(i));
-            }
-            return new AsciiCharsInClientIdTestResults(connectResults);
-        }
+    /**
+     * @param codePoints  distinct code points which are tested in client identifiers
+     * @param concurrency the maximum amount of connects at the same time
+     */
+    public @NotNull ClientIdCharsTestResults testClientIdChars(final @NotNull int[] codePoints, final int concurrency) {
+        return limitProber.probeClientIdChars(codePoints, concurrency);
     }
 
-        private void testAsciiChar(final @NotNull  List<Tuple<Character, String>> connectResults,
-                    final char asciiChar) {
-            final Mqtt3Client client = getClientBuilder()
-                    .identifier(String.valueOf(asciiChar))
-                    .build();
-
-            try {
-                client.toBlocking().connect();
-            } catch (final Mqtt3ConnAckException ex) {
-                connectResults.add(new Tuple<>(asciiChar, ex.getMqttMessage().getReturnCode().toString()));
-            } catch (final Exception ex) {
-                Logger.error("Connect with Ascii char '{}' failed", asciiChar);
-                connectResults.add(new Tuple<>(asciiChar, null));
-            }
-
-            disconnectIfConnected(client);
-        }
-
     // Getter / Setter
 
     public void setMaxTopicLength(final int topicLength) {
@@ -693,6 +425,77 @@ public class Mqtt3FeatureTester {
             }
         }
     }
-}
 
+    private class Mqtt3ProbeClient implements ProbeClient {
+
+        private final @NotNull Mqtt3Client client;
+        private final @NotNull BlockingQueue<byte[]> payloads = new LinkedBlockingQueue<>();
+
+        Mqtt3ProbeClient(final @Nullable String identifier) {
+            final Mqtt3ClientBuilder clientBuilder = getClientBuilder();
+            if (identifier != null) {
+                clientBuilder.identifier(identifier);
+            }
+            client = clientBuilder.build();
+        }
+
+        @Override
+        public @NotNull String connect() throws Exception {
+            try {
+                return client.toAsync().connect().get(timeOut, TimeUnit.SECONDS).getReturnCode().toString();
+            } catch (final ExecutionException ex) {
+                if (ex.getCause() instanceof Mqtt3ConnAckException) {
+                    return ((Mqtt3ConnAckException) ex.getCause()).getMqttMessage().getReturnCode().toString();
+                }
+                throw ex;
+            }
+        }
+
+        @Override
+        public boolean isConnected() {
+            return client.getState().isConnected();
+        }
+
+        @Override
+        public void subscribe(final @NotNull String topicFilter) throws Exception {
+            client.toAsync().subscribeWith()
+                    .topicFilter(topicFilter)
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .callback(publish -> payloads.add(publish.getPayloadAsBytes()))
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void unsubscribe(final @NotNull String topicFilter) throws Exception {
+            client.toAsync().unsubscribeWith()
+                    .topicFilter(topicFilter)
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void publish(final @NotNull String topic, final @NotNull byte[] payload) throws Exception {
+            client.toAsync().publishWith()
+                    .topic(topic)
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .payload(payload)
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS);
+        }
 
+        @Override
+        public @Nullable byte[] receive(final long deadline) throws InterruptedException {
+            return payloads.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void disconnect() {
+            try {
+                disconnectIfConnected(client);
+            } catch (final Exception ex) {
+                Logger.debug(ex, "Disconnect of probe client failed");
+            }
+        }
+    }
+}
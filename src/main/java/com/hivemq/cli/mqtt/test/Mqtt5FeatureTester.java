@@ -16,14 +16,10 @@
  */
 package com.hivemq.cli.mqtt.test;
 
-import com.google.common.base.Strings;
 import com.hivemq.cli.mqtt.test.results.*;
 import com.hivemq.cli.utils.TopicUtils;
-import com.hivemq.cli.utils.Tuple;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
-import com.hivemq.client.mqtt.MqttGlobalPublishFilter;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
-import com.hivemq.client.mqtt.mqtt5.Mqtt5BlockingClient;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5ClientBuilder;
 import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5ConnAckException;
@@ -31,7 +27,7 @@ import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5PubAckException;
 import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5SubAckException;
 import com.hivemq.client.mqtt.mqtt5.message.auth.Mqtt5SimpleAuth;
 import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
-import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAckReasonCode;
+import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAckRestrictions;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
 import org.jetbrains.annotations.NotNull;
@@ -40,11 +36,12 @@ import org.tinylog.Logger;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -52,17 +49,18 @@ import java.util.function.Consumer;
 
 public class Mqtt5FeatureTester {
 
-    private static final String ONE_BYTE = "a";
-    private static final int MAX_TOPIC_LENGTH = 65535;
-    private static final int MAX_CLIENT_ID_LENGTH = 65535;
+    // fixed header, topic length, packet identifier and property length of a publish without properties
+    private static final int PUBLISH_OVERHEAD = 5 + 2 + 2 + 1;
 
     private int maxTopicLength = -1;
+    private int maximumPacketSize = Mqtt5ConnAckRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE_NO_LIMIT;
     private final String host;
     private final int port;
     private final String username;
     private final ByteBuffer password;
     private final MqttClientSslConfig sslConfig;
     private final int timeOut;
+    private final @NotNull LimitProber limitProber;
 
     public Mqtt5FeatureTester(final @NotNull String host,
                               final @NotNull Integer port,
@@ -76,6 +74,7 @@ public class Mqtt5FeatureTester {
         this.password = password;
         this.sslConfig = sslConfig;
         this.timeOut = timeOut;
+        this.limitProber = new LimitProber(Mqtt5ProbeClient::new, timeOut);
     }
 
     // Tests
@@ -84,7 +83,9 @@ public class Mqtt5FeatureTester {
         final Mqtt5Client mqtt5Client = buildClient();
 
         try {
-            return mqtt5Client.toBlocking().connect();
+            final Mqtt5ConnAck connAck = mqtt5Client.toBlocking().connect();
+            maximumPacketSize = connAck.getRestrictions().getMaximumPacketSize();
+            return connAck;
         } catch (final Mqtt5ConnAckException connAckEx) {
             return connAckEx.getMqttMessage();
         } catch (final Exception ex) {
@@ -363,284 +364,31 @@ public class Mqtt5FeatureTester {
     }
 
     public @NotNull PayloadTestResults testPayloadSize(final int maxSize) {
-        final Mqtt5Client publisher = buildClient();
-        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
         final String topic = (maxTopicLength == -1 ? TopicUtils.generateTopicUUID() : TopicUtils.generateTopicUUID(maxTopicLength));
+        // the client can not send larger publishes than the maximum packet size announced in the CONNACK
+        final int maxPayloadSize = Math.max(0, Math.min(maxSize, maximumPacketSize - PUBLISH_OVERHEAD - topic.length()));
 
-
-        publisher.toBlocking().connect();
-
-        final boolean maxTestSuccess = testPayload(publisher, topic, testResults, maxSize);
-        if (maxTestSuccess) {
-            return new PayloadTestResults(maxSize, testResults);
-        } else { // Binary search the payload size
-            int top = maxSize;
-            int bottom = 0;
-            int mid = -1;
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testPayload(publisher, topic, testResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid - 1;
-                }
-            }
-
-            disconnectIfConnected(publisher);
-
-            return new PayloadTestResults(mid, testResults);
-        }
-    }
-
-    private boolean testPayload(final @NotNull Mqtt5Client publisher,
-                                final @NotNull String topic,
-                                final @NotNull List<Tuple<Integer, TestResult>> testResults,
-                                final int payloadSize) {
-        final Mqtt5Client subscriber = buildClient();
-        final String currentPayload = Strings.repeat(ONE_BYTE, payloadSize);
-        final Mqtt5Publish publish = Mqtt5Publish.builder()
-                .topic(topic)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .payload(currentPayload.getBytes())
-                .build();
-
-        subscriber.toBlocking().connect();
-        subscriber.toBlocking().subscribeWith()
-                .topicFilter(topic)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .send();
-        final Mqtt5BlockingClient.Mqtt5Publishes publishes = subscriber.toBlocking().publishes(MqttGlobalPublishFilter.SUBSCRIBED);
-
-        try {
-            if (!publisher.getState().isConnectedOrReconnect()) {
-                publisher.toBlocking().connect();
-            }
-            publisher.toBlocking().publish(publish);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt5PubAckException)) {
-                Logger.error(ex, "Publish with payload of size {} bytes failed", currentPayload.getBytes().length);
-            }
-            testResults.add(new Tuple<>(payloadSize, TestResult.PUBLISH_FAILED));
-            return false;
-        }
-
-        try {
-            final Optional<Mqtt5Publish> receive = publishes.receive(timeOut, TimeUnit.SECONDS);
-            if (!receive.isPresent()) {
-                testResults.add(new Tuple<>(payloadSize, TestResult.TIME_OUT));
-                return false;
-            } else if (!Arrays.equals(receive.get().getPayloadAsBytes(), currentPayload.getBytes())) {
-                testResults.add(new Tuple<>(payloadSize, TestResult.WRONG_PAYLOAD));
-                return false;
-            }
-        } catch (InterruptedException e) {
-            Logger.error(e, "Interrupted while waiting for subscriber to receive payload with length {} bytes", currentPayload.getBytes().length);
-            testResults.add(new Tuple<>(payloadSize, TestResult.INTERRUPTED));
-            return false;
-        } finally {
-            disconnectIfConnected(subscriber);
-        }
-
-        testResults.add(new Tuple<>(payloadSize, TestResult.OK));
-        return true;
+        return limitProber.probePayloadSize(topic, maxPayloadSize, maxPayloadSize);
     }
 
-
     public @NotNull TopicLengthTestResults testTopicLength() {
-        final Mqtt5Client publisher = buildClient();
-        final List<Tuple<Integer, TestResult>> testResults = new LinkedList<>();
-
-        publisher.toBlocking().connect();
-
-        final boolean maxTopicLengthSuccess = testTopic(publisher, testResults, MAX_TOPIC_LENGTH);
-        if (maxTopicLengthSuccess) {
-            return new TopicLengthTestResults(MAX_TOPIC_LENGTH, testResults);
-        } else { // Binary search the right topic length
-            int top = MAX_TOPIC_LENGTH;
-            int bottom = 0;
-            int mid = -1;
-
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testTopic(publisher, testResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid - 1;
-                }
-            }
-
-            setMaxTopicLength(mid);
-            disconnectIfConnected(publisher);
-
-            return new TopicLengthTestResults(mid, testResults);
-        }
-    }
-
-    private boolean testTopic(final @NotNull Mqtt5Client publisher,
-                              final @NotNull List<Tuple<Integer, TestResult>> testResults,
-                              final int topicSize) {
-        final Mqtt5Client subscriber = buildClient();
-        final String currentTopicName = Strings.repeat(ONE_BYTE, topicSize);
-        final Mqtt5Publish publish = Mqtt5Publish.builder()
-                .topic(currentTopicName)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .payload(currentTopicName.getBytes())
-                .build();
-        final Mqtt5Subscribe subscribe = Mqtt5Subscribe.builder()
-                .topicFilter(currentTopicName)
-                .qos(MqttQos.AT_LEAST_ONCE)
-                .build();
-
-        subscriber.toBlocking().connect();
-        final Mqtt5BlockingClient.Mqtt5Publishes publishes = subscriber.toBlocking().publishes(MqttGlobalPublishFilter.SUBSCRIBED);
-
-        // Test subscribe to topic
-        try {
-            subscriber.toBlocking().subscribe(subscribe);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt5SubAckException)) {
-                Logger.error(ex, "Subscribe to topic of length {} bytes failed", currentTopicName.getBytes().length);
-            }
-            testResults.add(new Tuple<>(topicSize, TestResult.SUBSCRIBE_FAILED));
-            return false;
-        }
-
-        // Test publish to topic
-        try {
-            if (!publisher.getState().isConnectedOrReconnect()) {
-                publisher.toBlocking().connect();
-            }
-            publisher.toBlocking().publish(publish);
-        } catch (final Exception ex) {
-            if (!(ex instanceof Mqtt5PubAckException)) {
-                Logger.error(ex, "Publish to topic of length {}", currentTopicName.getBytes().length);
-            }
-            testResults.add(new Tuple<>(topicSize, TestResult.PUBLISH_FAILED));
-            return false;
-        }
-
-        // Subscriber retrieves payload
-        try {
-            final Optional<Mqtt5Publish> receive = publishes.receive(timeOut, TimeUnit.SECONDS);
-            if (!receive.isPresent()) {
-                testResults.add(new Tuple<>(topicSize, TestResult.TIME_OUT));
-                return false;
-            } else if (!Arrays.equals(receive.get().getPayloadAsBytes(), currentTopicName.getBytes())) {
-                testResults.add(new Tuple<>(topicSize, TestResult.WRONG_PAYLOAD));
-                return false;
-            }
-        } catch (InterruptedException e) {
-            Logger.error(e, "Interrupted while waiting to receive publish to topic with {} bytes", currentTopicName.getBytes().length);
-            testResults.add(new Tuple<>(topicSize, TestResult.INTERRUPTED));
-            return false;
-        } finally {
-            disconnectIfConnected(subscriber);
+        final TopicLengthTestResults topicLengthTestResults = limitProber.probeTopicLength();
+        if (topicLengthTestResults.getMaxTopicLength() < LimitProber.MAX_TOPIC_LENGTH) {
+            setMaxTopicLength(topicLengthTestResults.getMaxTopicLength());
         }
-
-        // Everything successful
-        testResults.add(new Tuple<>(topicSize, TestResult.OK));
-        return true;
+        return topicLengthTestResults;
     }
 
     public @NotNull ClientIdLengthTestResults testClientIdLength() {
-        final List<Tuple<Integer, String>> connectResults = new LinkedList<>();
-
-        final boolean maxClientIdSuccess = testClientIdLength(connectResults, MAX_CLIENT_ID_LENGTH);
-        if (maxClientIdSuccess) {
-            return new ClientIdLengthTestResults(MAX_CLIENT_ID_LENGTH, connectResults);
-        } else { // Binary search the right client id length
-            int top = MAX_CLIENT_ID_LENGTH;
-            int bottom = 0;
-            int mid = -1;
-            while (bottom <= top) {
-                mid = (bottom + top) / 2;
-                final boolean success = testClientIdLength(connectResults, mid);
-                if (success) {
-                    bottom = mid + 1;
-                } else {
-                    top = mid - 1;
-                }
-            }
-
-            return new ClientIdLengthTestResults(mid, connectResults);
-        }
-    }
-
-    private boolean testClientIdLength(final @NotNull List<Tuple<Integer, String>> connectResults,
-                                       final int clientIdLength) {
-        final String currentIdentifier = Strings.repeat(ONE_BYTE, clientIdLength);
-        final Mqtt5Client currClient = getClientBuilder()
-                .identifier(currentIdentifier)
-                .build();
-
-        try {
-            final Mqtt5ConnAck connAck = currClient.toBlocking().connect();
-            connectResults.add(new Tuple<>(clientIdLength, connAck.getReasonCode().toString()));
-            if (connAck.getReasonCode() != Mqtt5ConnAckReasonCode.SUCCESS) {
-                return false;
-            }
-        } catch (final Mqtt5ConnAckException connAckEx) {
-            connectResults.add(new Tuple<>(clientIdLength, connAckEx.getMqttMessage().getReasonCode().toString()));
-            return false;
-        } catch (final Exception ex) {
-            Logger.error(ex, "Connect with client id length {} bytes",
-                    currClient.getConfig().getClientIdentifier()
-                            .map(id -> id.toString().getBytes().length).orElse(0));
-            connectResults.add(new Tuple<>(clientIdLength, "UNDEFINED_FAILURE"));
-            return false;
-        } finally {
-            disconnectIfConnected(currClient);
-        }
-
-        return true;
-
+        return limitProber.probeClientIdLength();
     }
 
-    public @NotNull AsciiCharsInClientIdTestResults testAsciiCharsInClientId() {
-        final String ASCII = " !\"#$%&\\'()*+,-./:;<=>?@[\\\\]^_`{|}~";
-        final List<Tuple<Character, String>> connectResults = new LinkedList<>();
-
-        boolean allSuccess = false;
-        final Mqtt5Client client = getClientBuilder()
-                .identifier(ASCII)
-                .build();
-        try {
-            client.toBlocking().connect();
-            allSuccess = true;
-        } catch (Exception ex) {
-            Logger.error("Could not connect with Client ID '" + ASCII + "'", ex);
-        } finally {
-            disconnectIfConnected(client);
-        }
-
-        if (allSuccess) {
-            return new AsciiCharsInClientIdTestResults(connectResults);
-        } else {
-            for (int i = 0; i < ASCII.length(); i++) {
-                testAsciiChar(connectResults, ASCII.charAt(i));
-            }
-            return new AsciiCharsInClientIdTestResults(connectResults);
-        }
-    }
-
-    private void testAsciiChar(final @NotNull List<Tuple<Character, String>> connectResults,
-                               final char asciiChar) {
-        final Mqtt5Client client = getClientBuilder()
-                .identifier(String.valueOf(asciiChar))
-                .build();
-
-        try {
-            client.toBlocking().connect();
-        } catch (final Mqtt5ConnAckException ex) {
-            connectResults.add(new Tuple<>(asciiChar, ex.getMqttMessage().getReasonCode().toString()));
-        } catch (final Exception ex) {
-            Logger.error("Connect with Ascii char '{}' failed", asciiChar);
-            connectResults.add(new Tuple<>(asciiChar, null));
-        }
-
-        disconnectIfConnected(client);
+    /**
+     * @param codePoints  distinct code points which are tested in client identifiers
+     * @param concurrency the maximum amount of connects at the same time
+     */
+    public @NotNull ClientIdCharsTestResults testClientIdChars(final @NotNull int[] codePoints, final int concurrency) {
+        return limitProber.probeClientIdChars(codePoints, concurrency);
     }
 
     // Helpers
@@ -691,4 +439,81 @@ public class Mqtt5FeatureTester {
             }
         }
     }
+
+    private class Mqtt5ProbeClient implements ProbeClient {
+
+        private final @NotNull Mqtt5Client client;
+        private final @NotNull BlockingQueue<byte[]> payloads = new LinkedBlockingQueue<>();
+
+        Mqtt5ProbeClient(final @Nullable String identifier) {
+            final Mqtt5ClientBuilder clientBuilder = getClientBuilder();
+            if (identifier != null) {
+                clientBuilder.identifier(identifier);
+            }
+            client = clientBuilder.build();
+        }
+
+        @Override
+        public @NotNull String connect() throws Exception {
+            try {
+                return client.toAsync().connect().get(timeOut, TimeUnit.SECONDS).getReasonCode().toString();
+            } catch (final ExecutionException ex) {
+                if (ex.getCause() instanceof Mqtt5ConnAckException) {
+                    return ((Mqtt5ConnAckException) ex.getCause()).getMqttMessage().getReasonCode().toString();
+                }
+                throw ex;
+            }
+        }
+
+        @Override
+        public boolean isConnected() {
+            return client.getState().isConnected();
+        }
+
+        @Override
+        public void subscribe(final @NotNull String topicFilter) throws Exception {
+            client.toAsync().subscribeWith()
+                    .topicFilter(topicFilter)
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .callback(publish -> payloads.add(publish.getPayloadAsBytes()))
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void unsubscribe(final @NotNull String topicFilter) throws Exception {
+            client.toAsync().unsubscribeWith()
+                    .topicFilter(topicFilter)
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void publish(final @NotNull String topic, final @NotNull byte[] payload) throws Exception {
+            final Optional<Throwable> error = client.toAsync().publishWith()
+                    .topic(topic)
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .payload(payload)
+                    .send()
+                    .get(timeOut, TimeUnit.SECONDS)
+                    .getError();
+            if (error.isPresent()) {
+                throw new ExecutionException(error.get());
+            }
+        }
+
+        @Override
+        public @Nullable byte[] receive(final long deadline) throws InterruptedException {
+            return payloads.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void disconnect() {
+            try {
+                disconnectIfConnected(client);
+            } catch (final Exception ex) {
+                Logger.debug(ex, "Disconnect of probe client failed");
+            }
+        }
+    }
 }
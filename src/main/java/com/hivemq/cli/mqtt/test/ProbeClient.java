@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A client of either MQTT version with which the {@link LimitProber} probes a broker. Subscriptions and publishes use
+ * QoS 1.
+ */
+interface ProbeClient {
+
+    /**
+     * @return the reason or return code of the CONNACK, {@code SUCCESS} if connected
+     * @throws Exception if the broker did not answer with a CONNACK
+     */
+    @NotNull String connect() throws Exception;
+
+    boolean isConnected();
+
+    /**
+     * The payloads of the publishes for the subscription are returned by {@link #receive(long)}.
+     */
+    void subscribe(@NotNull String topicFilter) throws Exception;
+
+    void unsubscribe(@NotNull String topicFilter) throws Exception;
+
+    /**
+     * Returns as soon as the broker acknowledged the publish.
+     */
+    void publish(@NotNull String topic, @NotNull byte[] payload) throws Exception;
+
+    /**
+     * @param deadline the {@link System#nanoTime()} until which is waited
+     * @return the payload of the next received publish or null if none was received before the deadline
+     */
+    @Nullable byte[] receive(long deadline) throws InterruptedException;
+
+    void disconnect();
+}
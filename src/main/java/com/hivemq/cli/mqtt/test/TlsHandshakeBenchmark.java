@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.mqtt.test.results.TlsHandshakeTestResults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * Measures the client side cost of full TLS handshakes with the broker.
+ * <p>
+ * Every handshake uses a new SSL context, so no session is resumed. The TCP connect and the creation of the context
+ * are not measured. The handshake runs on the calling thread, so the thread's CPU time is the client's CPU time for
+ * the handshake.
+ */
+public class TlsHandshakeBenchmark {
+
+    private final @NotNull String host;
+    private final int port;
+    private final int handshakes;
+    private final int timeoutMillis;
+    private final @NotNull ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    public TlsHandshakeBenchmark(final @NotNull String host, final int port, final int handshakes, final int timeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.handshakes = handshakes;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public @NotNull TlsHandshakeTestResults run(
+            final @NotNull String protocol,
+            final @Nullable String cipherSuite,
+            final @Nullable TrustManagerFactory trustManagerFactory,
+            final @Nullable KeyManagerFactory keyManagerFactory) {
+
+        final boolean measureCpu = threadMXBean.isCurrentThreadCpuTimeSupported();
+        final long[] latencies = new long[handshakes];
+        int successful = 0;
+        long cpuTime = 0;
+        String negotiatedCipherSuite = null;
+        String error = null;
+
+        for (int i = 0; i < handshakes; i++) {
+            try {
+                final SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(
+                        keyManagerFactory != null ? keyManagerFactory.getKeyManagers() : null,
+                        trustManagerFactory != null ? trustManagerFactory.getTrustManagers() : null,
+                        null);
+
+                try (final Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+                    socket.setSoTimeout(timeoutMillis);
+
+                    try (final SSLSocket sslSocket = (SSLSocket) sslContext.getSocketFactory().createSocket(socket, host, port, true)) {
+                        sslSocket.setEnabledProtocols(new String[]{protocol});
+                        if (cipherSuite != null) {
+                            sslSocket.setEnabledCipherSuites(new String[]{cipherSuite});
+                        }
+
+                        final long cpuStart = measureCpu ? threadMXBean.getCurrentThreadCpuTime() : 0;
+                        final long start = System.nanoTime();
+                        sslSocket.startHandshake();
+                        latencies[successful] = System.nanoTime() - start;
+                        cpuTime += measureCpu ? threadMXBean.getCurrentThreadCpuTime() - cpuStart : 0;
+
+                        negotiatedCipherSuite = sslSocket.getSession().getCipherSuite();
+                        successful++;
+                    }
+                }
+            }
+            catch (final Exception ex) {
+                // the same combination fails the same way every time
+                error = Throwables.getRootCause(ex).getMessage();
+                break;
+            }
+        }
+
+        return new TlsHandshakeTestResults(
+                protocol,
+                cipherSuite,
+                keyManagerFactory != null,
+                handshakes,
+                Arrays.copyOf(latencies, successful),
+                measureCpu ? cpuTime : -1,
+                negotiatedCipherSuite,
+                error);
+    }
+}
@@ -18,27 +18,34 @@ package com.hivemq.cli.mqtt.test.results;
 
 import com.hivemq.cli.utils.Tuple;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
 
-public class AsciiCharsInClientIdTestResults {
-    private final @NotNull List<@NotNull Tuple<Character, String>> testResults;
+public class ClientIdCharsTestResults {
+    private final @NotNull List<@NotNull Tuple<Integer, String>> testResults;
 
-    public AsciiCharsInClientIdTestResults(final @NotNull List<Tuple<Character, String>> testResults) {
+    /**
+     * @param testResults the connect result for every tested code point in ascending order
+     */
+    public ClientIdCharsTestResults(final @NotNull List<Tuple<Integer, String>> testResults) {
         this.testResults = testResults;
     }
 
-    public @NotNull List<@NotNull Tuple<Character, String>> getTestResults() {
+    public @NotNull List<@NotNull Tuple<Integer, String>> getTestResults() {
         return testResults;
     }
 
-    public @NotNull List<Character> getUnsupportedChars() {
-        final List<Character> unsupportedChars = new LinkedList<>();
-        for (Tuple<Character, String> tuple : testResults) {
+    /**
+     * @return the unsupported characters, control characters as their code point, e.g. {@code U+007F}
+     */
+    public @NotNull List<String> getUnsupportedChars() {
+        final List<String> unsupportedChars = new LinkedList<>();
+        for (Tuple<Integer, String> tuple : testResults) {
             if (tuple.getValue() == null || !("SUCCESS").equals(tuple.getValue())) {
-                unsupportedChars.add(tuple.getKey());
+                final int codePoint = tuple.getKey();
+                unsupportedChars.add(Character.isISOControl(codePoint) ?
+                        String.format("U+%04X", codePoint) : new String(Character.toChars(codePoint)));
             }
         }
         return unsupportedChars;
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test.results;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class TlsHandshakeTestResults {
+
+    private final @NotNull String protocol;
+    private final @Nullable String cipherSuite;
+    private final boolean clientCertificate;
+    private final int attempts;
+    private final @NotNull long[] sortedLatencies;
+    private final long cpuTime;
+    private final @Nullable String negotiatedCipherSuite;
+    private final @Nullable String error;
+
+    /**
+     * @param latencies the handshake latencies in nanoseconds of the successful handshakes
+     * @param cpuTime   the summed client CPU time in nanoseconds of the successful handshakes or -1 if not measured
+     */
+    public TlsHandshakeTestResults(
+            final @NotNull String protocol,
+            final @Nullable String cipherSuite,
+            final boolean clientCertificate,
+            final int attempts,
+            final @NotNull long[] latencies,
+            final long cpuTime,
+            final @Nullable String negotiatedCipherSuite,
+            final @Nullable String error) {
+
+        this.protocol = protocol;
+        this.cipherSuite = cipherSuite;
+        this.clientCertificate = clientCertificate;
+        this.attempts = attempts;
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(this.sortedLatencies);
+        this.cpuTime = cpuTime;
+        this.negotiatedCipherSuite = negotiatedCipherSuite;
+        this.error = error;
+    }
+
+    public @NotNull String getProtocol() {
+        return protocol;
+    }
+
+    public @Nullable String getCipherSuite() {
+        return cipherSuite;
+    }
+
+    public boolean isClientCertificate() {
+        return clientCertificate;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getSuccessful() {
+        return sortedLatencies.length;
+    }
+
+    /**
+     * @param percentile between 1 and 100
+     * @return the nearest-rank percentile of the handshake latency in nanoseconds or -1 if no handshake succeeded
+     */
+    public long getLatencyPercentile(final int percentile) {
+        if (sortedLatencies.length == 0) {
+            return -1;
+        }
+        final int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+        return sortedLatencies[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * @return the mean client CPU time per successful handshake in nanoseconds or -1 if it could not be measured
+     */
+    public long getCpuTimePerHandshake() {
+        if (cpuTime < 0 || sortedLatencies.length == 0) {
+            return -1;
+        }
+        return cpuTime / sortedLatencies.length;
+    }
+
+    public @Nullable String getNegotiatedCipherSuite() {
+        return negotiatedCipherSuite;
+    }
+
+    public @Nullable String getError() {
+        return error;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        final StringBuilder builder = new StringBuilder()
+                .append(protocol).append(' ')
+                .append(negotiatedCipherSuite != null ? negotiatedCipherSuite : (cipherSuite != null ? cipherSuite : "default ciphers"))
+                .append(clientCertificate ? " (client certificate)" : "")
+                .append(": ").append(getSuccessful()).append('/').append(attempts).append(" handshakes");
+
+        if (sortedLatencies.length > 0) {
+            builder.append(String.format(Locale.ROOT, ", p50 %.2fms, p90 %.2fms, p99 %.2fms, max %.2fms",
+                    getLatencyPercentile(50) / 1e6,
+                    getLatencyPercentile(90) / 1e6,
+                    getLatencyPercentile(99) / 1e6,
+                    getLatencyPercentile(100) / 1e6));
+            if (getCpuTimePerHandshake() >= 0) {
+                builder.append(String.format(Locale.ROOT, ", cpu %.2fms/handshake", getCpuTimePerHandshake() / 1e6));
+            }
+        }
+        if (error != null) {
+            builder.append(", error: ").append(error);
+        }
+        return builder.toString();
+    }
+}
@@ -17,6 +17,7 @@
 package com.hivemq.cli.utils;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.io.File;
@@ -27,6 +28,32 @@ import java.io.PrintWriter;
 
 public class FileUtils {
 
+    private static final @NotNull ThreadLocal<File> WORKING_DIRECTORY = new ThreadLocal<>();
+
+    /**
+     * Sets the directory relative paths of the current thread are resolved against, e.g. the working directory of an
+     * invocation forwarded to the daemon.
+     *
+     * @param workingDirectory the directory or null to use the working directory of this process again
+     */
+    public static void setWorkingDirectory(final @Nullable File workingDirectory) {
+        if (workingDirectory == null) {
+            WORKING_DIRECTORY.remove();
+        }
+        else {
+            WORKING_DIRECTORY.set(workingDirectory);
+        }
+    }
+
+    public static @NotNull File resolve(final @NotNull String path) {
+        final File file = new File(path);
+        final File workingDirectory = WORKING_DIRECTORY.get();
+        if (workingDirectory == null || file.isAbsolute()) {
+            return file;
+        }
+        return new File(workingDirectory, path);
+    }
+
     public static PrintWriter createFileAppender(@NotNull File file)  {
 
         OutputStream out = null;
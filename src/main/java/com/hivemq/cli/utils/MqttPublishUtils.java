@@ -16,17 +16,17 @@
  */
 package com.hivemq.cli.utils;
 
-import org.bouncycastle.util.encoders.Base64;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.PrintWriter;
+import java.util.Base64;
 
 public class MqttPublishUtils {
 
     public static String formatPayload(final byte[] payload, final boolean isBase64) {
         if (isBase64) {
-            return Base64.toBase64String(payload);
+            return Base64.getEncoder().encodeToString(payload);
         }
         else {
             return new String(payload);
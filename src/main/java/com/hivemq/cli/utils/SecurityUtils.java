@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import java.security.Security;
+
+public class SecurityUtils {
+
+    private static volatile boolean unlimitedCryptoPolicy;
+
+    private SecurityUtils() {
+    }
+
+    // has to be called before the first cipher is created, the policy is read once by the JCE
+    public static void useUnlimitedCryptoPolicy() {
+        if (!unlimitedCryptoPolicy) {
+            Security.setProperty("crypto.policy", "unlimited");
+            unlimitedCryptoPolicy = true;
+        }
+    }
+}
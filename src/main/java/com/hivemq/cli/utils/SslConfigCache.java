@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import com.hivemq.client.mqtt.MqttClientSslConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide cache of the built SSL configs.
+ * <p>
+ * Building the key stores and initializing the trust and key manager factories is only done once for the same
+ * certificates, private key, cipher suites and protocols, so every further command (e.g. each connect in the shell)
+ * reuses the config. The configs are looked up by the SHA-256 fingerprints of the certificates and the key.
+ */
+public class SslConfigCache {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final @NotNull Map<String, MqttClientSslConfig> CACHE = new ConcurrentHashMap<>();
+
+    private SslConfigCache() {
+    }
+
+    public static @NotNull MqttClientSslConfig getSslConfig(
+            final @Nullable Collection<X509Certificate> trustedCertificates,
+            final @Nullable X509Certificate clientCertificate,
+            final @Nullable PrivateKey clientPrivateKey,
+            final @Nullable Collection<String> cipherSuites,
+            final @NotNull Collection<String> protocols) throws Exception {
+
+        SecurityUtils.useUnlimitedCryptoPolicy();
+
+        final String key = buildKey(trustedCertificates, clientCertificate, clientPrivateKey, cipherSuites, protocols);
+        final MqttClientSslConfig cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // build trustManagerFactory for server side authentication and to enable tls
+        TrustManagerFactory trustManagerFactory = null;
+        if (trustedCertificates != null && !trustedCertificates.isEmpty()) {
+            trustManagerFactory = buildTrustManagerFactory(trustedCertificates);
+        }
+
+        // build keyManagerFactory if clientSideAuthentication is used
+        KeyManagerFactory keyManagerFactory = null;
+        if (clientCertificate != null && clientPrivateKey != null) {
+            keyManagerFactory = buildKeyManagerFactory(clientCertificate, clientPrivateKey);
+        }
+
+        final MqttClientSslConfig sslConfig = MqttClientSslConfig.builder()
+                .trustManagerFactory(trustManagerFactory)
+                .keyManagerFactory(keyManagerFactory)
+                .cipherSuites(cipherSuites)
+                .protocols(protocols)
+                .build();
+
+        // a config built concurrently for the same key is equal, keep the first one
+        final MqttClientSslConfig previous = CACHE.putIfAbsent(key, sslConfig);
+        return previous != null ? previous : sslConfig;
+    }
+
+    static int size() {
+        return CACHE.size();
+    }
+
+    static void clear() {
+        CACHE.clear();
+    }
+
+    private static @NotNull String buildKey(
+            final @Nullable Collection<X509Certificate> trustedCertificates,
+            final @Nullable X509Certificate clientCertificate,
+            final @Nullable PrivateKey clientPrivateKey,
+            final @Nullable Collection<String> cipherSuites,
+            final @NotNull Collection<String> protocols) throws NoSuchAlgorithmException, CertificateEncodingException {
+
+        // the order of the trusted certificates does not change the trust
+        final List<String> trustedFingerprints = new ArrayList<>();
+        if (trustedCertificates != null) {
+            for (final X509Certificate certificate : trustedCertificates) {
+                trustedFingerprints.add(fingerprint(certificate.getEncoded()));
+            }
+            Collections.sort(trustedFingerprints);
+        }
+
+        return "ca=" + trustedFingerprints +
+                ";cert=" + (clientCertificate != null ? fingerprint(clientCertificate.getEncoded()) : "") +
+                ";key=" + (clientPrivateKey != null && clientPrivateKey.getEncoded() != null ? fingerprint(clientPrivateKey.getEncoded()) : "") +
+                ";ciphers=" + cipherSuites +
+                ";protocols=" + protocols;
+    }
+
+    static @NotNull String fingerprint(final @NotNull byte[] encoded) throws NoSuchAlgorithmException {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(encoded);
+        final char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static @NotNull TrustManagerFactory buildTrustManagerFactory(final @NotNull Collection<X509Certificate> certCollection) throws Exception {
+
+        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+        ks.load(null, null);
+
+        // add all certificates of the collection to the KeyStore
+        int i = 1;
+        for (final X509Certificate cert : certCollection) {
+            final String alias = Integer.toString(i);
+            ks.setCertificateEntry(alias, cert);
+            i++;
+        }
+
+        final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+
+        trustManagerFactory.init(ks);
+
+        return trustManagerFactory;
+    }
+
+    private static @NotNull KeyManagerFactory buildKeyManagerFactory(final @NotNull X509Certificate cert, final @NotNull PrivateKey key) throws Exception {
+
+        final KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+
+        ks.load(null, null);
+
+        final Certificate[] certChain = new Certificate[1];
+        certChain[0] = cert;
+        ks.setKeyEntry("mykey", key, null, certChain);
+
+        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+
+        keyManagerFactory.init(ks, null);
+
+        return keyManagerFactory;
+    }
+}
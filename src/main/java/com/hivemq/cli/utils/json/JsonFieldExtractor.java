@@ -0,0 +1,350 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts a single numeric field from a JSON payload.
+ * <p>
+ * The path (e.g. {@code $.sensor.temperature} or {@code $.values[2]}) is compiled once and the extraction scans the
+ * UTF-8 payload bytes directly, skipping every value which is not on the path. No intermediate JSON tree or String
+ * of the payload is created.
+ * Numbers given as JSON strings (e.g. {@code "21.5"}) are accepted as well.
+ */
+public class JsonFieldExtractor {
+
+    static final String INVALID_PATH = "The JSON path has to start with '$' and may only contain '.name' and '[index]' segments";
+
+    private static final int END = -1;
+    private static final int MAX_NUMBER_LENGTH = 64;
+
+    private final @NotNull String path;
+    private final @NotNull byte[][] names;
+    private final @NotNull int[] indices;
+
+    private JsonFieldExtractor(final @NotNull String path, final @NotNull byte[][] names, final @NotNull int[] indices) {
+        this.path = path;
+        this.names = names;
+        this.indices = indices;
+    }
+
+    public static @NotNull JsonFieldExtractor compile(final @NotNull String path) {
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException(INVALID_PATH);
+        }
+
+        final List<byte[]> names = new ArrayList<>();
+        final List<Integer> indices = new ArrayList<>();
+
+        int i = 1;
+        while (i < path.length()) {
+            final char c = path.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == i + 1) {
+                    throw new IllegalArgumentException(INVALID_PATH);
+                }
+                names.add(path.substring(i + 1, end).getBytes(StandardCharsets.UTF_8));
+                indices.add(-1);
+                i = end;
+            }
+            else if (c == '[') {
+                final int end = path.indexOf(']', i);
+                if (end == -1) {
+                    throw new IllegalArgumentException(INVALID_PATH);
+                }
+                final int index;
+                try {
+                    index = Integer.parseInt(path.substring(i + 1, end));
+                }
+                catch (final NumberFormatException ex) {
+                    throw new IllegalArgumentException(INVALID_PATH);
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException(INVALID_PATH);
+                }
+                names.add(null);
+                indices.add(index);
+                i = end + 1;
+            }
+            else {
+                throw new IllegalArgumentException(INVALID_PATH);
+            }
+        }
+
+        final int[] indexArray = new int[indices.size()];
+        for (int j = 0; j < indexArray.length; j++) {
+            indexArray[j] = indices.get(j);
+        }
+
+        return new JsonFieldExtractor(path, names.toArray(new byte[0][]), indexArray);
+    }
+
+    /**
+     * @param payload the JSON payload, its position and limit are not modified
+     * @return the numeric value at the compiled path or {@link Double#NaN} if the payload does not contain a number
+     *         at the path or is not valid JSON
+     */
+    public double extract(final @NotNull ByteBuffer payload) {
+        final Cursor cursor = new Cursor(payload);
+        try {
+            return extract(cursor, 0);
+        }
+        catch (final IllegalStateException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private double extract(final @NotNull Cursor cursor, final int segment) {
+        cursor.skipWhitespace();
+
+        if (segment == names.length) {
+            return cursor.readNumber();
+        }
+
+        if (names[segment] != null) {
+            if (cursor.peek() != '{') {
+                return Double.NaN;
+            }
+            cursor.advance();
+            cursor.skipWhitespace();
+            if (cursor.peek() == '}') {
+                return Double.NaN;
+            }
+            while (true) {
+                cursor.skipWhitespace();
+                final boolean matches = cursor.matchString(names[segment]);
+                cursor.skipWhitespace();
+                cursor.expect(':');
+                if (matches) {
+                    return extract(cursor, segment + 1);
+                }
+                cursor.skipValue();
+                cursor.skipWhitespace();
+                if (cursor.peek() != ',') {
+                    return Double.NaN;
+                }
+                cursor.advance();
+            }
+        }
+        else {
+            if (cursor.peek() != '[') {
+                return Double.NaN;
+            }
+            cursor.advance();
+            cursor.skipWhitespace();
+            if (cursor.peek() == ']') {
+                return Double.NaN;
+            }
+            int index = 0;
+            while (true) {
+                if (index == indices[segment]) {
+                    return extract(cursor, segment + 1);
+                }
+                cursor.skipValue();
+                cursor.skipWhitespace();
+                if (cursor.peek() != ',') {
+                    return Double.NaN;
+                }
+                cursor.advance();
+                index++;
+            }
+        }
+    }
+
+    public @NotNull String getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    // Read position inside a single payload, one instance per extraction so the extractor can be shared between threads
+    private static class Cursor {
+
+        private final @NotNull ByteBuffer buffer;
+        private final int limit;
+        private int position;
+
+        Cursor(final @NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        int peek() {
+            return position < limit ? buffer.get(position) : END;
+        }
+
+        void advance() {
+            position++;
+        }
+
+        void expect(final char c) {
+            if (peek() != c) {
+                throw new IllegalStateException();
+            }
+            position++;
+        }
+
+        void skipWhitespace() {
+            while (position < limit) {
+                final byte b = buffer.get(position);
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        // compares the string at the current position with the expected bytes and moves behind the closing quote
+        boolean matchString(final @NotNull byte[] expected) {
+            expect('"');
+            boolean matches = true;
+            int i = 0;
+            while (true) {
+                final int b = peek();
+                if (b == END) {
+                    throw new IllegalStateException();
+                }
+                position++;
+                if (b == '"') {
+                    return matches && i == expected.length;
+                }
+                if (b == '\\') {
+                    // escaped names are not compared
+                    matches = false;
+                    if (peek() == END) {
+                        throw new IllegalStateException();
+                    }
+                    position++;
+                    continue;
+                }
+                if (i >= expected.length || expected[i] != b) {
+                    matches = false;
+                }
+                i++;
+            }
+        }
+
+        void skipValue() {
+            skipWhitespace();
+            final int b = peek();
+            if (b == '"') {
+                skipString();
+            }
+            else if (b == '{' || b == '[') {
+                skipContainer();
+            }
+            else if (b == END) {
+                throw new IllegalStateException();
+            }
+            else {
+                while (position < limit) {
+                    final byte c = buffer.get(position);
+                    if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                        return;
+                    }
+                    position++;
+                }
+            }
+        }
+
+        private void skipString() {
+            position++;
+            while (true) {
+                final int b = peek();
+                if (b == END) {
+                    throw new IllegalStateException();
+                }
+                position++;
+                if (b == '\\') {
+                    position++;
+                }
+                else if (b == '"') {
+                    return;
+                }
+            }
+        }
+
+        private void skipContainer() {
+            int depth = 0;
+            while (true) {
+                final int b = peek();
+                if (b == END) {
+                    throw new IllegalStateException();
+                }
+                if (b == '"') {
+                    skipString();
+                    continue;
+                }
+                position++;
+                if (b == '{' || b == '[') {
+                    depth++;
+                }
+                else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        double readNumber() {
+            final boolean quoted = peek() == '"';
+            if (quoted) {
+                position++;
+            }
+
+            final char[] chars = new char[MAX_NUMBER_LENGTH];
+            int length = 0;
+            while (position < limit && length < MAX_NUMBER_LENGTH) {
+                final byte b = buffer.get(position);
+                if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                    chars[length++] = (char) b;
+                    position++;
+                }
+                else {
+                    break;
+                }
+            }
+
+            if (length == 0 || (quoted && peek() != '"')) {
+                return Double.NaN;
+            }
+
+            try {
+                return Double.parseDouble(new String(chars, 0, length));
+            }
+            catch (final NumberFormatException ex) {
+                return Double.NaN;
+            }
+        }
+    }
+}
@@ -19,7 +19,7 @@ package com.hivemq.cli.utils.json;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
-abstract class JsonFormatted {
+public abstract class JsonFormatted {
 
      private final static Gson gson = new GsonBuilder()
             .setPrettyPrinting()
@@ -77,6 +77,9 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertNull(defaultCLIProperties.getNettyThreads());
+        assertTrue(defaultCLIProperties.isSharedEventLoop());
+        assertTrue(defaultCLIProperties.isEpoll());
     }
 
     @Test
@@ -96,6 +99,9 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertNull(defaultCLIProperties.getNettyThreads());
+        assertTrue(defaultCLIProperties.isSharedEventLoop());
+        assertTrue(defaultCLIProperties.isEpoll());
     }
 
     @Test
@@ -115,6 +121,9 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertEquals(4, defaultCLIProperties.getNettyThreads());
+        assertFalse(defaultCLIProperties.isSharedEventLoop());
+        assertFalse(defaultCLIProperties.isEpoll());
     }
 
     @Test
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the classes loaded by common commands of the shadow jar into a class list, from which a JVM creates its
+ * application class-data-sharing (AppCDS) archive with
+ * {@code java -Xshare:dump -XX:SharedClassListFile=<class list> -XX:SharedArchiveFile=<archive> -cp <jar>}.
+ * <p>
+ * The class list only contains class names, so it is shipped in the packages and the archive is created on
+ * installation by the JVM which uses it. An archive is only valid for the JVM and the jar path it was created with.
+ * <p>
+ * Usage: {@code AppCdsTraining --jar <shadow jar> --classList <file> [--archive <file>]}. With {@code --archive} the
+ * archive for the running JVM and the given jar is created as well, e.g. for the startup benchmark.
+ */
+public class AppCdsTraining {
+
+    private static final int MIN_JAVA_VERSION = 11;
+
+    private AppCdsTraining() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        File jar = null;
+        File classList = null;
+        File archive = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--jar":
+                    jar = new File(args[i + 1]);
+                    break;
+                case "--classList":
+                    classList = new File(args[i + 1]);
+                    break;
+                case "--archive":
+                    archive = new File(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (jar == null || classList == null) {
+            throw new IllegalArgumentException("The shadow jar and the class list have to be given with --jar and --classList");
+        }
+
+        // the class list can not be recorded before Java 11 and the packages are built without it
+        if (javaVersion() < MIN_JAVA_VERSION) {
+            System.err.println("Skipping the AppCDS training, it requires Java " + MIN_JAVA_VERSION + " or newer");
+            Files.deleteIfExists(classList.toPath());
+            return;
+        }
+
+        final CliProcesses processes = new CliProcesses(Files.createTempDirectory("mqtt-cli-appcds").toFile());
+        train(processes, jar, classList);
+        System.out.println("AppCDS class list written to " + classList.getPath());
+
+        if (archive != null) {
+            dump(processes, jar, classList, archive);
+            System.out.println("AppCDS archive written to " + archive.getPath());
+        }
+    }
+
+    static void train(final @NotNull CliProcesses processes, final @NotNull File jar, final @NotNull File classList) throws Exception {
+        final Set<String> classes = new LinkedHashSet<>();
+        final File recordDir = new File(processes.getHome(), "classlists");
+        if (!recordDir.mkdirs() && !recordDir.isDirectory()) {
+            throw new IOException("Could not create " + recordDir.getPath());
+        }
+
+        try (final BrokerStandIn broker = new BrokerStandIn()) {
+            broker.retain(StartupBenchmark.SUBSCRIBE_TOPIC, StartupBenchmark.PAYLOAD.getBytes(StandardCharsets.UTF_8));
+            final String port = String.valueOf(broker.getPort());
+
+            final List<String[]> exitingCommands = Arrays.asList(
+                    new String[]{"--version"},
+                    new String[]{"pub", "--help"},
+                    new String[]{"pub", "-h", "localhost", "-p", port, "-t", StartupBenchmark.PUBLISH_TOPIC, "-m", StartupBenchmark.PAYLOAD},
+                    new String[]{"pub", "-h", "localhost", "-p", port, "-V", "3", "-q", "1", "-t", StartupBenchmark.PUBLISH_TOPIC, "-m", StartupBenchmark.PAYLOAD});
+            int run = 0;
+            for (final String[] command : exitingCommands) {
+                final File recorded = new File(recordDir, (run++) + ".classlist");
+                processes.exitTime(recordingCommand(processes, jar, recorded), command);
+                classes.addAll(Files.readAllLines(recorded.toPath(), StandardCharsets.UTF_8));
+            }
+
+            final File recorded = new File(recordDir, run + ".classlist");
+            processes.outputTime(StartupBenchmark.PAYLOAD, recordingCommand(processes, jar, recorded),
+                    "sub", "-h", "localhost", "-p", port, "-t", StartupBenchmark.SUBSCRIBE_TOPIC);
+            classes.addAll(Files.readAllLines(recorded.toPath(), StandardCharsets.UTF_8));
+        }
+
+        final File parent = classList.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        Files.write(classList.toPath(), new ArrayList<>(classes), StandardCharsets.UTF_8);
+    }
+
+    static void dump(
+            final @NotNull CliProcesses processes,
+            final @NotNull File jar,
+            final @NotNull File classList,
+            final @NotNull File archive) throws Exception {
+
+        processes.exitTime(processes.javaCommand(
+                "-Xshare:dump",
+                "-XX:SharedClassListFile=" + classList.getAbsolutePath(),
+                "-XX:SharedArchiveFile=" + archive.getAbsolutePath(),
+                "-cp", jar.getAbsolutePath()));
+    }
+
+    private static @NotNull List<String> recordingCommand(
+            final @NotNull CliProcesses processes,
+            final @NotNull File jar,
+            final @NotNull File recorded) {
+
+        return processes.javaCommand("-Xshare:off", "-XX:DumpLoadedClassList=" + recorded.getAbsolutePath(), "-jar", jar.getAbsolutePath());
+    }
+
+    private static int javaVersion() {
+        final String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+}
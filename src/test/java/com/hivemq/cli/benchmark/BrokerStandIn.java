@@ -0,0 +1,612 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLContext;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A minimal MQTT 3.1.1 and 5 broker on the loopback interface, which makes the startup benchmark independent of an
+ * installed broker.
+ * <p>
+ * It accepts every connection, acknowledges QoS 0 and 1 publishes, keeps retained messages and delivers publishes with
+ * QoS 0 to matching subscriptions. Sessions, QoS 2, will messages and flow control are not supported.
+ * <p>
+ * The connections may be secured with TLS and MQTT may be transported in binary WebSocket frames on any path.
+ */
+class BrokerStandIn implements Closeable {
+
+    private static final int CONNECT = 1;
+    private static final int PUBLISH = 3;
+    private static final int SUBSCRIBE = 8;
+    private static final int UNSUBSCRIBE = 10;
+    private static final int PINGREQ = 12;
+    private static final int DISCONNECT = 14;
+
+    private static final int ASSIGNED_CLIENT_IDENTIFIER = 0x12;
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int WEBSOCKET_BINARY_FRAME = 0x82;
+    private static final int WEBSOCKET_CLOSE = 8;
+
+    private final @NotNull ServerSocket serverSocket;
+    private final boolean webSocket;
+    private final @NotNull List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final @NotNull Map<String, byte[]> retained = new ConcurrentHashMap<>();
+    private final @NotNull AtomicLong receivedPublishes = new AtomicLong();
+    private final @NotNull AtomicInteger assignedIdentifiers = new AtomicInteger();
+
+    BrokerStandIn() throws IOException {
+        this(null, false);
+    }
+
+    /**
+     * @param sslContext the context of the TLS server or null for plain TCP
+     * @param webSocket  whether the connections are upgraded to WebSocket connections first
+     */
+    BrokerStandIn(final @Nullable SSLContext sslContext, final boolean webSocket) throws IOException {
+        serverSocket = sslContext == null ?
+                new ServerSocket(0, 50, InetAddress.getLoopbackAddress()) :
+                sslContext.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.webSocket = webSocket;
+        final Thread acceptor = new Thread(this::accept, "broker-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    long getReceivedPublishes() {
+        return receivedPublishes.get();
+    }
+
+    void retain(final @NotNull String topic, final @NotNull byte[] payload) {
+        retained.put(topic, payload);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (final Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                final Thread thread = new Thread(connection, "broker-stand-in-connection");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            catch (final IOException ignored) {
+                // the server socket was closed
+            }
+        }
+    }
+
+    private void deliver(final @NotNull String topic, final @NotNull byte[] payload, final boolean retain) {
+        for (final Connection connection : connections) {
+            if (connection.isSubscribed(topic)) {
+                connection.sendPublish(topic, payload, retain);
+            }
+        }
+    }
+
+    static boolean matches(final @NotNull String filter, final @NotNull String topic) {
+        final String[] filterLevels = filter.split("/", -1);
+        final String[] topicLevels = topic.split("/", -1);
+        for (int i = 0; i < filterLevels.length; i++) {
+            if (filterLevels[i].equals("#")) {
+                return true;
+            }
+            if (i >= topicLevels.length) {
+                return false;
+            }
+            if (!filterLevels[i].equals("+") && !filterLevels[i].equals(topicLevels[i])) {
+                return false;
+            }
+        }
+        return filterLevels.length == topicLevels.length;
+    }
+
+    private class Connection implements Runnable, Closeable {
+
+        private final @NotNull Socket socket;
+        private final @NotNull Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+        private @Nullable OutputStream out;
+        private boolean mqtt5;
+
+        Connection(final @NotNull Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                socket.setTcpNoDelay(true);
+                InputStream socketIn = socket.getInputStream();
+                OutputStream socketOut = socket.getOutputStream();
+                if (webSocket) {
+                    upgrade(socketIn, socketOut);
+                    socketIn = new WebSocketInputStream(socketIn);
+                    socketOut = new WebSocketOutputStream(socketOut);
+                }
+                out = socketOut;
+                final DataInputStream in = new DataInputStream(socketIn);
+                while (true) {
+                    final int header = in.read();
+                    if (header == -1) {
+                        return;
+                    }
+                    final byte[] packet = new byte[readVariableInt(in)];
+                    in.readFully(packet);
+                    if (!handle(header, new Reader(packet))) {
+                        return;
+                    }
+                }
+            }
+            catch (final IOException ignored) {
+                // the client closed the connection
+            }
+            finally {
+                close();
+            }
+        }
+
+        private boolean handle(final int header, final @NotNull Reader packet) throws IOException {
+            switch (header >> 4) {
+                case CONNECT:
+                    packet.readString();
+                    mqtt5 = packet.readByte() == 5;
+                    packet.skip(3);
+                    if (mqtt5) {
+                        packet.skip(packet.readVariableInt());
+                    }
+                    final String identifier = packet.readString();
+                    final Writer connAck = new Writer().writeByte(0).writeByte(0);
+                    if (mqtt5) {
+                        if (identifier.isEmpty()) {
+                            final Writer properties = new Writer().writeByte(ASSIGNED_CLIENT_IDENTIFIER)
+                                    .writeString("stand-in-" + assignedIdentifiers.incrementAndGet());
+                            connAck.writeVariableInt(properties.size()).writeBytes(properties.toByteArray());
+                        }
+                        else {
+                            connAck.writeVariableInt(0);
+                        }
+                    }
+                    send(0x20, connAck);
+                    return true;
+                case PUBLISH:
+                    final int qos = (header >> 1) & 3;
+                    final boolean retain = (header & 1) != 0;
+                    final String topic = packet.readString();
+                    final int packetId = qos > 0 ? packet.readShort() : 0;
+                    if (mqtt5) {
+                        packet.skip(packet.readVariableInt());
+                    }
+                    final byte[] payload = packet.readRemaining();
+                    receivedPublishes.incrementAndGet();
+                    if (retain) {
+                        if (payload.length == 0) {
+                            retained.remove(topic);
+                        }
+                        else {
+                            retained.put(topic, payload);
+                        }
+                    }
+                    if (qos == 1) {
+                        send(0x40, new Writer().writeShort(packetId));
+                    }
+                    deliver(topic, payload, false);
+                    return true;
+                case SUBSCRIBE:
+                    final int subscribeId = packet.readShort();
+                    if (mqtt5) {
+                        packet.skip(packet.readVariableInt());
+                    }
+                    final List<String> filters = new ArrayList<>();
+                    while (packet.remaining() > 0) {
+                        filters.add(packet.readString());
+                        packet.readByte();
+                    }
+                    final Writer subAck = new Writer().writeShort(subscribeId);
+                    if (mqtt5) {
+                        subAck.writeVariableInt(0);
+                    }
+                    for (int i = 0; i < filters.size(); i++) {
+                        subAck.writeByte(0);
+                    }
+                    subscriptions.addAll(filters);
+                    send(0x90, subAck);
+                    for (final Map.Entry<String, byte[]> entry : retained.entrySet()) {
+                        for (final String filter : filters) {
+                            if (matches(filter, entry.getKey())) {
+                                sendPublish(entry.getKey(), entry.getValue(), true);
+                                break;
+                            }
+                        }
+                    }
+                    return true;
+                case UNSUBSCRIBE:
+                    final int unsubscribeId = packet.readShort();
+                    if (mqtt5) {
+                        packet.skip(packet.readVariableInt());
+                    }
+                    final Writer unsubAck = new Writer().writeShort(unsubscribeId);
+                    if (mqtt5) {
+                        unsubAck.writeVariableInt(0);
+                    }
+                    while (packet.remaining() > 0) {
+                        subscriptions.remove(packet.readString());
+                        if (mqtt5) {
+                            unsubAck.writeByte(0);
+                        }
+                    }
+                    send(0xB0, unsubAck);
+                    return true;
+                case PINGREQ:
+                    send(0xD0, new Writer());
+                    return true;
+                case DISCONNECT:
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        boolean isSubscribed(final @NotNull String topic) {
+            for (final String filter : subscriptions) {
+                if (matches(filter, topic)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void sendPublish(final @NotNull String topic, final @NotNull byte[] payload, final boolean retain) {
+            final Writer publish = new Writer().writeString(topic);
+            if (mqtt5) {
+                publish.writeVariableInt(0);
+            }
+            publish.writeBytes(payload);
+            try {
+                send(retain ? 0x31 : 0x30, publish);
+            }
+            catch (final IOException ex) {
+                close();
+            }
+        }
+
+        private synchronized void send(final int header, final @NotNull Writer body) throws IOException {
+            if (out == null) {
+                return;
+            }
+            final Writer packet = new Writer().writeByte(header).writeVariableInt(body.size()).writeBytes(body.toByteArray());
+            out.write(packet.toByteArray());
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            }
+            catch (final IOException ignored) {
+            }
+        }
+    }
+
+    // answers the HTTP upgrade request with the first requested subprotocol, which is 'mqtt' for MQTT clients
+    private static void upgrade(final @NotNull InputStream in, final @NotNull OutputStream out) throws IOException {
+        String key = null;
+        String protocol = null;
+        String line;
+        while (!(line = readHttpLine(in)).isEmpty()) {
+            final int colon = line.indexOf(':');
+            if (colon == -1) {
+                continue;
+            }
+            final String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            final String value = line.substring(colon + 1).trim();
+            if (name.equals("sec-websocket-key")) {
+                key = value;
+            }
+            else if (name.equals("sec-websocket-protocol")) {
+                protocol = value.split(",")[0].trim();
+            }
+        }
+        if (key == null) {
+            throw new IOException("No WebSocket upgrade request");
+        }
+
+        final String accept;
+        try {
+            accept = Base64.getEncoder().encodeToString(
+                    MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+        }
+        catch (final NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        final String response = "HTTP/1.1 101 Switching Protocols\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + accept + "\r\n" +
+                (protocol != null ? "Sec-WebSocket-Protocol: " + protocol + "\r\n" : "") +
+                "\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    // reads byte by byte, so nothing after the request is consumed
+    private static @NotNull String readHttpLine(final @NotNull InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            final int b = in.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            if (b == '\n') {
+                final String string = new String(line.toByteArray(), StandardCharsets.US_ASCII);
+                return string.endsWith("\r") ? string.substring(0, string.length() - 1) : string;
+            }
+            line.write(b);
+        }
+    }
+
+    private static int readVariableInt(final @NotNull DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            final int b = in.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed remaining length");
+    }
+
+    // the MQTT bytes of the binary and continuation frames of a client, a close frame ends the stream
+    private static class WebSocketInputStream extends InputStream {
+
+        private final @NotNull DataInputStream in;
+        private @NotNull byte[] frame = new byte[0];
+        private int position;
+
+        WebSocketInputStream(final @NotNull InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (position == frame.length) {
+                if (!readFrame()) {
+                    return -1;
+                }
+            }
+            return frame[position++] & 0xFF;
+        }
+
+        private boolean readFrame() throws IOException {
+            final int first = in.read();
+            if (first == -1) {
+                return false;
+            }
+            final int second = in.readUnsignedByte();
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            }
+            else if (length == 127) {
+                length = in.readLong();
+            }
+            final byte[] mask = new byte[4];
+            if ((second & 0x80) != 0) {
+                in.readFully(mask);
+            }
+            final byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i & 3];
+            }
+
+            final int opcode = first & 0x0F;
+            if (opcode == WEBSOCKET_CLOSE) {
+                return false;
+            }
+            // ping and pong frames are ignored
+            if (opcode <= 2) {
+                frame = payload;
+                position = 0;
+            }
+            return true;
+        }
+    }
+
+    // every write is sent as one unmasked binary frame
+    private static class WebSocketOutputStream extends OutputStream {
+
+        private final @NotNull DataOutputStream out;
+
+        WebSocketOutputStream(final @NotNull OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final @NotNull byte[] b, final int off, final int len) throws IOException {
+            out.write(WEBSOCKET_BINARY_FRAME);
+            if (len < 126) {
+                out.write(len);
+            }
+            else if (len < 65536) {
+                out.write(126);
+                out.writeShort(len);
+            }
+            else {
+                out.write(127);
+                out.writeLong(len);
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static class Reader {
+
+        private final @NotNull byte[] bytes;
+        private int position;
+
+        Reader(final @NotNull byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int remaining() {
+            return bytes.length - position;
+        }
+
+        int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        int readShort() {
+            return (readByte() << 8) | readByte();
+        }
+
+        int readVariableInt() {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        @NotNull String readString() {
+            final int length = readShort();
+            final String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+
+        void skip(final int length) {
+            position += length;
+        }
+
+        @NotNull byte[] readRemaining() {
+            final byte[] remaining = new byte[remaining()];
+            System.arraycopy(bytes, position, remaining, 0, remaining.length);
+            position = bytes.length;
+            return remaining;
+        }
+    }
+
+    private static class Writer {
+
+        private final @NotNull ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @NotNull Writer writeByte(final int value) {
+            bytes.write(value);
+            return this;
+        }
+
+        @NotNull Writer writeShort(final int value) {
+            return writeByte(value >> 8).writeByte(value & 0xFF);
+        }
+
+        @NotNull Writer writeVariableInt(int value) {
+            do {
+                int b = value & 0x7F;
+                value >>>= 7;
+                if (value > 0) {
+                    b |= 0x80;
+                }
+                bytes.write(b);
+            } while (value > 0);
+            return this;
+        }
+
+        @NotNull Writer writeString(final @NotNull String value) {
+            final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            return writeShort(utf8.length).writeBytes(utf8);
+        }
+
+        @NotNull Writer writeBytes(final @NotNull byte[] value) {
+            bytes.write(value, 0, value.length);
+            return this;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        @NotNull byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import com.hivemq.client.mqtt.MqttClientSslConfig;
+import com.hivemq.client.mqtt.MqttGlobalPublishFilter;
+import com.hivemq.client.mqtt.MqttWebSocketConfig;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import com.hivemq.client.mqtt.mqtt3.Mqtt3BlockingClient;
+import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
+import com.hivemq.client.mqtt.mqtt5.Mqtt5BlockingClient;
+import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.TrustManagerFactory;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrokerStandInTest {
+
+    private BrokerStandIn broker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = new BrokerStandIn();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broker.close();
+    }
+
+    @Test
+    void testMqtt5RetainedAndForwardedPublishes() throws Exception {
+        broker.retain("benchmark/sub", "retained".getBytes(StandardCharsets.UTF_8));
+
+        final Mqtt5BlockingClient client = Mqtt5Client.builder()
+                .serverHost("localhost")
+                .serverPort(broker.getPort())
+                .buildBlocking();
+        client.connect();
+        assertTrue(client.getConfig().getClientIdentifier().isPresent());
+
+        try (final Mqtt5BlockingClient.Mqtt5Publishes publishes = client.publishes(MqttGlobalPublishFilter.ALL)) {
+            client.subscribeWith().topicFilter("benchmark/+").send();
+
+            final Optional<Mqtt5Publish> retained = publishes.receive(10, TimeUnit.SECONDS);
+            assertTrue(retained.isPresent());
+            assertTrue(retained.get().isRetain());
+            assertEquals("retained", new String(retained.get().getPayloadAsBytes(), StandardCharsets.UTF_8));
+
+            client.publishWith().topic("benchmark/pub").qos(MqttQos.AT_LEAST_ONCE).payload("forwarded".getBytes(StandardCharsets.UTF_8)).send();
+
+            final Optional<Mqtt5Publish> forwarded = publishes.receive(10, TimeUnit.SECONDS);
+            assertTrue(forwarded.isPresent());
+            assertEquals("benchmark/pub", forwarded.get().getTopic().toString());
+            assertEquals("forwarded", new String(forwarded.get().getPayloadAsBytes(), StandardCharsets.UTF_8));
+        }
+        client.disconnect();
+
+        assertEquals(1, broker.getReceivedPublishes());
+    }
+
+    @Test
+    void testMqtt3Publish() throws Exception {
+        final Mqtt3BlockingClient client = Mqtt3Client.builder()
+                .identifier("benchmark")
+                .serverHost("localhost")
+                .serverPort(broker.getPort())
+                .buildBlocking();
+        client.connect();
+        client.subscribeWith().topicFilter("#").send();
+        client.unsubscribeWith().topicFilter("#").send();
+        client.publishWith().topic("benchmark/pub").qos(MqttQos.AT_LEAST_ONCE).payload("test".getBytes(StandardCharsets.UTF_8)).send();
+        client.disconnect();
+
+        assertEquals(1, broker.getReceivedPublishes());
+    }
+
+    @Test
+    void testWebSocketOverTls(@TempDir final Path tempDir) throws Exception {
+        final SelfSignedTls tls = new SelfSignedTls(tempDir.toFile());
+        try (final BrokerStandIn secureBroker = new BrokerStandIn(tls.getServerContext(), true)) {
+            final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            trustStore.load(null, null);
+            try (final InputStream certificate = new FileInputStream(tls.getCertificate())) {
+                trustStore.setCertificateEntry("localhost", CertificateFactory.getInstance("X.509").generateCertificate(certificate));
+            }
+            final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(trustStore);
+
+            final Mqtt5BlockingClient client = Mqtt5Client.builder()
+                    .serverHost("localhost")
+                    .serverPort(secureBroker.getPort())
+                    .sslConfig(MqttClientSslConfig.builder().trustManagerFactory(trustManagerFactory).build())
+                    .webSocketConfig(MqttWebSocketConfig.builder().serverPath("mqtt").build())
+                    .buildBlocking();
+            client.connect();
+
+            try (final Mqtt5BlockingClient.Mqtt5Publishes publishes = client.publishes(MqttGlobalPublishFilter.ALL)) {
+                client.subscribeWith().topicFilter("benchmark/#").send();
+                // larger than the 125 bytes of a short WebSocket frame
+                final byte[] payload = new byte[1000];
+                client.publishWith().topic("benchmark/pub").qos(MqttQos.AT_LEAST_ONCE).payload(payload).send();
+
+                final Optional<Mqtt5Publish> forwarded = publishes.receive(10, TimeUnit.SECONDS);
+                assertTrue(forwarded.isPresent());
+                assertArrayEquals(payload, forwarded.get().getPayloadAsBytes());
+            }
+            client.disconnect();
+
+            assertEquals(1, secureBroker.getReceivedPublishes());
+        }
+    }
+
+    @Test
+    void testMatches() {
+        assertTrue(BrokerStandIn.matches("benchmark/sub", "benchmark/sub"));
+        assertTrue(BrokerStandIn.matches("benchmark/+", "benchmark/sub"));
+        assertTrue(BrokerStandIn.matches("#", "benchmark/sub"));
+        assertTrue(BrokerStandIn.matches("benchmark/#", "benchmark"));
+        assertFalse(BrokerStandIn.matches("benchmark/+", "benchmark/sub/a"));
+        assertFalse(BrokerStandIn.matches("benchmark/pub", "benchmark/sub"));
+    }
+}
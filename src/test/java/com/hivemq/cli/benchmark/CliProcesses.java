@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts CLI processes with an empty home directory, so no properties file or daemon of the user influences them.
+ * Their stderr (and stdout if not read) is appended to {@code benchmark.log} in the home directory.
+ */
+class CliProcesses {
+
+    private static final long PROCESS_TIMEOUT_SECONDS = 60;
+
+    private final @NotNull File home;
+    private final @NotNull File log;
+
+    CliProcesses(final @NotNull File home) {
+        this.home = home;
+        this.log = new File(home, "benchmark.log");
+    }
+
+    /**
+     * @return the command of the java executable running this class, using the empty home directory
+     */
+    @NotNull List<String> javaCommand(final @NotNull String... jvmOptions) {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Duser.home=" + home.getAbsolutePath());
+        command.addAll(Arrays.asList(jvmOptions));
+        return command;
+    }
+
+    @NotNull File getHome() {
+        return home;
+    }
+
+    @NotNull File getLog() {
+        return log;
+    }
+
+    private @NotNull ProcessBuilder processBuilder(final @NotNull List<String> command, final @NotNull String... args) {
+        final List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.addAll(Arrays.asList(args));
+        final ProcessBuilder processBuilder = new ProcessBuilder(fullCommand);
+        processBuilder.environment().put("HOME", home.getAbsolutePath());
+        processBuilder.environment().put("MQTT_CLI_DAEMON_SOCKET", new File(home, "no-daemon.sock").getAbsolutePath());
+        processBuilder.redirectError(ProcessBuilder.Redirect.appendTo(log));
+        return processBuilder;
+    }
+
+    /**
+     * @return the nanos from the start of the process until it exited successfully
+     */
+    long exitTime(final @NotNull List<String> command, final @NotNull String... args) throws Exception {
+        return inputExitTime("", command, args);
+    }
+
+    /**
+     * @return the nanos from the start of the process until it exited successfully after reading the input, e.g. the
+     *         lines of a shell session
+     */
+    long inputExitTime(final @NotNull String input, final @NotNull List<String> command, final @NotNull String... args) throws Exception {
+        final ProcessBuilder processBuilder = processBuilder(command, args);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        final long start = System.nanoTime();
+        final Process process = processBuilder.start();
+        try (final OutputStream stdin = process.getOutputStream()) {
+            stdin.write(input.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!process.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException(String.join(" ", args) + " did not exit, see " + log.getPath());
+        }
+        final long nanos = System.nanoTime() - start;
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException(String.join(" ", args) + " exited with " + process.exitValue() + ", see " + log.getPath());
+        }
+        return nanos;
+    }
+
+    /**
+     * @return the nanos from the start of the process until it printed a line containing the expected output, the
+     *         process is stopped afterwards
+     */
+    long outputTime(final @NotNull String expected, final @NotNull List<String> command, final @NotNull String... args) throws Exception {
+        final ProcessBuilder processBuilder = processBuilder(command, args);
+        final long start = System.nanoTime();
+        final Process process = processBuilder.start();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(expected)) {
+                    return System.nanoTime() - start;
+                }
+            }
+            throw new IllegalStateException(String.join(" ", args) + " exited without printing '" + expected + "', see " + log.getPath());
+        }
+        finally {
+            process.destroy();
+            if (!process.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
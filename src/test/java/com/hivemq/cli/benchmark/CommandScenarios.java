@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLContext;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs every command of the CLI mode and the shell against the {@link BrokerStandIn} over TCP, TLS and WebSocket.
+ * <p>
+ * The native image configuration is traced from these scenarios and the native image is smoke tested with them, so a
+ * command which is not covered here is not supported by the native image.
+ */
+class CommandScenarios {
+
+    private final @NotNull CliProcesses processes;
+    private final @NotNull List<String> command;
+    private final @NotNull SelfSignedTls tls;
+    private final @NotNull List<String> failed = new ArrayList<>();
+    private int run;
+
+    /**
+     * @param command the command starting the CLI, e.g. the java command with the jar or the native image
+     */
+    CommandScenarios(final @NotNull CliProcesses processes, final @NotNull List<String> command) throws Exception {
+        this.processes = processes;
+        this.command = command;
+        this.tls = new SelfSignedTls(processes.getHome());
+    }
+
+    /**
+     * @throws IllegalStateException if a scenario failed, all scenarios are run before
+     */
+    void runAll() throws Exception {
+        for (final String[] help : Arrays.asList(
+                new String[]{"--version"},
+                new String[]{"--help"},
+                new String[]{"pub", "--help"},
+                new String[]{"sub", "--help"},
+                new String[]{"test", "--help"},
+                new String[]{"shell", "--help"},
+                new String[]{"daemon", "--help"})) {
+            run(String.join(" ", help), () -> processes.exitTime(command, help));
+        }
+
+        for (final Transport transport : Transport.values()) {
+            try (final BrokerStandIn broker = new BrokerStandIn(transport.serverContext(tls), transport.webSocket)) {
+                broker.retain(StartupBenchmark.SUBSCRIBE_TOPIC, StartupBenchmark.PAYLOAD.getBytes(StandardCharsets.UTF_8));
+                final List<String> connect = transport.connectOptions(broker, tls);
+
+                publish(transport, broker, connect, "-m", StartupBenchmark.PAYLOAD);
+                publish(transport, broker, connect, "-V", "3", "-q", "1", "-r", "-m", StartupBenchmark.PAYLOAD);
+                publish(transport, broker, connect, "-q", "1", "-up", "key=value", "-ct", "text/plain", "-e", "60", "-m", StartupBenchmark.PAYLOAD);
+
+                subscribe(transport, connect);
+                subscribe(transport, connect, "-J");
+                subscribe(transport, connect, "-V", "3", "-b64", "-T");
+
+                shell(transport, broker, connect);
+
+                if (!transport.webSocket) {
+                    run(transport + " test", () -> processes.exitTime(command, args(connect, "test", "-a", "-t", "1")));
+                }
+            }
+        }
+
+        try (final BrokerStandIn broker = new BrokerStandIn(tls.getServerContext(), false)) {
+            run("tls handshakes", () -> processes.exitTime(command,
+                    args(Transport.TLS.connectOptions(broker, tls), "test", "--tlsHandshakes", "1")));
+        }
+
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException(failed.size() + " of " + run + " scenarios failed: " + failed + ", see " +
+                    processes.getLog().getPath());
+        }
+    }
+
+    private void publish(
+            final @NotNull Transport transport,
+            final @NotNull BrokerStandIn broker,
+            final @NotNull List<String> connect,
+            final @NotNull String... options) {
+
+        final List<String> publishOptions = new ArrayList<>(Arrays.asList(options));
+        publishOptions.add(0, "-t");
+        publishOptions.add(1, StartupBenchmark.PUBLISH_TOPIC);
+        run(transport + " pub " + String.join(" ", options), () -> {
+            final long received = broker.getReceivedPublishes();
+            processes.exitTime(command, args(connect, "pub", publishOptions.toArray(new String[0])));
+            expectPublish(broker, received);
+        });
+    }
+
+    private void subscribe(final @NotNull Transport transport, final @NotNull List<String> connect, final @NotNull String... options) {
+        final List<String> subscribeOptions = new ArrayList<>(Arrays.asList(options));
+        subscribeOptions.add(0, "-t");
+        subscribeOptions.add(1, StartupBenchmark.SUBSCRIBE_TOPIC);
+        // the base64 output is not compared
+        final String expected = Arrays.asList(options).contains("-b64") ? StartupBenchmark.SUBSCRIBE_TOPIC : StartupBenchmark.PAYLOAD;
+        run((transport + " sub " + String.join(" ", options)).trim(),
+                () -> processes.outputTime(expected, command, args(connect, "sub", subscribeOptions.toArray(new String[0]))));
+    }
+
+    private void shell(final @NotNull Transport transport, final @NotNull BrokerStandIn broker, final @NotNull List<String> connect) {
+        final String input = "con " + String.join(" ", connect) + "\n" +
+                "pub -t " + StartupBenchmark.PUBLISH_TOPIC + " -m " + StartupBenchmark.PAYLOAD + "\n" +
+                "sub -t " + StartupBenchmark.SUBSCRIBE_TOPIC + "\n" +
+                "unsub -t " + StartupBenchmark.SUBSCRIBE_TOPIC + "\n" +
+                "dis\n" +
+                "ls\n" +
+                "exit\n";
+        run(transport + " shell", () -> {
+            final long received = broker.getReceivedPublishes();
+            processes.inputExitTime(input, command, "shell");
+            expectPublish(broker, received);
+        });
+    }
+
+    private static void expectPublish(final @NotNull BrokerStandIn broker, final long receivedBefore) {
+        if (broker.getReceivedPublishes() <= receivedBefore) {
+            throw new IllegalStateException("The broker did not receive the publish");
+        }
+    }
+
+    private void run(final @NotNull String name, final @NotNull Scenario scenario) {
+        run++;
+        try {
+            scenario.run();
+            System.out.println("OK      " + name);
+        }
+        catch (final Exception ex) {
+            System.out.println("FAILED  " + name + ": " + ex.getMessage());
+            failed.add(name);
+        }
+    }
+
+    private static @NotNull String[] args(final @NotNull List<String> connect, final @NotNull String subcommand, final @NotNull String... options) {
+        final List<String> args = new ArrayList<>();
+        args.add(subcommand);
+        args.addAll(connect);
+        args.addAll(Arrays.asList(options));
+        return args.toArray(new String[0]);
+    }
+
+    private interface Scenario {
+
+        void run() throws Exception;
+    }
+
+    private enum Transport {
+
+        TCP(false, false),
+        TLS(true, false),
+        WEBSOCKET(false, true);
+
+        private final boolean secure;
+        private final boolean webSocket;
+
+        Transport(final boolean secure, final boolean webSocket) {
+            this.secure = secure;
+            this.webSocket = webSocket;
+        }
+
+        @Nullable SSLContext serverContext(final @NotNull SelfSignedTls tls) {
+            return secure ? tls.getServerContext() : null;
+        }
+
+        @NotNull List<String> connectOptions(final @NotNull BrokerStandIn broker, final @NotNull SelfSignedTls tls) {
+            final List<String> options = new ArrayList<>(Arrays.asList("-h", "localhost", "-p", String.valueOf(broker.getPort())));
+            if (secure) {
+                options.addAll(Arrays.asList(
+                        "--cafile", tls.getCertificate().getAbsolutePath(),
+                        "--cert", tls.getCertificate().getAbsolutePath(),
+                        "--key", tls.getPrivateKey().getAbsolutePath()));
+            }
+            if (webSocket) {
+                options.addAll(Arrays.asList("-ws", "-ws:path", "mqtt"));
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Runs the {@link CommandScenarios} with the native image and fails if any command fails.
+ * <p>
+ * Usage: {@code NativeImageSmokeTest --native <native image>}
+ */
+public class NativeImageSmokeTest {
+
+    private NativeImageSmokeTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 2 || !args[0].equals("--native")) {
+            throw new IllegalArgumentException("The native image has to be given with --native");
+        }
+        final File nativeImage = new File(args[1]);
+        if (!nativeImage.canExecute()) {
+            throw new IllegalArgumentException("The native image " + nativeImage.getPath() + " is not executable");
+        }
+
+        final CliProcesses processes = new CliProcesses(Files.createTempDirectory("mqtt-cli-native-smoke-test").toFile());
+        new CommandScenarios(processes, Collections.singletonList(nativeImage.getAbsolutePath())).runAll();
+    }
+}
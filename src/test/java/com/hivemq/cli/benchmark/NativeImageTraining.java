@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Traces the reflection, resource, proxy and JNI accesses of the shadow jar with the native image agent of GraalVM
+ * while running the {@link CommandScenarios}. The configuration of all scenarios is merged into one directory, which
+ * the native image build uses instead of a hand-maintained configuration.
+ * <p>
+ * Usage: {@code NativeImageTraining --jar <shadow jar> --config <directory>}, run by the java executable of GraalVM.
+ */
+public class NativeImageTraining {
+
+    private NativeImageTraining() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        File jar = null;
+        File config = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--jar":
+                    jar = new File(args[i + 1]);
+                    break;
+                case "--config":
+                    config = new File(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (jar == null || config == null) {
+            throw new IllegalArgumentException("The shadow jar and the configuration directory have to be given with --jar and --config");
+        }
+
+        // a configuration of a previous build would keep accesses which are not made anymore
+        deleteRecursively(config);
+        if (!config.mkdirs()) {
+            throw new IOException("Could not create " + config.getPath());
+        }
+
+        final CliProcesses processes = new CliProcesses(Files.createTempDirectory("mqtt-cli-native-image").toFile());
+        new CommandScenarios(processes, processes.javaCommand(
+                "-agentlib:native-image-agent=config-merge-dir=" + config.getAbsolutePath(),
+                "-jar", jar.getAbsolutePath())).runAll();
+        System.out.println("Native image configuration written to " + config.getPath());
+    }
+
+    private static void deleteRecursively(final @NotNull File file) throws IOException {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.jetbrains.annotations.NotNull;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+
+/**
+ * A self-signed certificate for localhost and its private key as PEM files for the {@code --cafile}, {@code --cert}
+ * and {@code --key} options, and the context of a TLS server using them.
+ */
+class SelfSignedTls {
+
+    private static final char[] KEY_STORE_PASSWORD = "stand-in".toCharArray();
+
+    private final @NotNull File certificate;
+    private final @NotNull File privateKey;
+    private final @NotNull SSLContext serverContext;
+
+    SelfSignedTls(final @NotNull File directory) throws Exception {
+        final SelfSignedCertificate selfSigned = new SelfSignedCertificate("localhost");
+        try {
+            certificate = new File(directory, "localhost.pem");
+            Files.copy(selfSigned.certificate().toPath(), certificate.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            // the CLI reads PKCS #1 keys, so the PKCS #8 key file of netty is not used
+            privateKey = new File(directory, "localhost.key");
+            try (final JcaPEMWriter writer = new JcaPEMWriter(new OutputStreamWriter(new FileOutputStream(privateKey), StandardCharsets.UTF_8))) {
+                writer.writeObject(selfSigned.key());
+            }
+
+            final KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            keyStore.load(null, null);
+            keyStore.setKeyEntry("localhost", selfSigned.key(), KEY_STORE_PASSWORD, new Certificate[]{selfSigned.cert()});
+            final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEY_STORE_PASSWORD);
+            serverContext = SSLContext.getInstance("TLS");
+            serverContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        }
+        finally {
+            selfSigned.delete();
+        }
+    }
+
+    @NotNull File getCertificate() {
+        return certificate;
+    }
+
+    @NotNull File getPrivateKey() {
+        return privateKey;
+    }
+
+    @NotNull SSLContext getServerContext() {
+        return serverContext;
+    }
+}
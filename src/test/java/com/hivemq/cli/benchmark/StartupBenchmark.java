@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.benchmark;
+
+import com.google.gson.GsonBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Measures the cold start of the CLI for the shadow jar on the JVM, the shadow jar with an AppCDS archive and the
+ * native image, and writes the results as JSON.
+ * <p>
+ * Every sample is a new process started by {@link CliProcesses}. The scenarios are:
+ * <ul>
+ * <li>{@code version}: {@code --version} until the process exited</li>
+ * <li>{@code pub}: one publish to the {@link BrokerStandIn} until the process exited</li>
+ * <li>{@code sub}: a subscription until the first (retained) message was printed</li>
+ * </ul>
+ * Usage: {@code StartupBenchmark --jar <shadow jar> [--cds <archive>] [--native <binary>] [--runs <n>]
+ * [--warmup <n>] [--output <file>]}. Variants whose file does not exist are skipped and listed in the results.
+ */
+public class StartupBenchmark {
+
+    static final String PUBLISH_TOPIC = "benchmark/pub";
+    static final String SUBSCRIBE_TOPIC = "benchmark/sub";
+    static final String PAYLOAD = "startup-benchmark";
+
+    private final @NotNull CliProcesses processes;
+    private final int runs;
+    private final int warmup;
+
+    private StartupBenchmark(final @NotNull CliProcesses processes, final int runs, final int warmup) {
+        this.processes = processes;
+        this.runs = runs;
+        this.warmup = warmup;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        File jar = null;
+        File cds = null;
+        File nativeImage = null;
+        File output = null;
+        int runs = 20;
+        int warmup = 3;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--jar":
+                    jar = new File(args[i + 1]);
+                    break;
+                case "--cds":
+                    cds = new File(args[i + 1]);
+                    break;
+                case "--native":
+                    nativeImage = new File(args[i + 1]);
+                    break;
+                case "--output":
+                    output = new File(args[i + 1]);
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (jar == null) {
+            throw new IllegalArgumentException("The shadow jar has to be given with --jar");
+        }
+
+        final File home = Files.createTempDirectory("mqtt-cli-startup").toFile();
+        final StartupBenchmark benchmark = new StartupBenchmark(new CliProcesses(home), runs, warmup);
+        final Results results = benchmark.run(jar, cds, nativeImage);
+
+        final String json = new GsonBuilder().setPrettyPrinting().create().toJson(results);
+        if (output == null) {
+            System.out.println(json);
+        }
+        else {
+            final File parent = output.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            try (final Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+            System.out.println("Startup benchmark results written to " + output.getPath());
+        }
+    }
+
+    private @NotNull Results run(final @NotNull File jar, final @Nullable File cds, final @Nullable File nativeImage) throws Exception {
+        final Results results = new Results(runs, warmup);
+
+        final List<String> jvm = processes.javaCommand("-jar", jar.getAbsolutePath());
+        final List<String> appCds = cds == null ? null : processes.javaCommand(
+                "-Xshare:auto", "-XX:SharedArchiveFile=" + cds.getAbsolutePath(), "-jar", jar.getAbsolutePath());
+
+        try (final BrokerStandIn broker = new BrokerStandIn()) {
+            broker.retain(SUBSCRIBE_TOPIC, PAYLOAD.getBytes(StandardCharsets.UTF_8));
+
+            runVariant(results, broker, "jvm", jar, jvm);
+            runVariant(results, broker, "jvm-appcds", cds, appCds);
+            runVariant(results, broker, "native", nativeImage,
+                    nativeImage == null ? null : Arrays.asList(nativeImage.getAbsolutePath(), "-Duser.home=" + processes.getHome().getAbsolutePath()));
+        }
+        return results;
+    }
+
+    private void runVariant(
+            final @NotNull Results results,
+            final @NotNull BrokerStandIn broker,
+            final @NotNull String variant,
+            final @Nullable File file,
+            final @Nullable List<String> command) throws Exception {
+
+        if (file == null || command == null) {
+            results.skipped.add(new Skipped(variant, "not configured"));
+            return;
+        }
+        if (!file.exists()) {
+            results.skipped.add(new Skipped(variant, file.getPath() + " does not exist"));
+            return;
+        }
+
+        final String port = String.valueOf(broker.getPort());
+        results.results.add(measure(variant, "version", () -> processes.exitTime(command, "--version")));
+        results.results.add(measure(variant, "pub", () -> {
+            final long before = broker.getReceivedPublishes();
+            final long nanos = processes.exitTime(command, "pub", "-h", "localhost", "-p", port, "-t", PUBLISH_TOPIC, "-m", PAYLOAD);
+            if (broker.getReceivedPublishes() == before) {
+                throw new IllegalStateException("The publish did not reach the broker stand-in, see " + processes.getLog().getPath());
+            }
+            return nanos;
+        }));
+        results.results.add(measure(variant, "sub", () -> processes.outputTime(PAYLOAD, command, "sub", "-h", "localhost", "-p", port, "-t", SUBSCRIBE_TOPIC)));
+    }
+
+    private @NotNull Result measure(final @NotNull String variant, final @NotNull String scenario, final @NotNull Sample sample) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sample.measure();
+        }
+        final long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            nanos[i] = sample.measure();
+        }
+        return new Result(variant, scenario, nanos);
+    }
+
+    private interface Sample {
+
+        long measure() throws Exception;
+    }
+
+    // serialized by Gson, the field names are the keys of the JSON results
+
+    static class Results {
+
+        final @NotNull String timestamp;
+        final @NotNull String javaVersion = System.getProperty("java.version");
+        final @NotNull String javaVm = System.getProperty("java.vm.name");
+        final @NotNull String os = System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch");
+        final int availableProcessors = Runtime.getRuntime().availableProcessors();
+        final int runs;
+        final int warmup;
+        final @NotNull List<Result> results = new ArrayList<>();
+        final @NotNull List<Skipped> skipped = new ArrayList<>();
+
+        Results(final int runs, final int warmup) {
+            final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            this.timestamp = format.format(new Date());
+            this.runs = runs;
+            this.warmup = warmup;
+        }
+    }
+
+    static class Result {
+
+        final @NotNull String variant;
+        final @NotNull String scenario;
+        final double minMillis;
+        final double medianMillis;
+        final double p90Millis;
+        final double maxMillis;
+        final double meanMillis;
+        final @NotNull double[] samplesMillis;
+
+        Result(final @NotNull String variant, final @NotNull String scenario, final @NotNull long[] nanos) {
+            this.variant = variant;
+            this.scenario = scenario;
+            this.samplesMillis = new double[nanos.length];
+            double sum = 0;
+            for (int i = 0; i < nanos.length; i++) {
+                samplesMillis[i] = nanos[i] / 1_000_000d;
+                sum += samplesMillis[i];
+            }
+            final double[] sorted = samplesMillis.clone();
+            Arrays.sort(sorted);
+            this.minMillis = sorted.length > 0 ? sorted[0] : 0;
+            this.medianMillis = percentile(sorted, 50);
+            this.p90Millis = percentile(sorted, 90);
+            this.maxMillis = sorted.length > 0 ? sorted[sorted.length - 1] : 0;
+            this.meanMillis = sorted.length > 0 ? sum / sorted.length : 0;
+        }
+
+        // nearest rank
+        static double percentile(final @NotNull double[] sorted, final int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            final int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    }
+
+    static class Skipped {
+
+        final @NotNull String variant;
+        final @NotNull String reason;
+
+        Skipped(final @NotNull String variant, final @NotNull String reason) {
+            this.variant = variant;
+            this.reason = reason;
+        }
+    }
+}
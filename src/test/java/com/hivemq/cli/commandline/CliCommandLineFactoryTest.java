@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commandline;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.ioc.DaggerMqttCLI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CliCommandLineFactoryTest {
+
+    private CliCommandLineFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        // the test command reads the default properties when it is created
+        MqttCLIMain.MQTTCLI = DaggerMqttCLI.create();
+        factory = MqttCLIMain.MQTTCLI.cli();
+    }
+
+    @Test
+    void testOnlyCalledSubcommand() {
+        final CommandLine commandLine = factory.create(new String[]{"pub", "-t", "topic", "-m", "message"});
+        assertEquals(new HashSet<>(Arrays.asList("pub", "publish")), commandLine.getSubcommands().keySet());
+    }
+
+    @Test
+    void testAlias() {
+        final CommandLine commandLine = factory.create(new String[]{"subscribe", "-t", "topic"});
+        assertEquals(new HashSet<>(Arrays.asList("sub", "subscribe")), commandLine.getSubcommands().keySet());
+    }
+
+    @Test
+    void testVersionWithoutSubcommands() {
+        assertTrue(factory.create(new String[]{"--version"}).getSubcommands().isEmpty());
+    }
+
+    @Test
+    void testAllSubcommandsForUsage() {
+        assertTrue(factory.create(new String[0]).getSubcommands().keySet().containsAll(Arrays.asList("pub", "sub", "shell", "test", "daemon")));
+        assertTrue(factory.create(new String[]{"unknown"}).getSubcommands().keySet().containsAll(Arrays.asList("pub", "sub", "shell", "test", "daemon")));
+    }
+}
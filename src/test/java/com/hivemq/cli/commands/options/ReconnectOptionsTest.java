@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.options;
+
+import com.hivemq.client.mqtt.MqttVersion;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReconnectOptionsTest {
+
+    @Test
+    void testWithoutReconnect() {
+        final ReconnectOptions reconnectOptions = parse();
+
+        assertNull(reconnectOptions.getCleanStart(null, MqttVersion.MQTT_5_0, true));
+        assertNull(reconnectOptions.getSessionExpiryInterval(null));
+        assertFalse(reconnectOptions.isSessionEndedOnDisconnect(null));
+    }
+
+    @Test
+    void testMqtt5SessionEndedOnDisconnect() {
+        final ReconnectOptions reconnectOptions = parse("--reconnect");
+
+        assertEquals(false, reconnectOptions.getCleanStart(null, MqttVersion.MQTT_5_0, true));
+        assertEquals(ReconnectOptions.DEFAULT_SESSION_EXPIRY_INTERVAL, (long) reconnectOptions.getSessionExpiryInterval(null));
+        assertTrue(reconnectOptions.isSessionEndedOnDisconnect(null));
+    }
+
+    @Test
+    void testRequestedSessionExpiryIntervalKept() {
+        final ReconnectOptions reconnectOptions = parse("--reconnect");
+
+        assertEquals(60, (long) reconnectOptions.getSessionExpiryInterval(60L));
+        assertFalse(reconnectOptions.isSessionEndedOnDisconnect(60L));
+    }
+
+    @Test
+    void testMqtt3SessionOnlyForGivenIdentifier() {
+        final ReconnectOptions reconnectOptions = parse("--reconnect");
+
+        assertNull(reconnectOptions.getCleanStart(null, MqttVersion.MQTT_3_1_1, true));
+        assertEquals(false, reconnectOptions.getCleanStart(null, MqttVersion.MQTT_3_1_1, false));
+        assertEquals(true, reconnectOptions.getCleanStart(true, MqttVersion.MQTT_3_1_1, false));
+    }
+
+    private static @NotNull ReconnectOptions parse(final @NotNull String... args) {
+        final ReconnectOptions reconnectOptions = new ReconnectOptions();
+        new CommandLine(reconnectOptions).parseArgs(args);
+        return reconnectOptions;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CodePointRangeConverterTest {
+
+    private CodePointRangeConverter codePointRangeConverter;
+
+    @BeforeEach
+    void setUp() {
+        codePointRangeConverter = new CodePointRangeConverter();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a", "0x20", "U+", "U+XYZ", "U+0000", "U+110000", "U+0030-", "U+0030-U+0020", "U+0020-0030", "-U+0020"})
+    void testInvalidString(String s) {
+        final Exception e = assertThrows(Exception.class, () -> codePointRangeConverter.convert(s));
+        assertEquals(CodePointRangeConverter.WRONG_INPUT_MESSAGE, e.getMessage());
+    }
+
+    @Test
+    void testSingleCodePoint() throws Exception {
+        assertEquals("\u00E4", codePointRangeConverter.convert("U+00E4"));
+        assertEquals("\uD83D\uDE00", codePointRangeConverter.convert("u+1F600"));
+    }
+
+    @Test
+    void testRange() throws Exception {
+        assertEquals(" !\"#$%&'()*+,-./", codePointRangeConverter.convert("U+0020-U+002F"));
+        assertEquals("\uD83D\uDE00\uD83D\uDE01\uD83D\uDE02", codePointRangeConverter.convert("U+1F600-U+1F602"));
+    }
+
+    @Test
+    void testSurrogatesExcluded() throws Exception {
+        assertEquals("\uD7FF\uE000", codePointRangeConverter.convert("U+D7FF-U+E000"));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HexToByteArrayConverterTest {
+
+    private HexToByteArrayConverter hexToByteArrayConverter;
+
+    @BeforeEach
+    void setUp() {
+        hexToByteArrayConverter = new HexToByteArrayConverter();
+    }
+
+    @Test
+    void testSuccess() throws Exception {
+        assertArrayEquals(new byte[]{0x0a, 0x1b, (byte) 0xff}, hexToByteArrayConverter.convert("0a1bFF"));
+        assertArrayEquals(new byte[]{0x00}, hexToByteArrayConverter.convert("0x00"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "0x", "abc", "0g", "zz"})
+    void testFailureInputs(final @NotNull String s) {
+        final Exception e = assertThrows(Exception.class, () -> hexToByteArrayConverter.convert(s));
+        assertEquals(HexToByteArrayConverter.WRONG_INPUT_MESSAGE, e.getMessage());
+    }
+}
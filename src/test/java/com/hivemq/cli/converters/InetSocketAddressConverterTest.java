@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InetSocketAddressConverterTest {
+
+    private InetSocketAddressConverter inetSocketAddressConverter;
+
+    @BeforeEach
+    void setUp() {
+        inetSocketAddressConverter = new InetSocketAddressConverter();
+    }
+
+    @Test
+    void testPortOnly() throws Exception {
+        final InetSocketAddress address = inetSocketAddressConverter.convert(":8080");
+        assertEquals("127.0.0.1", address.getHostString());
+        assertEquals(8080, address.getPort());
+    }
+
+    @Test
+    void testHostAndPort() throws Exception {
+        final InetSocketAddress address = inetSocketAddressConverter.convert("0.0.0.0:1");
+        assertEquals("0.0.0.0", address.getHostString());
+        assertEquals(1, address.getPort());
+    }
+
+    @Test
+    void testIpv6() throws Exception {
+        final InetSocketAddress address = inetSocketAddressConverter.convert("[::1]:65535");
+        assertEquals(65535, address.getPort());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8080", ":", ":0", ":65536", "localhost:port", ""})
+    void testFailureInputs(final @NotNull String s) {
+        final Exception e = assertThrows(Exception.class, () -> inetSocketAddressConverter.convert(s));
+        assertEquals(InetSocketAddressConverter.WRONG_INPUT_MESSAGE, e.getMessage());
+    }
+}
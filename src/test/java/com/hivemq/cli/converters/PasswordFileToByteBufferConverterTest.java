@@ -16,11 +16,13 @@
  */
 package com.hivemq.cli.converters;
 
+import com.hivemq.cli.utils.FileUtils;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
@@ -69,6 +71,23 @@ class PasswordFileToByteBufferConverterTest {
         assertArrayEquals(expected, actual);
     }
 
+    @Test
+    void test_relative_to_working_directory() throws Exception {
+        final File file = getFile("password_with_single_line.txt");
+
+        final byte[] expected = "Z$a8o7PQ3wnoA%=F%Bx*cevXRym44y+NRFWiEA3C".getBytes();
+
+        FileUtils.setWorkingDirectory(file.getParentFile());
+        try {
+            final byte[] actual = passwordFileToByteBufferConverter.convert(file.getName()).array();
+
+            assertArrayEquals(expected, actual);
+        }
+        finally {
+            FileUtils.setWorkingDirectory(null);
+        }
+        assertThrows(FileNotFoundException.class, () -> passwordFileToByteBufferConverter.convert(file.getName()));
+    }
 
     private File getFile(final @NotNull String fileName) {
         return new File(getClass().getClassLoader().getResource(this.getClass().getSimpleName() + "/" + fileName).getPath());
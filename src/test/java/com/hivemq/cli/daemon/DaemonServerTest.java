@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File socket;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(Epoll.isAvailable());
+        socket = tempDir.resolve("daemon.sock").toFile();
+    }
+
+    @Test
+    void testForwardCommands() throws Exception {
+        final File workingDirectory = tempDir.resolve("working dir").toFile();
+        final DaemonServer server = new DaemonServer(socket, request ->
+                new DaemonResponse(request.getArgs().length,
+                        (request.getWorkingDirectory().getPath() + ": " + String.join(" ", request.getArgs())).getBytes(StandardCharsets.UTF_8),
+                        "err".getBytes(StandardCharsets.UTF_8)));
+        server.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                final DaemonClient client = DaemonClient.connect(socket);
+                try {
+                    final DaemonResponse response = client.execute(new DaemonRequest(workingDirectory, new String[]{"pub", "-t", "tö/pic", "-m", "" + i}));
+                    assertEquals(5, response.getExitCode());
+                    assertEquals(workingDirectory.getPath() + ": pub -t tö/pic -m " + i, new String(response.getOut(), StandardCharsets.UTF_8));
+                    assertArrayEquals("err".getBytes(StandardCharsets.UTF_8), response.getErr());
+                }
+                finally {
+                    client.close();
+                }
+            }
+        }
+        finally {
+            server.stop();
+        }
+        assertFalse(socket.exists());
+    }
+
+    @Test
+    void testFailedCommand() throws Exception {
+        final DaemonServer server = new DaemonServer(socket, request -> {
+            throw new IllegalStateException("failed");
+        });
+        server.start();
+        try {
+            final DaemonClient client = DaemonClient.connect(socket);
+            try {
+                final DaemonResponse response = client.execute(new DaemonRequest(tempDir.toFile(), new String[]{"pub"}));
+                assertEquals(-1, response.getExitCode());
+                assertEquals("failed" + System.lineSeparator(), new String(response.getErr(), StandardCharsets.UTF_8));
+            }
+            finally {
+                client.close();
+            }
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testNoDaemon() throws Exception {
+        assertNull(DaemonClient.connect(socket));
+
+        assertTrue(socket.createNewFile());
+        assertNull(DaemonClient.connect(socket));
+    }
+
+    @Test
+    void testStaleSocketIsReplacedButNotARunningDaemon() throws Exception {
+        assertTrue(socket.createNewFile());
+        final DaemonServer server = new DaemonServer(socket, request -> DaemonResponse.error(0, ""));
+        server.start();
+        try {
+            final DaemonServer second = new DaemonServer(socket, request -> DaemonResponse.error(0, ""));
+            assertThrows(IOException.class, second::start);
+            assertTrue(socket.exists());
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testIsForwarded() {
+        assertTrue(Daemon.isForwarded(new String[]{"pub", "-t", "test"}));
+        assertTrue(Daemon.isForwarded(new String[]{"publish"}));
+        assertFalse(Daemon.isForwarded(new String[]{"sub", "-t", "test"}));
+        assertFalse(Daemon.isForwarded(new String[]{"daemon"}));
+        assertFalse(Daemon.isForwarded(new String[0]));
+    }
+}
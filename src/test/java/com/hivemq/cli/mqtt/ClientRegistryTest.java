@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRegistryTest {
+
+    @Test
+    void testClientKey() {
+        assertEquals(ClientKey.of("id", "host"), ClientKey.of("id", "host"));
+        assertEquals(ClientKey.of("id", "host").hashCode(), ClientKey.of("id", "host").hashCode());
+        assertNotEquals(ClientKey.of("id", "host"), ClientKey.of("host", "id"));
+        assertEquals("client {identifier='id', host='host'}", ClientKey.of("id", "host").toString());
+        assertEquals(ClientKey.of("id", "host"), ClientKey.of(client("id", "host").getConfig()));
+    }
+
+    @Test
+    void testIndexes() {
+        final ClientRegistry registry = new ClientRegistry();
+        final ClientData a = new ClientData(client("a", "host1"));
+        final ClientData b = new ClientData(client("b", "host1"));
+        final ClientData c = new ClientData(client("c", "host2"));
+        registry.put(a);
+        registry.put(b);
+        registry.put(c);
+
+        assertEquals(3, registry.size());
+        assertSame(a, registry.get(ClientKey.of("a", "host1")));
+        assertEquals(2, registry.getByHost("host1").size());
+        assertEquals(1, registry.getByHost("host2").size());
+        assertTrue(registry.getByHost("host3").isEmpty());
+
+        final MqttTopicFilter filter = MqttTopicFilter.of("test/#");
+        assertTrue(registry.addSubscription(a.getKey(), filter));
+        assertFalse(registry.addSubscription(a.getKey(), filter));
+        assertTrue(registry.addSubscription(c.getKey(), filter));
+        assertFalse(registry.addSubscription(ClientKey.of("unknown", "host1"), filter));
+        assertEquals(2, registry.getBySubscription(filter).size());
+        assertTrue(a.getSubscribedTopics().contains(filter));
+
+        assertTrue(registry.removeSubscription(a.getKey(), filter));
+        assertEquals(1, registry.getBySubscription(filter).size());
+        assertTrue(a.getSubscribedTopics().isEmpty());
+
+        assertSame(c, registry.remove(c.getKey()));
+        assertTrue(registry.getBySubscription(filter).isEmpty());
+        assertTrue(registry.getByHost("host2").isEmpty());
+
+        registry.clear();
+        assertTrue(registry.isEmpty());
+        assertTrue(registry.getByHost("host1").isEmpty());
+    }
+
+    @Test
+    void testReplacedClientIsNotRemovedByPredecessor() {
+        final ClientRegistry registry = new ClientRegistry();
+        final ClientData first = new ClientData(client("a", "host"));
+        final ClientData second = new ClientData(client("a", "host"));
+        registry.put(first);
+        registry.addSubscription(first.getKey(), MqttTopicFilter.of("old"));
+
+        assertSame(first, registry.put(second));
+        assertTrue(registry.getBySubscription(MqttTopicFilter.of("old")).isEmpty());
+        assertFalse(registry.remove(first));
+        assertSame(second, registry.get(second.getKey()));
+        assertTrue(registry.remove(second));
+        assertNull(registry.get(second.getKey()));
+    }
+
+    @Test
+    void testConcurrentSubscriptions() throws Exception {
+        final ClientRegistry registry = new ClientRegistry();
+        final List<ClientData> clients = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final ClientData clientData = new ClientData(client("client" + i, "host"));
+            clients.add(clientData);
+            registry.put(clientData);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                }
+                catch (final InterruptedException ex) {
+                    return;
+                }
+                for (final ClientData clientData : clients) {
+                    for (int i = 0; i < 10; i++) {
+                        registry.addSubscription(clientData.getKey(), MqttTopicFilter.of("topic/" + thread + "/" + i));
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (final ClientData clientData : clients) {
+            assertEquals(80, clientData.getSubscribedTopics().size());
+        }
+        assertEquals(100, registry.getBySubscription(MqttTopicFilter.of("topic/7/9")).size());
+    }
+
+    private static @NotNull MqttClient client(final @NotNull String identifier, final @NotNull String host) {
+        return MqttClient.builder().identifier(identifier).serverHost(host).useMqttVersion5().buildAsync();
+    }
+}
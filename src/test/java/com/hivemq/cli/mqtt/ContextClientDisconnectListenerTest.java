@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.mqtt3.Mqtt3AsyncClient;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContextClientDisconnectListenerTest {
+
+    @Test
+    void testWhenDisconnectedCompletesOnFailedConnect() throws Exception {
+        final int port;
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        final Mqtt3AsyncClient client = MqttClient.builder()
+                .identifier("listener-test")
+                .serverHost("localhost")
+                .serverPort(port)
+                .addDisconnectedListener(new ContextClientDisconnectListener())
+                .useMqttVersion3()
+                .buildAsync();
+
+        final CompletableFuture<Void> disconnected = ContextClientDisconnectListener.whenDisconnected(client);
+        assertFalse(disconnected.isDone());
+        assertSame(disconnected, ContextClientDisconnectListener.whenDisconnected(client));
+
+        client.connect();
+
+        disconnected.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testWhenDisconnectedWithoutListener() {
+        final MqttClient client = MqttClient.builder().identifier("no-listener").useMqttVersion5().build();
+
+        assertThrows(IllegalArgumentException.class, () -> ContextClientDisconnectListener.whenDisconnected(client));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MqttClientExecutorTest {
+
+    @Test
+    void testAwaitDisconnectsReportsTimedOutClients() {
+        final ClientData disconnected = clientData("disconnected");
+        final ClientData failed = clientData("failed");
+        final ClientData hanging = clientData("hanging");
+
+        final CompletableFuture<Void> failedFuture = new CompletableFuture<>();
+        failedFuture.completeExceptionally(new IllegalStateException("test"));
+
+        final Map<ClientData, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        futures.put(disconnected, CompletableFuture.completedFuture(null));
+        futures.put(failed, failedFuture);
+        futures.put(hanging, new CompletableFuture<>());
+
+        final long start = System.nanoTime();
+        final List<ClientKey> timedOut = MqttClientExecutor.awaitDisconnects(futures, 200, TimeUnit.MILLISECONDS);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Collections.singletonList(hanging.getKey()), timedOut);
+        assertTrue(elapsedMillis >= 200 && elapsedMillis < 5_000, "elapsed " + elapsedMillis);
+    }
+
+    @Test
+    void testAwaitDisconnectsReturnsWhenAllCompleted() {
+        final Map<ClientData, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        futures.put(clientData("a"), CompletableFuture.completedFuture(null));
+        futures.put(clientData("b"), CompletableFuture.completedFuture(null));
+
+        final long start = System.nanoTime();
+        assertTrue(MqttClientExecutor.awaitDisconnects(futures, 10, TimeUnit.SECONDS).isEmpty());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+
+    @Test
+    void testTimedOutClientsStayRegistered() {
+        final ClientData disconnected = clientData("registered-disconnected");
+        final ClientData failed = clientData("registered-failed");
+        final ClientData hanging = clientData("registered-hanging");
+        final ClientRegistry clientRegistry = MqttClientExecutor.getClientRegistry();
+        clientRegistry.put(disconnected);
+        clientRegistry.put(failed);
+        clientRegistry.put(hanging);
+
+        final CompletableFuture<Void> failedFuture = new CompletableFuture<>();
+        failedFuture.completeExceptionally(new IllegalStateException("test"));
+
+        final Map<ClientData, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        futures.put(disconnected, CompletableFuture.completedFuture(null));
+        futures.put(failed, failedFuture);
+        futures.put(hanging, new CompletableFuture<>());
+
+        try {
+            MqttClientExecutor.removeDisconnectedClients(futures);
+
+            assertFalse(clientRegistry.contains(disconnected.getKey()));
+            assertFalse(clientRegistry.contains(failed.getKey()));
+            assertSame(hanging, clientRegistry.get(hanging.getKey()));
+        }
+        finally {
+            clientRegistry.remove(hanging);
+        }
+    }
+
+    private static ClientData clientData(final String identifier) {
+        return new ClientData(MqttClient.builder().identifier(identifier).serverHost("localhost").useMqttVersion3().buildAsync());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NettyTransportTest {
+
+    @Test
+    void testDefaultsUseLibraryConfig() {
+        assertNull(NettyTransport.buildExecutorConfig(null, true));
+    }
+
+    @Test
+    void testSharedEventLoopWithThreads() {
+        final MqttClientExecutorConfig config = NettyTransport.buildExecutorConfig(4, true);
+
+        assertNotNull(config);
+        assertEquals(4, config.getNettyThreads().getAsInt());
+        assertFalse(config.getNettyExecutor().isPresent());
+    }
+
+    @Test
+    void testOwnEventLoopPerClient() {
+        final MqttClientExecutorConfig first = NettyTransport.buildExecutorConfig(null, false);
+        final MqttClientExecutorConfig second = NettyTransport.buildExecutorConfig(2, false);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(first.getNettyExecutor().isPresent());
+        assertTrue(second.getNettyExecutor().isPresent());
+        assertNotEquals(first.getNettyExecutor().get(), second.getNettyExecutor().get());
+        assertEquals(2, second.getNettyThreads().getAsInt());
+    }
+
+    @Test
+    void testInvalidThreads() {
+        assertThrows(IllegalArgumentException.class, () -> NettyTransport.buildExecutorConfig(0, true));
+    }
+}
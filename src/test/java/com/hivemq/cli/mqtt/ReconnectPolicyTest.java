@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReconnectPolicyTest {
+
+    @Test
+    void testBackoffDoublesUpToMaxDelay() {
+        final ReconnectPolicy policy = new ReconnectPolicy(1000, 10_000);
+
+        assertEquals(1000, policy.getBackoffMillis(0));
+        assertEquals(2000, policy.getBackoffMillis(1));
+        assertEquals(8000, policy.getBackoffMillis(3));
+        assertEquals(10_000, policy.getBackoffMillis(4));
+        assertEquals(10_000, policy.getBackoffMillis(100));
+        assertEquals(10_000, policy.getBackoffMillis(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testDelayIsBetweenHalfAndFullBackoff() {
+        final ReconnectPolicy policy = new ReconnectPolicy(1000, 60_000);
+        final Random random = new Random(42);
+
+        for (int attempt = 0; attempt < 10; attempt++) {
+            final long backoff = policy.getBackoffMillis(attempt);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < 1000; i++) {
+                final long delay = policy.getDelayMillis(attempt, random);
+                assertTrue(delay >= backoff / 2 && delay <= backoff, "attempt " + attempt + " delay " + delay);
+                min = Math.min(min, delay);
+                max = Math.max(max, delay);
+            }
+            // the delays are spread over the range instead of all clients waiting the same time
+            assertTrue(max - min > backoff / 4, "attempt " + attempt);
+        }
+    }
+
+    @Test
+    void testInvalidDelays() {
+        assertThrows(IllegalArgumentException.class, () -> new ReconnectPolicy(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new ReconnectPolicy(1000, 999));
+    }
+}
@@ -29,6 +29,7 @@ import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
 
@@ -66,12 +67,12 @@ public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
     }
 
     @Override
-    void mqtt5Subscribe(@NotNull Mqtt5Client client, @NotNull Subscribe subscribe, @NotNull String topic, @NotNull MqttQos qos) {
+    void mqtt5Subscribe(@NotNull Mqtt5Client client, @NotNull Subscribe subscribe, @NotNull String[] topics, @NotNull MqttQos[] qos) {
 
     }
 
     @Override
-    void mqtt3Subscribe(@NotNull Mqtt3Client client, @NotNull Subscribe subscribe, @NotNull String topic, @NotNull MqttQos qos) {
+    void mqtt3Subscribe(@NotNull Mqtt3Client client, @NotNull Subscribe subscribe, @NotNull String[] topics, @NotNull MqttQos[] qos) {
 
     }
 
@@ -96,12 +97,12 @@ public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
     }
 
     @Override
-    void mqtt5Disconnect(@NotNull Mqtt5Client client, @NotNull Disconnect disconnect) {
-
+    @NotNull CompletableFuture<Void> mqtt5Disconnect(@NotNull Mqtt5Client client, @NotNull Disconnect disconnect) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt3Disconnect(@NotNull Mqtt3Client client, @NotNull Disconnect disconnect) {
-
+    @NotNull CompletableFuture<Void> mqtt3Disconnect(@NotNull Mqtt3Client client, @NotNull Disconnect disconnect) {
+        return CompletableFuture.completedFuture(null);
     }
 }
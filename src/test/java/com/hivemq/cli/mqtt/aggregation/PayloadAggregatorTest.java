@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.aggregation;
+
+import com.hivemq.cli.utils.json.JsonFieldExtractor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PayloadAggregatorTest {
+
+    @Test
+    void testIdleTopicsEvicted() {
+        final PayloadAggregator aggregator = new PayloadAggregator(JsonFieldExtractor.compile("$.value"), 60, false, null, false);
+        aggregator.add("a", json(1));
+        aggregator.add("b", json(2));
+        assertEquals(2, aggregator.getTopicCount());
+
+        aggregator.flush();
+        aggregator.add("a", json(3));
+        assertEquals(2, aggregator.getTopicCount());
+
+        // b received nothing during the last window
+        aggregator.flush();
+        assertEquals(1, aggregator.getTopicCount());
+
+        aggregator.flush();
+        assertEquals(0, aggregator.getTopicCount());
+    }
+
+    @Test
+    void testSamplesBeyondInitialBuffer() {
+        final TopicWindow window = new TopicWindow();
+        for (int i = 1; i <= 1000; i++) {
+            window.add(i);
+        }
+
+        final AggregationSummary summary = window.drain("a");
+        assertEquals(1000, summary.getCount());
+        assertEquals(500, (double) summary.getP50());
+        assertEquals(990, (double) summary.getP99());
+    }
+
+    private static @NotNull ByteBuffer json(final double value) {
+        return ByteBuffer.wrap(("{\"value\": " + value + "}").getBytes(StandardCharsets.UTF_8));
+    }
+}
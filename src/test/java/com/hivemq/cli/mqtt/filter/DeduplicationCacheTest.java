@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeduplicationCacheTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(60);
+
+    @Test
+    void testDuplicateDetected() {
+        final DeduplicationCache cache = new DeduplicationCache(10, WINDOW);
+        assertFalse(cache.isDuplicate(1L));
+        assertTrue(cache.isDuplicate(1L));
+        assertFalse(cache.isDuplicate(2L));
+        assertEquals(3, cache.getLookups());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void testLeastRecentlySeenEvicted() {
+        final DeduplicationCache cache = new DeduplicationCache(2, WINDOW);
+        assertFalse(cache.isDuplicate(1L));
+        assertFalse(cache.isDuplicate(2L));
+        // 1 becomes the most recently seen, 2 is evicted next
+        assertTrue(cache.isDuplicate(1L));
+        assertFalse(cache.isDuplicate(3L));
+        assertTrue(cache.isDuplicate(1L));
+        assertFalse(cache.isDuplicate(2L));
+    }
+
+    @Test
+    void testManyEntriesStayBounded() {
+        final DeduplicationCache cache = new DeduplicationCache(100, WINDOW);
+        final long memory = cache.getMemoryBytes();
+        for (long i = 0; i < 10_000; i++) {
+            assertFalse(cache.isDuplicate(i * 31));
+        }
+        for (long i = 9_900; i < 10_000; i++) {
+            assertTrue(cache.isDuplicate(i * 31));
+        }
+        assertFalse(cache.isDuplicate(0L));
+        assertEquals(memory, cache.getMemoryBytes());
+    }
+
+    @Test
+    void testRepeatAfterWindowIsNoDuplicate() {
+        final DeduplicationCache cache = new DeduplicationCache(10, WINDOW);
+        final long start = 1_000L;
+        assertFalse(cache.isDuplicate(1L, start));
+        assertTrue(cache.isDuplicate(1L, start + WINDOW.toNanos()));
+        // the window counts from the first delivery, re-deliveries do not extend it
+        assertFalse(cache.isDuplicate(1L, start + WINDOW.toNanos() + 1));
+        assertTrue(cache.isDuplicate(1L, start + WINDOW.toNanos() + 2));
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void testFingerprint() {
+        final ByteBuffer payload = buffer("payload");
+        final long fingerprint = DeduplicationCache.fingerprint("topic", payload, null);
+        assertEquals(fingerprint, DeduplicationCache.fingerprint("topic", buffer("payload"), null));
+        assertNotEquals(fingerprint, DeduplicationCache.fingerprint("topic2", buffer("payload"), null));
+        assertNotEquals(fingerprint, DeduplicationCache.fingerprint("topic", buffer("payload"), buffer("id")));
+        assertNotEquals(DeduplicationCache.fingerprint("a", buffer("bc"), null), DeduplicationCache.fingerprint("a", buffer("b"), buffer("c")));
+        assertEquals(0, payload.position());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new DeduplicationCache(0, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new DeduplicationCache(1, Duration.ZERO));
+    }
+
+    private static ByteBuffer buffer(final String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.filter;
+
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishFilterTest {
+
+    @Test
+    void testPayloadSize() {
+        final PublishFilter filter = new PublishFilter(2, 4, null, null, null, 1, 1);
+        assertFalse(filter.accept("t", null, null));
+        assertFalse(filter.accept("t", payload("a"), null));
+        assertTrue(filter.accept("t", payload("ab"), null));
+        assertTrue(filter.accept("t", payload("abcd"), null));
+        assertFalse(filter.accept("t", payload("abcde"), null));
+    }
+
+    @Test
+    void testTopicPattern() {
+        final PublishFilter filter = new PublishFilter(0, Integer.MAX_VALUE, Pattern.compile("^sensors/.+/temp$"), null, null, 1, 1);
+        assertTrue(filter.accept("sensors/a/temp", payload("1"), null));
+        assertTrue(filter.accept("sensors/a/temp", payload("1"), null));
+        assertFalse(filter.accept("sensors/a/humidity", payload("1"), null));
+    }
+
+    @Test
+    void testPayloadPattern() {
+        final PublishFilter filter = new PublishFilter(0, Integer.MAX_VALUE, null, "alarm".getBytes(StandardCharsets.UTF_8), null, 1, 1);
+        assertTrue(filter.accept("t", payload("{\"state\":\"alarm\"}"), null));
+        assertFalse(filter.accept("t", payload("{\"state\":\"ok\"}"), null));
+        assertFalse(filter.accept("t", null, null));
+    }
+
+    @Test
+    void testIndexOfKeepsPosition() {
+        final ByteBuffer buffer = payload("xxabcab");
+        buffer.position(2);
+        assertEquals(0, PublishFilter.indexOf(buffer, new byte[]{'a', 'b'}));
+        assertEquals(2, PublishFilter.indexOf(buffer, new byte[]{'c', 'a', 'b'}));
+        assertEquals(-1, PublishFilter.indexOf(buffer, new byte[]{'x'}));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    void testUserProperties() {
+        final Mqtt5UserProperty property = Mqtt5UserProperty.of("type", "alert");
+        final PublishFilter filter = new PublishFilter(0, Integer.MAX_VALUE, null, null, Collections.singletonList(property), 1, 1);
+        assertTrue(filter.accept("t", null, Mqtt5UserProperties.of(property, Mqtt5UserProperty.of("a", "b"))));
+        assertFalse(filter.accept("t", null, Mqtt5UserProperties.of(Mqtt5UserProperty.of("type", "info"))));
+        assertFalse(filter.accept("t", null, null));
+    }
+
+    @Test
+    void testSampleEveryCountsMatchesOnly() {
+        final PublishFilter filter = new PublishFilter(1, Integer.MAX_VALUE, null, null, null, 3, 1);
+        int accepted = 0;
+        for (int i = 0; i < 9; i++) {
+            assertFalse(filter.accept("t", null, null));
+            if (filter.accept("t", payload("a"), null)) {
+                accepted++;
+            }
+        }
+        assertEquals(3, accepted);
+    }
+
+    @Test
+    void testSampleRate() {
+        final PublishFilter filter = new PublishFilter(0, Integer.MAX_VALUE, null, null, null, 1, 0.5);
+        int accepted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.accept("t", null, null)) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted > 4_000 && accepted < 6_000);
+    }
+
+    private static ByteBuffer payload(final String payload) {
+        return ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.jfr;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientConfig;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MqttFlightRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEventsRecorded() throws Exception {
+        final MqttClientConfig config = MqttClient.builder().identifier("jfr-test").serverHost("localhost").useMqttVersion5().buildAsync().getConfig();
+        final Path file = tempDir.resolve("test.jfr");
+
+        // not recording, must not fail
+        MqttFlightRecorder.publishSent(config, "before", MqttQos.AT_MOST_ONCE, 1);
+
+        try (final Recording recording = new Recording()) {
+            recording.enable("com.hivemq.cli.Connect");
+            recording.enable("com.hivemq.cli.PublishAcked");
+            recording.enable("com.hivemq.cli.MessageReceived");
+            recording.disable("com.hivemq.cli.PublishSent");
+            recording.start();
+
+            MqttFlightRecorder.connected(config, Duration.ofMillis(5).toNanos());
+            MqttFlightRecorder.publishAcked(config, "a/b", MqttQos.AT_LEAST_ONCE, 42, 1_000);
+            MqttFlightRecorder.messageReceived(config, "c/d", MqttQos.EXACTLY_ONCE, 7);
+            // disabled in this recording
+            MqttFlightRecorder.publishSent(config, "a/b", MqttQos.AT_LEAST_ONCE, 42);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(3, events.size());
+
+        final RecordedEvent connect = events.stream().filter(e -> e.getEventType().getName().equals("com.hivemq.cli.Connect")).findFirst().get();
+        assertEquals("jfr-test", connect.getString("clientId"));
+        assertEquals("localhost", connect.getString("host"));
+        assertEquals(Duration.ofMillis(5), connect.getDuration("connectTime"));
+
+        final RecordedEvent acked = events.stream().filter(e -> e.getEventType().getName().equals("com.hivemq.cli.PublishAcked")).findFirst().get();
+        assertEquals("a/b", acked.getString("topic"));
+        assertEquals(1, acked.getInt("qos"));
+        assertEquals(42, acked.getInt("size"));
+
+        final RecordedEvent received = events.stream().filter(e -> e.getEventType().getName().equals("com.hivemq.cli.MessageReceived")).findFirst().get();
+        assertEquals("c/d", received.getString("topic"));
+        assertEquals(2, received.getInt("qos"));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.metrics;
+
+import com.hivemq.cli.mqtt.ClientKey;
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    @Test
+    void testHistogramBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(30));
+        histogram.record(TimeUnit.SECONDS.toNanos(20));
+
+        final long[] counts = histogram.getCumulativeCounts();
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS_SECONDS.length + 1, counts.length);
+        assertArrayEquals(new long[]{2, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 3, 3, 4}, counts);
+        assertEquals(20.0315, histogram.getSumSeconds(), 0.0000001);
+    }
+
+    @Test
+    void testScrape() {
+        final MqttClientConfig config = MqttClient.builder().identifier("metrics\"test").serverHost("localhost").useMqttVersion5().buildAsync().getConfig();
+        final ClientMetrics metrics = MetricsRegistry.forClient(config);
+        assertSame(metrics, MetricsRegistry.forClient(config));
+
+        metrics.connected();
+        metrics.connected();
+        metrics.reconnected(TimeUnit.MILLISECONDS.toNanos(1500));
+        metrics.received(10);
+        metrics.received(5);
+        metrics.filtered();
+        metrics.published(3, TimeUnit.MILLISECONDS.toNanos(2));
+
+        final String scrape = MetricsRegistry.scrape();
+        final String labels = "client=\"metrics\\\"test\",host=\"localhost\"";
+        assertTrue(scrape.contains("# TYPE mqtt_cli_messages_received_total counter\n"));
+        assertTrue(scrape.contains("mqtt_cli_messages_received_total{" + labels + "} 2\n"));
+        assertTrue(scrape.contains("mqtt_cli_bytes_received_total{" + labels + "} 15\n"));
+        assertTrue(scrape.contains("mqtt_cli_bytes_sent_total{" + labels + "} 3\n"));
+        assertTrue(scrape.contains("mqtt_cli_reconnects_total{" + labels + "} 1\n"));
+        assertTrue(scrape.contains("mqtt_cli_reconnect_downtime_seconds_total{" + labels + "} 1.500\n"));
+        assertTrue(scrape.contains("mqtt_cli_messages_dropped_total{" + labels + ",reason=\"filtered\"} 1\n"));
+        assertTrue(scrape.contains("mqtt_cli_publish_ack_latency_seconds_bucket{" + labels + ",le=\"0.001\"} 0\n"));
+        assertTrue(scrape.contains("mqtt_cli_publish_ack_latency_seconds_bucket{" + labels + ",le=\"0.0025\"} 1\n"));
+        assertTrue(scrape.contains("mqtt_cli_publish_ack_latency_seconds_bucket{" + labels + ",le=\"+Inf\"} 1\n"));
+        assertTrue(scrape.contains("mqtt_cli_publish_ack_latency_seconds_count{" + labels + "} 1\n"));
+    }
+
+    @Test
+    void testAverageAckLatency() {
+        final MqttClientConfig config = MqttClient.builder().identifier("ewma").serverHost("localhost").useMqttVersion5().buildAsync().getConfig();
+        final ClientMetrics metrics = MetricsRegistry.forClient(config);
+        assertTrue(Double.isNaN(metrics.getAverageAckLatencyNanos()));
+
+        metrics.published(1, 1_000);
+        assertEquals(1_000, metrics.getAverageAckLatencyNanos(), 0.001);
+
+        metrics.published(1, 9_000);
+        assertEquals(2_000, metrics.getAverageAckLatencyNanos(), 0.001);
+
+        metrics.published(1);
+        assertEquals(2_000, metrics.getAverageAckLatencyNanos(), 0.001);
+        assertEquals(2, metrics.getPublishAckLatency().getCumulativeCounts()[LatencyHistogram.BUCKET_BOUNDS_SECONDS.length]);
+
+        metrics.publishFailed();
+        metrics.publishFailed();
+        assertEquals(2, metrics.getFailedPublishes());
+        assertEquals(3, metrics.getMessagesSent());
+        assertTrue(MetricsRegistry.scrape().contains("mqtt_cli_publishes_failed_total{client=\"ewma\",host=\"localhost\"} 2\n"));
+    }
+
+    @Test
+    void testRemove() {
+        final MqttClientConfig config = MqttClient.builder().identifier("removed").serverHost("localhost").useMqttVersion5().buildAsync().getConfig();
+        final ClientMetrics metrics = MetricsRegistry.forClient(config);
+        metrics.received(1);
+        assertTrue(MetricsRegistry.scrape().contains("client=\"removed\""));
+
+        MetricsRegistry.remove(ClientKey.of(config));
+        assertFalse(MetricsRegistry.scrape().contains("client=\"removed\""));
+        assertNotSame(metrics, MetricsRegistry.forClient(config));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpStreamOutputTest {
+
+    private final @NotNull List<Socket> sockets = new ArrayList<>();
+    private HttpStreamOutput output;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (final Socket socket : sockets) {
+            socket.close();
+        }
+        if (output != null) {
+            output.close();
+        }
+    }
+
+    @Test
+    void testAllViewersReceiveRecords() throws Exception {
+        output = start(100);
+        final BufferedReader sse1 = connectSse(0);
+        final BufferedReader sse2 = connectSse(0);
+        final DataInputStream webSocket = connectWebSocket();
+        awaitCondition(() -> output.getViewerCount() == 3);
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            output.write("a/b", "message" + i);
+            expected.add("{\"topic\":\"a/b\",\"message\":\"message" + i + "\"}");
+        }
+
+        assertEquals(expected, readSseRecords(sse1, 3));
+        assertEquals(expected, readSseRecords(sse2, 3));
+        assertEquals(expected, readWebSocketRecords(webSocket, 3));
+        assertEquals(0, output.getDroppedCount());
+    }
+
+    @Test
+    void testSlowViewerDropsWithoutBlockingWrite() throws Exception {
+        final int bufferSize = 4;
+        output = start(bufferSize);
+        // the viewer never reads, so its socket buffers fill up and its ring buffer overflows
+        connectSse(4 * 1024);
+        awaitCondition(() -> output.getViewerCount() == 1);
+
+        final char[] chars = new char[1024];
+        Arrays.fill(chars, 'x');
+        final String message = new String(chars);
+        final int count = 20_000;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            output.write("slow", message);
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 5_000, "elapsed " + elapsedMillis);
+        assertTrue(output.getQueueDepth() <= bufferSize, "queue depth " + output.getQueueDepth());
+        assertTrue(output.getDroppedCount() > 0);
+        assertTrue(output.getDroppedCount() < count);
+    }
+
+    private static @NotNull HttpStreamOutput start(final int bufferSize) throws IOException {
+        final HttpStreamOutput output = new HttpStreamOutput(new InetSocketAddress("127.0.0.1", 0), bufferSize);
+        output.start();
+        return output;
+    }
+
+    private @NotNull Socket connect(final int receiveBufferSize, final @NotNull String request) throws IOException {
+        final Socket socket = new Socket();
+        sockets.add(socket);
+        if (receiveBufferSize > 0) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+        socket.setSoTimeout(10_000);
+        socket.connect(new InetSocketAddress("127.0.0.1", output.getPort()));
+        final OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private @NotNull BufferedReader connectSse(final int receiveBufferSize) throws IOException {
+        final Socket socket = connect(receiveBufferSize,
+                "GET " + HttpStreamOutput.EVENTS_PATH + " HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private @NotNull DataInputStream connectWebSocket() throws IOException {
+        final Socket socket = connect(0, "GET " + HttpStreamOutput.WEBSOCKET_PATH + " HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n" +
+                "Sec-WebSocket-Version: 13\r\n\r\n");
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        // skip the handshake response up to the empty line
+        final StringBuilder response = new StringBuilder();
+        while (response.indexOf("\r\n\r\n") < 0) {
+            response.append((char) in.readUnsignedByte());
+        }
+        assertTrue(response.toString().startsWith("HTTP/1.1 101"), response.toString());
+        return in;
+    }
+
+    // chunked SSE events, only the "data:" lines are records
+    private static @NotNull List<String> readSseRecords(final @NotNull BufferedReader reader, final int count) throws IOException {
+        final List<String> records = new ArrayList<>();
+        while (records.size() < count) {
+            final String line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            if (line.startsWith("data: ")) {
+                records.add(line.substring("data: ".length()));
+            }
+        }
+        return records;
+    }
+
+    // unmasked text frames sent by the server
+    private static @NotNull List<String> readWebSocketRecords(final @NotNull DataInputStream in, final int count) throws IOException {
+        final List<String> records = new ArrayList<>();
+        while (records.size() < count) {
+            assertEquals(0x81, in.readUnsignedByte());
+            int length = in.readUnsignedByte();
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            }
+            final byte[] payload = new byte[length];
+            in.readFully(payload);
+            records.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    private static void awaitCondition(final @NotNull BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
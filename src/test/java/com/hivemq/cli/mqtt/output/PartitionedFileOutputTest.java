@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedFileOutputTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTopicsKeepOrderInTheirPartition() throws Exception {
+        final File publishFile = tempDir.resolve("out.txt").toFile();
+        final PartitionedFileOutput output = new PartitionedFileOutput(publishFile, 3);
+        for (int i = 0; i < 1000; i++) {
+            output.write("topic/" + (i % 10), (i % 10) + ":" + i);
+        }
+        output.close();
+
+        int lines = 0;
+        for (int partition = 0; partition < 3; partition++) {
+            final File file = PartitionedFileOutput.partitionFile(publishFile, partition);
+            assertTrue(file.exists());
+            final List<String> content = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            final List<Integer> lastPerTopic = new ArrayList<>();
+            for (int t = 0; t < 10; t++) {
+                lastPerTopic.add(-1);
+            }
+            for (final String line : content) {
+                final int topic = Integer.parseInt(line.substring(0, line.indexOf(':')));
+                final int counter = Integer.parseInt(line.substring(line.indexOf(':') + 1));
+                assertEquals(partition, PartitionedFileOutput.partition("topic/" + topic, 3));
+                assertTrue(counter > lastPerTopic.get(topic));
+                lastPerTopic.set(topic, counter);
+            }
+            lines += content.size();
+        }
+        assertEquals(1000, lines);
+    }
+
+    @Test
+    void testPartitionIsStable() {
+        for (int partitions = 1; partitions < 10; partitions++) {
+            final int partition = PartitionedFileOutput.partition("a/b/c", partitions);
+            assertTrue(partition >= 0 && partition < partitions);
+            assertEquals(partition, PartitionedFileOutput.partition("a/b/c", partitions));
+        }
+    }
+
+    @Test
+    void testInvalidPartitions() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedFileOutput(tempDir.resolve("out.txt").toFile(), 0));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.output;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamOutputTest {
+
+    @Test
+    void testNdjsonRecord() {
+        final byte[] record = RecordFormat.NDJSON.encode("a/b", "line1\n\"quoted\"");
+        assertEquals("{\"topic\":\"a/b\",\"message\":\"line1\\n\\\"quoted\\\"\"}\n", new String(record, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLengthPrefixedRecord() {
+        final ByteBuffer record = ByteBuffer.wrap(RecordFormat.LENGTH_PREFIXED.encode("t", "ä"));
+        assertEquals(1, record.getInt());
+        assertEquals('t', record.get());
+        assertEquals(2, record.getInt());
+        assertEquals(2, record.remaining());
+    }
+
+    @Test
+    void testAllRecordsWritten() throws Exception {
+        final BlockingTarget target = new BlockingTarget(new CountDownLatch(0));
+        final StreamOutput output = new StreamOutput(target, RecordFormat.LENGTH_PREFIXED, 100, SlowConsumerPolicy.DROP_NEWEST);
+        for (int i = 0; i < 50; i++) {
+            output.write("t", Integer.toString(i));
+        }
+        output.close();
+        assertEquals(50, target.records.size());
+        assertEquals(0, output.getDroppedCount());
+    }
+
+    @Test
+    void testDropNewest() throws Exception {
+        assertEquals("0,1,2", writeToSlowConsumer(SlowConsumerPolicy.DROP_NEWEST));
+    }
+
+    @Test
+    void testDropOldest() throws Exception {
+        assertEquals("7,8,9", writeToSlowConsumer(SlowConsumerPolicy.DROP_OLDEST));
+    }
+
+    @Test
+    void testDisconnect() throws Exception {
+        assertEquals("", writeToSlowConsumer(SlowConsumerPolicy.DISCONNECT));
+    }
+
+    // the consumer only connects after all messages were received
+    private static @NotNull String writeToSlowConsumer(final @NotNull SlowConsumerPolicy policy) throws Exception {
+        final CountDownLatch connected = new CountDownLatch(1);
+        final BlockingTarget target = new BlockingTarget(connected);
+        final StreamOutput output = new StreamOutput(target, RecordFormat.LENGTH_PREFIXED, 3, policy);
+        for (int i = 0; i < 10; i++) {
+            output.write("t", Integer.toString(i));
+        }
+        assertEquals(policy == SlowConsumerPolicy.DISCONNECT ? 10 : 7, output.getDroppedCount());
+        connected.countDown();
+        output.close();
+
+        final StringBuilder messages = new StringBuilder();
+        for (final byte[] record : target.records) {
+            final ByteBuffer buffer = ByteBuffer.wrap(record);
+            buffer.position(4 + buffer.getInt(0));
+            final byte[] message = new byte[buffer.getInt()];
+            buffer.get(message);
+            messages.append(messages.length() > 0 ? "," : "").append(new String(message, StandardCharsets.UTF_8));
+        }
+        return messages.toString();
+    }
+
+    private static class BlockingTarget implements StreamTarget {
+
+        private final @NotNull CountDownLatch connected;
+        private final @NotNull List<byte[]> records = new ArrayList<>();
+
+        BlockingTarget(final @NotNull CountDownLatch connected) {
+            this.connected = connected;
+        }
+
+        @Override
+        public void open() throws IOException {
+            try {
+                connected.await();
+            }
+            catch (final InterruptedException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void write(final @NotNull List<byte[]> records) {
+            this.records.addAll(records);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeatureTestExecutorTest {
+
+    @Test
+    void testOutputInOrderOfTests() throws Exception {
+        final CountDownLatch secondFinished = new CountDownLatch(1);
+        final FeatureTestExecutor executor = new FeatureTestExecutor(2);
+        executor.add("first: ", () -> {
+            try {
+                // finishes after the second test, which runs at the same time
+                assertTrue(secondFinished.await(10, TimeUnit.SECONDS));
+            }
+            catch (final InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return "1";
+        });
+        executor.add("second: ", () -> {
+            secondFinished.countDown();
+            return "2";
+        });
+        executor.add("third: ", () -> "3");
+
+        assertEquals(String.format("first: 1%nsecond: 2%nthird: 3%n"), run(executor));
+    }
+
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final FeatureTestExecutor executor = new FeatureTestExecutor(2);
+        for (int i = 0; i < 6; i++) {
+            executor.add(i + ": ", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                }
+                catch (final InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                running.decrementAndGet();
+                return "OK";
+            });
+        }
+        run(executor);
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testFailedTest() throws Exception {
+        final FeatureTestExecutor executor = new FeatureTestExecutor(1);
+        executor.add("failing: ", () -> {
+            throw new IllegalStateException("broker gone");
+        });
+        executor.add("next: ", () -> "OK");
+
+        assertEquals(String.format("failing: FAILED (broker gone)%nnext: OK%n"), run(executor));
+    }
+
+    @Test
+    void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new FeatureTestExecutor(0));
+    }
+
+    private static String run(final FeatureTestExecutor executor) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        executor.run(new PrintStream(out, true, "UTF-8"));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import com.hivemq.cli.mqtt.test.results.ClientIdCharsTestResults;
+import com.hivemq.cli.mqtt.test.results.ClientIdLengthTestResults;
+import com.hivemq.cli.mqtt.test.results.PayloadTestResults;
+import com.hivemq.cli.mqtt.test.results.TestResult;
+import com.hivemq.cli.mqtt.test.results.TopicLengthTestResults;
+import com.hivemq.cli.utils.Tuple;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitProberTest {
+
+    @Test
+    void testSearchFindsLimit() {
+        final int[] limits = {0, 1, 2, 22, 23, 24, 255, 256, 257, 1000, 65534, 65535};
+        for (final int limit : limits) {
+            assertEquals(limit, LimitProber.search(1, 23, 65535, size -> size <= limit));
+            assertEquals(limit, LimitProber.search(1, 256, 65535, size -> size <= limit));
+            assertEquals(limit, LimitProber.search(0, 65535, 65535, size -> size <= limit));
+        }
+    }
+
+    @Test
+    void testSearchProbesEachSizeOnce() {
+        for (int limit = -1; limit <= 300; limit++) {
+            final int currentLimit = limit;
+            final Set<Integer> probed = new HashSet<>();
+            LimitProber.search(0, 23, 300, size -> {
+                assertTrue(probed.add(size), "size " + size + " probed twice");
+                return size <= currentLimit;
+            });
+        }
+    }
+
+    @Test
+    void testSearchFailsLessOftenThanBinarySearchFromMaximum() {
+        final AtomicInteger failures = new AtomicInteger();
+        final int limit = LimitProber.search(1, 256, 65535, size -> {
+            if (size <= 300) {
+                return true;
+            }
+            failures.incrementAndGet();
+            return false;
+        });
+
+        assertEquals(300, limit);
+        // a binary search from 65535 fails 9 times before it reaches sizes around 300
+        assertTrue(failures.get() <= 8, failures + " failed probes");
+    }
+
+    @Test
+    void testSearchLimitBelowMinimum() {
+        assertEquals(0, LimitProber.search(1, 23, 65535, size -> false));
+        assertEquals(-1, LimitProber.search(0, 0, 100, size -> false));
+    }
+
+    @Test
+    void testProbeTopicLengthReusesClients() {
+        final FakeBroker broker = new FakeBroker(300, Integer.MAX_VALUE, 100);
+        final TopicLengthTestResults results = new LimitProber(broker::client, 1).probeTopicLength();
+
+        assertEquals(300, results.getMaxTopicLength());
+        for (final Tuple<Integer, TestResult> result : results.getTestResults()) {
+            assertEquals(result.getKey() <= 300 ? TestResult.OK : TestResult.PUBLISH_FAILED, result.getValue());
+        }
+        // the subscriber stays connected, only the publisher is reconnected after a failed publish
+        assertEquals(2, broker.clients.size());
+        assertEquals(1, broker.clients.get(1).connects);
+    }
+
+    @Test
+    void testProbePayloadSize() {
+        final FakeBroker broker = new FakeBroker(Integer.MAX_VALUE, 5000, 100);
+        final PayloadTestResults results = new LimitProber(broker::client, 1).probePayloadSize("topic", 10000, 10000);
+
+        assertEquals(5000, results.getPayloadSize());
+        assertEquals(2, broker.clients.size());
+        assertEquals(1, broker.clients.get(1).connects);
+    }
+
+    @Test
+    void testProbeClientIdLength() {
+        final FakeBroker broker = new FakeBroker(Integer.MAX_VALUE, Integer.MAX_VALUE, 100);
+        final ClientIdLengthTestResults results = new LimitProber(broker::client, 1).probeClientIdLength();
+
+        assertEquals(100, results.getMaxClientIdLength());
+        for (final Tuple<Integer, String> result : results.getTestResults()) {
+            assertEquals(result.getKey() <= 100 ? "SUCCESS" : "CLIENT_IDENTIFIER_NOT_VALID", result.getValue());
+        }
+    }
+
+    @Test
+    void testProbeClientIdChars() {
+        final FakeBroker broker = new FakeBroker(Integer.MAX_VALUE, Integer.MAX_VALUE, 100);
+        broker.rejectedChars = "+\uD83D\uDE00";
+        broker.connectDelay = 20;
+        final int[] codePoints = " !\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\u00E4\uD83D\uDE00".codePoints().toArray();
+
+        final ClientIdCharsTestResults results = new LimitProber(broker::client, 10).probeClientIdChars(codePoints, 3);
+
+        assertEquals(Arrays.asList("+", "\uD83D\uDE00"), results.getUnsupportedChars());
+        assertEquals(codePoints.length, results.getTestResults().size());
+        for (int i = 0; i < codePoints.length; i++) {
+            assertEquals(codePoints[i], (int) results.getTestResults().get(i).getKey());
+        }
+        // supported characters are only tested together with others
+        assertTrue(broker.clients.size() < codePoints.length, broker.clients.size() + " connects");
+        assertTrue(broker.maxConnecting.get() <= 3, broker.maxConnecting + " concurrent connects");
+    }
+
+    @Test
+    void testProbeClientIdCharsSharedDeadline() {
+        final FakeBroker broker = new FakeBroker(Integer.MAX_VALUE, Integer.MAX_VALUE, 100);
+        broker.connectDelay = 60_000;
+        final int[] codePoints = " !\"#$%&'()*+,-./".codePoints().toArray();
+
+        final long start = System.nanoTime();
+        final ClientIdCharsTestResults results = new LimitProber(broker::client, 1).probeClientIdChars(codePoints, 4);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        for (final Tuple<Integer, String> result : results.getTestResults()) {
+            assertEquals(TestResult.TIME_OUT.toString(), result.getValue());
+        }
+    }
+
+    // disconnects publishers exceeding the limits like a broker would
+    private static class FakeBroker {
+
+        private final int maxTopicLength;
+        private final int maxPayloadSize;
+        private final int maxClientIdLength;
+        private final @NotNull List<FakeClient> clients = new CopyOnWriteArrayList<>();
+        private final @NotNull AtomicInteger connecting = new AtomicInteger();
+        private final @NotNull AtomicInteger maxConnecting = new AtomicInteger();
+        private @NotNull String rejectedChars = "";
+        private long connectDelay;
+
+        FakeBroker(final int maxTopicLength, final int maxPayloadSize, final int maxClientIdLength) {
+            this.maxTopicLength = maxTopicLength;
+            this.maxPayloadSize = maxPayloadSize;
+            this.maxClientIdLength = maxClientIdLength;
+        }
+
+        @NotNull ProbeClient client(final @Nullable String identifier) {
+            final FakeClient client = new FakeClient(identifier);
+            clients.add(client);
+            return client;
+        }
+
+        private class FakeClient implements ProbeClient {
+
+            private final @Nullable String identifier;
+            private final @NotNull Set<String> subscriptions = new HashSet<>();
+            private final @NotNull BlockingQueue<byte[]> payloads = new LinkedBlockingQueue<>();
+            private boolean connected;
+            private int connects;
+
+            FakeClient(final @Nullable String identifier) {
+                this.identifier = identifier;
+            }
+
+            @Override
+            public @NotNull String connect() throws InterruptedException {
+                maxConnecting.accumulateAndGet(connecting.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(connectDelay);
+                }
+                finally {
+                    connecting.decrementAndGet();
+                }
+                if (identifier != null && (identifier.length() > maxClientIdLength
+                        || identifier.codePoints().anyMatch(codePoint -> rejectedChars.indexOf(codePoint) != -1))) {
+                    return "CLIENT_IDENTIFIER_NOT_VALID";
+                }
+                connects++;
+                connected = true;
+                return "SUCCESS";
+            }
+
+            @Override
+            public boolean isConnected() {
+                return connected;
+            }
+
+            @Override
+            public void subscribe(final @NotNull String topicFilter) {
+                assertTrue(connected);
+                subscriptions.add(topicFilter);
+            }
+
+            @Override
+            public void unsubscribe(final @NotNull String topicFilter) {
+                subscriptions.remove(topicFilter);
+            }
+
+            @Override
+            public void publish(final @NotNull String topic, final @NotNull byte[] payload) {
+                assertTrue(connected);
+                if (topic.length() > maxTopicLength || payload.length > maxPayloadSize) {
+                    connected = false;
+                    throw new IllegalStateException("publish failed");
+                }
+                for (final FakeClient client : clients) {
+                    if (client.connected && client.subscriptions.contains(topic)) {
+                        client.payloads.add(payload);
+                    }
+                }
+            }
+
+            @Override
+            public @Nullable byte[] receive(final long deadline) throws InterruptedException {
+                return payloads.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void disconnect() {
+                connected = false;
+                subscriptions.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt.test;
+
+import com.hivemq.cli.mqtt.test.results.TlsHandshakeTestResults;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TlsHandshakeBenchmarkTest {
+
+    private SSLServerSocket serverSocket;
+    private Thread acceptor;
+    private TrustManagerFactory trustManagerFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        final long now = System.currentTimeMillis();
+        final X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(
+                        new X500Name("CN=localhost"),
+                        BigInteger.ONE,
+                        new Date(now - TimeUnit.DAYS.toMillis(1)),
+                        new Date(now + TimeUnit.DAYS.toMillis(1)),
+                        new X500Name("CN=localhost"),
+                        keyPair.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        final KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("server", keyPair.getPrivate(), new char[0], new Certificate[]{certificate});
+        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, new char[0]);
+
+        final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("server", certificate);
+        trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+
+        final SSLContext serverContext = SSLContext.getInstance("TLS");
+        serverContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        serverSocket = (SSLServerSocket) serverContext.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (final SSLSocket socket = (SSLSocket) serverSocket.accept()) {
+                    socket.startHandshake();
+                }
+                catch (final Exception ignored) {
+                    // a failed handshake or the server socket was closed by the test
+                }
+            }
+        });
+        acceptor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serverSocket.close();
+        acceptor.join(5000);
+    }
+
+    @Test
+    void testHandshakes() {
+        final TlsHandshakeBenchmark benchmark = new TlsHandshakeBenchmark("localhost", serverSocket.getLocalPort(), 5, 5000);
+
+        final TlsHandshakeTestResults results = benchmark.run("TLSv1.2", null, trustManagerFactory, null);
+
+        assertNull(results.getError());
+        assertEquals(5, results.getSuccessful());
+        assertNotNull(results.getNegotiatedCipherSuite());
+        assertTrue(results.getLatencyPercentile(50) > 0);
+        assertTrue(results.getLatencyPercentile(50) <= results.getLatencyPercentile(100));
+        assertTrue(results.toString().startsWith("TLSv1.2 " + results.getNegotiatedCipherSuite() + ": 5/5 handshakes, p50 "));
+    }
+
+    @Test
+    void testUntrustedServer() {
+        final TlsHandshakeBenchmark benchmark = new TlsHandshakeBenchmark("localhost", serverSocket.getLocalPort(), 5, 5000);
+
+        final TlsHandshakeTestResults results = benchmark.run("TLSv1.2", null, null, null);
+
+        assertEquals(0, results.getSuccessful());
+        assertEquals(-1, results.getLatencyPercentile(50));
+        assertNotNull(results.getError());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import com.hivemq.client.mqtt.MqttClientSslConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SslConfigCacheTest {
+
+    private X509Certificate first;
+    private X509Certificate second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SslConfigCache.clear();
+        first = certificate("FileToCertificateConverter/directory_with_certificates/test1.pem");
+        second = certificate("FileToCertificateConverter/directory_with_certificates/test2.crt");
+    }
+
+    @Test
+    void testSameCertificatesShareConfig() throws Exception {
+        final List<String> protocols = Collections.singletonList("TLSv1.2");
+
+        final MqttClientSslConfig config = SslConfigCache.getSslConfig(Arrays.asList(first, second), null, null, null, protocols);
+        final MqttClientSslConfig reordered = SslConfigCache.getSslConfig(Arrays.asList(second, first), null, null, null, protocols);
+
+        assertSame(config, reordered);
+        assertTrue(config.getTrustManagerFactory().isPresent());
+        assertEquals(1, SslConfigCache.size());
+    }
+
+    @Test
+    void testDifferentOptionsBuildNewConfig() throws Exception {
+        final List<X509Certificate> certificates = Collections.singletonList(first);
+
+        final MqttClientSslConfig tls12 = SslConfigCache.getSslConfig(certificates, null, null, null, Collections.singletonList("TLSv1.2"));
+        final MqttClientSslConfig tls13 = SslConfigCache.getSslConfig(certificates, null, null, null, Collections.singletonList("TLSv1.3"));
+        final MqttClientSslConfig otherCa = SslConfigCache.getSslConfig(Collections.singletonList(second), null, null, null, Collections.singletonList("TLSv1.2"));
+        final MqttClientSslConfig ciphers = SslConfigCache.getSslConfig(certificates, null, null,
+                Collections.singletonList("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256"), Collections.singletonList("TLSv1.2"));
+
+        assertNotSame(tls12, tls13);
+        assertNotSame(tls12, otherCa);
+        assertNotSame(tls12, ciphers);
+        assertEquals(4, SslConfigCache.size());
+    }
+
+    @Test
+    void testFingerprint() throws Exception {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                SslConfigCache.fingerprint("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private X509Certificate certificate(final String resource) throws Exception {
+        final URL url = getClass().getClassLoader().getResource(resource);
+        assert url != null;
+        return CertificateConverterUtils.generateX509Certificate(new File(url.getPath()));
+    }
+}
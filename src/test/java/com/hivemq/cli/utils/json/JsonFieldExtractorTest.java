@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonFieldExtractorTest {
+
+    @Test
+    void testTopLevelField() {
+        assertEquals(21.5, extract("$.temperature", "{\"humidity\": 40, \"temperature\": 21.5}"));
+    }
+
+    @Test
+    void testNestedField() {
+        final String json = "{\"id\":\"a\",\"meta\":{\"tags\":[\"x\",{\"y\":1}]},\"sensor\":{\"name\":\"temp\",\"value\":-3e2}}";
+        assertEquals(-300, extract("$.sensor.value", json));
+    }
+
+    @Test
+    void testArrayIndex() {
+        assertEquals(3, extract("$.values[2]", "{\"values\": [1, 2, 3, 4]}"));
+        assertEquals(7, extract("$.a[1].b", "{\"a\": [{\"b\": 1}, {\"b\": 7}]}"));
+        assertEquals(5, extract("$[0]", "[5]"));
+    }
+
+    @Test
+    void testQuotedNumber() {
+        assertEquals(12, extract("$.value", "{\"value\": \"12\"}"));
+    }
+
+    @Test
+    void testSkipsStringsContainingStructuralCharacters() {
+        assertEquals(1, extract("$.value", "{\"text\": \"}, \\\"value\\\": 99\", \"value\": 1}"));
+    }
+
+    @Test
+    void testBufferPositionRespected() {
+        final ByteBuffer buffer = ByteBuffer.wrap("xx{\"value\": 4}".getBytes(StandardCharsets.UTF_8));
+        buffer.position(2);
+        final ByteBuffer readOnly = buffer.slice().asReadOnlyBuffer();
+        assertEquals(4, JsonFieldExtractor.compile("$.value").extract(readOnly));
+        assertEquals(0, readOnly.position());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not json", "{\"value\": \"abc\"}", "{\"other\": 1}", "{\"value\": {\"a\": 1}}", "{\"value\": ", "[1, 2]", "{\"value\": true}"})
+    void testMissingOrInvalidValue(final @NotNull String json) {
+        assertTrue(Double.isNaN(extract("$.value", json)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"value", "$.", "$..a", "$.a[", "$.a[x]", "$.a[-1]", "$a"})
+    void testInvalidPath(final @NotNull String path) {
+        final Exception e = assertThrows(IllegalArgumentException.class, () -> JsonFieldExtractor.compile(path));
+        assertEquals(JsonFieldExtractor.INVALID_PATH, e.getMessage());
+    }
+
+    private static double extract(final @NotNull String path, final @NotNull String json) {
+        return JsonFieldExtractor.compile(path).extract(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+    }
+}